@@ -1,9 +1,27 @@
 package com.personal.bookstoreapi.config;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 
+import java.util.concurrent.Executor;
+
+/**
+ * {@code @Async} methods (the catalog and search event listeners) run on virtual threads from
+ * the bounded {@link AsyncListenerPool}, never blocking the thread that publishes the event.
+ * Tomcat and {@code @Scheduled} jobs run on virtual threads under
+ * {@code spring.threads.virtual.enabled}.
+ */
 @Configuration
 @EnableAsync
-public class AsyncConfig {
+@RequiredArgsConstructor
+public class AsyncConfig implements AsyncConfigurer {
+
+    private final AsyncListenerPool listenerPool;
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return listenerPool.executor();
+    }
 }
@@ -0,0 +1,110 @@
+package com.personal.bookstoreapi.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The executor behind {@code @Async} event listeners. Every task gets its own virtual thread;
+ * a {@link Semaphore} of {@code async.listeners.max-concurrency} permits caps how many run at
+ * once, so listener work holds at most that many connections, and at most
+ * {@code async.listeners.queue-capacity} tasks may wait for a permit. Listeners are submitted
+ * from the committing request thread, which must never wait on them, so a task arriving when
+ * that many are already waiting is dropped and counted instead. Drops are coalesced into one
+ * flag that {@link #takeOverflow()} hands to whoever resynchronises the listeners' state,
+ * however many tasks were lost.
+ * Metrics: {@code async.listeners.queued} and {@code async.listeners.dropped}.
+ */
+@Slf4j
+@Component
+public class AsyncListenerPool {
+
+    private final ExecutorService threads = Executors.newThreadPerTaskExecutor(Thread.ofVirtual()
+                                                                                     .name("listener-", 0)
+                                                                                     .factory());
+    private final Semaphore permits;
+    private final int queueCapacity;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Counter dropped;
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+
+    public AsyncListenerPool(
+            MeterRegistry meterRegistry,
+            @Value("${async.listeners.max-concurrency:4}") int maxConcurrency,
+            @Value("${async.listeners.queue-capacity:10000}") int queueCapacity
+    ) {
+        this.permits = new Semaphore(maxConcurrency);
+        this.queueCapacity = queueCapacity;
+        this.dropped = Counter.builder("async.listeners.dropped")
+                              .description("Listener tasks dropped because the listener queue was full")
+                              .register(meterRegistry);
+        Gauge.builder("async.listeners.queued", waiting, AtomicInteger::get)
+             .description("Listener tasks waiting for a permit")
+             .register(meterRegistry);
+    }
+
+    public Executor executor() {
+        return this::submit;
+    }
+
+    /** Whether any task was dropped since the last call; clears the flag. */
+    public boolean takeOverflow() {
+        return overflowed.getAndSet(false);
+    }
+
+    private void submit(Runnable task) {
+        if (waiting.incrementAndGet() > queueCapacity) {
+            waiting.decrementAndGet();
+            drop();
+            return;
+        }
+        try {
+            threads.execute(() -> run(task));
+        } catch (RejectedExecutionException ex) {
+            // shutting down
+            waiting.decrementAndGet();
+        }
+    }
+
+    private void run(Runnable task) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException ex) {
+            waiting.decrementAndGet();
+            Thread.currentThread()
+                  .interrupt();
+            drop();
+            return;
+        }
+        waiting.decrementAndGet();
+        try {
+            task.run();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void drop() {
+        dropped.increment();
+        if (!overflowed.getAndSet(true)) {
+            log.warn("Listener queue full; dropping listener tasks until the next resync");
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        threads.shutdown();
+    }
+}
@@ -0,0 +1,75 @@
+package com.personal.bookstoreapi.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.personal.bookstoreapi.dto.response.BookDetailsDTO;
+import com.personal.bookstoreapi.service.CatalogEntry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String BOOK_DETAILS = "bookDetails";
+    public static final String BOOK_ITEMS = "bookItems";
+    public static final String BOOK_AUTHORS = "bookAuthors";
+
+    private final Duration ttl;
+    private final long maximumWeight;
+
+    public CacheConfig(
+            @Value("${catalog.cache.ttl}") Duration ttl,
+            @Value("${catalog.cache.maximum-weight}") long maximumWeight
+    ) {
+        this.ttl = ttl;
+        this.maximumWeight = maximumWeight;
+    }
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager manager = new CaffeineCacheManager();
+        // static mode: only the caches registered below exist, unknown names are not created on the fly
+        manager.setCacheNames(List.of());
+        manager.setAllowNullValues(false);
+        manager.registerCustomCache(BOOK_DETAILS, caffeine(CacheConfig::weighDetails).build());
+        manager.registerCustomCache(BOOK_ITEMS, caffeine(CacheConfig::weighCollection).build());
+        manager.registerCustomCache(BOOK_AUTHORS, caffeine(CacheConfig::weighCollection).build());
+        return manager;
+    }
+
+    private Caffeine<Object, Object> caffeine(Weigher<Object, Object> weigher) {
+        return Caffeine.newBuilder()
+                       .maximumWeight(maximumWeight)
+                       .weigher(weigher)
+                       .expireAfterWrite(ttl)
+                       .recordStats();
+    }
+
+    // Weights are roughly "number of small objects held", so the description LOB counts per KB.
+    private static int weighDetails(Object key, Object value) {
+        if (value instanceof CatalogEntry<?> entry && entry.body() instanceof BookDetailsDTO details && details.description() != null) {
+            return 1 + details.description()
+                              .length() / 1024;
+        }
+        return 1;
+    }
+
+    private static int weighCollection(Object key, Object value) {
+        if (value instanceof CatalogEntry<?> entry) {
+            value = entry.body();
+        }
+        if (value instanceof Collection<?> values) {
+            return Math.max(1, values.size());
+        }
+        return 1;
+    }
+}
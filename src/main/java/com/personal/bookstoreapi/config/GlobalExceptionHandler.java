@@ -1,11 +1,15 @@
 package com.personal.bookstoreapi.config;
 
 import com.personal.bookstoreapi.exception.ApiError;
+import com.personal.bookstoreapi.exception.BadRequestException;
 import com.personal.bookstoreapi.exception.ConflictException;
 import com.personal.bookstoreapi.exception.NotFoundException;
+import com.personal.bookstoreapi.exception.ServiceUnavailableException;
+import com.personal.bookstoreapi.exception.TooManyRequestsException;
 import com.personal.bookstoreapi.exception.UnauthorizedException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -83,6 +87,23 @@ public class GlobalExceptionHandler {
                              .body(body);
     }
 
+    // 400 - bad query parameters (cursor, filters, ...)
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ApiError> handleBadRequest(BadRequestException ex, HttpServletRequest req) {
+        String traceId = newTraceId();
+
+        ApiError body = ApiError.of(
+                HttpStatus.BAD_REQUEST.value(),
+                "Bad Request",
+                ex.getMessage(),
+                req.getRequestURI(),
+                traceId
+        );
+
+        return ResponseEntity.badRequest()
+                             .body(body);
+    }
+
     // 409 - email already used, etc.
     @ExceptionHandler(ConflictException.class)
     public ResponseEntity<ApiError> handleConflict(ConflictException ex, HttpServletRequest req) {
@@ -117,6 +138,42 @@ public class GlobalExceptionHandler {
                              .body(body);
     }
 
+    // 429 - admission control refused the request (e.g. password hashing saturated)
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiError> handleTooManyRequests(TooManyRequestsException ex, HttpServletRequest req) {
+        String traceId = newTraceId();
+
+        ApiError body = ApiError.of(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Too Many Requests",
+                ex.getMessage(),
+                req.getRequestURI(),
+                traceId
+        );
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                             .header(HttpHeaders.RETRY_AFTER, "1")
+                             .body(body);
+    }
+
+    // 503 - queue full, the client should back off and retry
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiError> handleServiceUnavailable(ServiceUnavailableException ex, HttpServletRequest req) {
+        String traceId = newTraceId();
+
+        ApiError body = ApiError.of(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                ex.getMessage(),
+                req.getRequestURI(),
+                traceId
+        );
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                             .header(HttpHeaders.RETRY_AFTER, "1")
+                             .body(body);
+    }
+
     // 500 - orice altceva
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiError> handleGeneric(Exception ex, HttpServletRequest req) {
@@ -1,14 +1,26 @@
 package com.personal.bookstoreapi.config;
 
+import com.personal.bookstoreapi.security.PasswordHasher;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+
 @Configuration
 public class PasswordConfig {
+
+    /**
+     * BCrypt at {@code security.hashing.strength}, or, when that is 0, at the highest cost that
+     * hashes within {@code security.hashing.target} on this machine.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${security.hashing.strength:0}") int strength,
+            @Value("${security.hashing.target:PT0.25S}") Duration target
+    ) {
+        return new BCryptPasswordEncoder(strength > 0 ? strength : PasswordHasher.calibrate(target));
     }
 }
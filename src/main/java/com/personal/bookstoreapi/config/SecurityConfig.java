@@ -27,7 +27,10 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        .requestMatchers(HttpMethod.POST, "/api/auth/logout-all").authenticated()
                         .requestMatchers("/api/auth/**").permitAll()
+                        // the full catalog dump is for partners' feeds, not for browsing
+                        .requestMatchers(HttpMethod.GET, "/api/books/export").hasAnyRole("PARTNER", "ADMIN")
                         .requestMatchers(HttpMethod.GET, "/api/books/**").permitAll()
                         .requestMatchers("/api/orders/**").authenticated()
                         .requestMatchers("/api/rentals/**").authenticated()
@@ -5,10 +5,13 @@ import com.personal.bookstoreapi.dto.request.RegisterRequestDTO;
 import com.personal.bookstoreapi.dto.response.LoginResponseDTO;
 import com.personal.bookstoreapi.dto.response.RegisterResponseDTO;
 import com.personal.bookstoreapi.service.AuthService;
+import com.personal.bookstoreapi.service.UserService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -16,9 +19,11 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuthController {
 
     private final AuthService authService;
+    private final UserService userService;
 
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, UserService userService) {
         this.authService = authService;
+        this.userService = userService;
     }
 
     @PostMapping("/register")
@@ -30,4 +35,10 @@ public class AuthController {
     public LoginResponseDTO login(@RequestBody @Valid LoginRequestDTO req) {
         return authService.login(req);
     }
-}
\ No newline at end of file
+
+    @PostMapping("/logout-all")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void logoutAll() {
+        userService.revokeTokens();
+    }
+}
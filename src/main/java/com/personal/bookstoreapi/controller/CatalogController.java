@@ -1,41 +1,205 @@
 package com.personal.bookstoreapi.controller;
 
+import com.personal.bookstoreapi.dto.request.BookFacetFilterDTO;
+import com.personal.bookstoreapi.dto.request.BookFilterDTO;
 import com.personal.bookstoreapi.dto.response.BookDetailsDTO;
 import com.personal.bookstoreapi.dto.response.BookItemDTO;
 import com.personal.bookstoreapi.dto.response.BookListDTO;
+import com.personal.bookstoreapi.dto.response.BookSearchResultDTO;
+import com.personal.bookstoreapi.dto.response.CursorPageDTO;
+import com.personal.bookstoreapi.dto.response.FacetedBookPageDTO;
+import com.personal.bookstoreapi.dto.response.SuggestionDTO;
+import com.personal.bookstoreapi.service.BookBrowseService;
+import com.personal.bookstoreapi.service.BookSearchService;
+import com.personal.bookstoreapi.service.CatalogEntry;
+import com.personal.bookstoreapi.service.CatalogExportService;
 import com.personal.bookstoreapi.service.CatalogService;
+import com.personal.bookstoreapi.service.CatalogVersion;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/books")
 @Validated
 public class CatalogController {
 
+    static final String EXPORT_SLOT = CatalogController.class.getName() + ".exportSlot";
+
     private final CatalogService catalogService;
+    private final BookSearchService bookSearchService;
+    private final BookBrowseService bookBrowseService;
+    private final CatalogExportService catalogExportService;
 
-    public CatalogController(CatalogService catalogService) {
+    public CatalogController(CatalogService catalogService,
+                             BookSearchService bookSearchService,
+                             BookBrowseService bookBrowseService,
+                             CatalogExportService catalogExportService) {
         this.catalogService = catalogService;
+        this.bookSearchService = bookSearchService;
+        this.bookBrowseService = bookBrowseService;
+        this.catalogExportService = catalogExportService;
     }
 
     @GetMapping
-    public List<BookListDTO> getAllBooks() {
-        return catalogService.getAllBooks();
+    public CursorPageDTO<BookListDTO> getAllBooks(
+            @RequestParam(required = false) String language,
+            @RequestParam(required = false) Integer yearFrom,
+            @RequestParam(required = false) Integer yearTo,
+            @RequestParam(required = false) @Positive(message = "authorId must be positive") Long authorId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @Positive(message = "size must be positive") Integer size,
+            WebRequest request
+    ) {
+        BookFilterDTO filter = new BookFilterDTO(language, yearFrom, yearTo, authorId);
+        if (notModified(request, catalogService.getCatalogVersion(filter, cursor, size))) return null;
+        return catalogService.getAllBooks(filter, cursor, size);
+    }
+
+    @GetMapping("/browse")
+    public FacetedBookPageDTO browse(
+            @RequestParam(required = false) String language,
+            @RequestParam(required = false) Integer decade,
+            @RequestParam(required = false) String itemType,
+            @RequestParam(required = false) Boolean rentable,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @Positive(message = "size must be positive") Integer size
+    ) {
+        return bookBrowseService.browse(new BookFacetFilterDTO(language, decade, itemType, rentable), cursor, size);
+    }
+
+    @GetMapping("/search")
+    public BookSearchResultDTO search(
+            @RequestParam @NotBlank(message = "q is required") String q,
+            @RequestParam(defaultValue = "0") @PositiveOrZero(message = "page must not be negative") int page,
+            @RequestParam(required = false) @Positive(message = "size must be positive") Integer size
+    ) {
+        return bookSearchService.search(q, page, size);
+    }
+
+    @GetMapping("/suggest")
+    public List<SuggestionDTO> suggest(
+            @RequestParam @NotBlank(message = "prefix is required") String prefix,
+            @RequestParam(required = false) @Positive(message = "limit must be positive") Integer limit
+    ) {
+        return bookSearchService.suggest(prefix, limit);
+    }
+
+    // Full catalog as NDJSON, written on an async thread straight to the response;
+    // gzip-compressed when the client accepts gzip.
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request
+    ) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        catalogExportService.acquire();
+        // The body may never run (client gone before streaming, async timeout or dispatch
+        // failure), so the slot is also released when the async request completes, whichever
+        // happens first.
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) catalogExportService.release();
+        };
+        try {
+            WebAsyncUtils.getAsyncManager(request)
+                         .registerCallableInterceptor(EXPORT_SLOT, new CallableProcessingInterceptor() {
+                             @Override
+                             public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                                 release.run();
+                             }
+                         });
+        } catch (RuntimeException e) {
+            release.run();
+            throw e;
+        }
+
+        StreamingResponseBody body = out -> {
+            try {
+                if (gzip) {
+                    GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024, true);
+                    catalogExportService.export(compressed);
+                    compressed.finish();
+                } else {
+                    catalogExportService.export(out);
+                }
+            } finally {
+                release.run();
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                                                            .contentType(MediaType.APPLICATION_NDJSON)
+                                                            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    // gzip (or x-gzip) listed with a non-zero q-value, or "*" with one when gzip is not listed
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        Double wildcard = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim()
+                                     .toLowerCase(Locale.ROOT);
+            double q = 1.0;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        q = Double.parseDouble(param.substring(2)
+                                                    .trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) return q > 0;
+            if (coding.equals("*")) wildcard = q;
+        }
+        return wildcard != null && wildcard > 0;
     }
 
     @GetMapping("/{id}")
-    public BookDetailsDTO getBookById(@PathVariable @Positive(message = "id must be positive") Long id) {
-        return catalogService.getBookById(id);
+    public BookDetailsDTO getBookById(@PathVariable @Positive(message = "id must be positive") Long id, WebRequest request) {
+        CatalogEntry<BookDetailsDTO> book = catalogService.getBookById(id);
+        if (notModified(request, book.version())) return null;
+        return book.body();
     }
 
     @GetMapping("/{id}/items")
-    public List<BookItemDTO> getBookItems(@PathVariable @Positive(message = "id must be positive") Long id) {
-        return catalogService.getBookItems(id);
+    public List<BookItemDTO> getBookItems(@PathVariable @Positive(message = "id must be positive") Long id, WebRequest request) {
+        CatalogEntry<List<BookItemDTO>> items = catalogService.getBookItems(id);
+        if (notModified(request, items.version())) return null;
+        return items.body();
+    }
+
+    // sets ETag/Last-Modified on the response; true means Spring already answered 304
+    private static boolean notModified(WebRequest request, CatalogVersion version) {
+        return request.checkNotModified(version.etag(), version.lastModifiedMillis());
     }
-}
\ No newline at end of file
+}
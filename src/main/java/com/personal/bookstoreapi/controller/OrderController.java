@@ -1,40 +1,79 @@
 package com.personal.bookstoreapi.controller;
 
 import com.personal.bookstoreapi.dto.request.CreateOrderRequestDTO;
+import com.personal.bookstoreapi.dto.response.CursorPageDTO;
 import com.personal.bookstoreapi.dto.response.OrderDetailsResponseDTO;
-import com.personal.bookstoreapi.dto.response.OrderResponseDTO;
+import com.personal.bookstoreapi.dto.response.OrderHistoryDTO;
+import com.personal.bookstoreapi.dto.response.OrderSubmissionDTO;
+import com.personal.bookstoreapi.exception.NotFoundException;
+import com.personal.bookstoreapi.service.IdempotencyService;
 import com.personal.bookstoreapi.service.OrderService;
+import com.personal.bookstoreapi.service.OrderSubmissionPipeline;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
+import java.net.URI;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/orders")
 @RequiredArgsConstructor
+@Validated
 public class OrderController {
 
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
+    private final Optional<OrderSubmissionPipeline> submissionPipeline;
 
+    /**
+     * Creates the order and answers 201, or with {@code orders.async.enabled} queues it and
+     * answers 202 with a tracking id to poll at {@code /api/orders/submissions/{trackingId}}.
+     */
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public OrderResponseDTO createOrder(
-            @RequestBody @Valid CreateOrderRequestDTO request
+    public ResponseEntity<?> createOrder(
+            @RequestBody @Valid CreateOrderRequestDTO request,
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey
     ) {
-        return orderService.createOrder(request);
+        if (submissionPipeline.isPresent()) {
+            OrderSubmissionDTO queued = idempotencyService.execute("orders", idempotencyKey, request,
+                                                                   () -> submissionPipeline.get()
+                                                                                           .submit(request));
+            return ResponseEntity.accepted()
+                                 .location(URI.create("/api/orders/submissions/" + queued.trackingId()))
+                                 .body(queued);
+        }
+        return ResponseEntity.status(HttpStatus.CREATED)
+                             .body(idempotencyService.execute("orders", idempotencyKey, request, () -> orderService.createOrder(request)));
+    }
+
+    @GetMapping("/submissions/{trackingId}")
+    public OrderSubmissionDTO getSubmission(
+            @PathVariable String trackingId
+    ) {
+        return submissionPipeline.orElseThrow(() -> new NotFoundException("Order submission not found"))
+                                 .status(trackingId);
     }
 
     @GetMapping("/me")
-    public List<OrderResponseDTO> getMyOrders() {
-        return orderService.getMyOrders();
+    public CursorPageDTO<OrderHistoryDTO> getMyOrders(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @Positive(message = "size must be positive") Integer size,
+            @RequestParam(defaultValue = "false") boolean includeItems
+    ) {
+        return orderService.getMyOrders(status, cursor, size, includeItems);
     }
 
     @GetMapping("/{orderId}")
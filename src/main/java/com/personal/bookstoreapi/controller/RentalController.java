@@ -3,6 +3,7 @@ package com.personal.bookstoreapi.controller;
 import com.personal.bookstoreapi.dto.request.CreateRentalRequestDTO;
 import com.personal.bookstoreapi.dto.response.RentalDetailsResponseDTO;
 import com.personal.bookstoreapi.dto.response.RentalResponseDTO;
+import com.personal.bookstoreapi.service.IdempotencyService;
 import com.personal.bookstoreapi.service.RentalService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -11,6 +12,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
@@ -23,11 +25,13 @@ import java.util.List;
 public class RentalController {
 
     private final RentalService rentalService;
+    private final IdempotencyService idempotencyService;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public RentalResponseDTO createRental(@Valid @RequestBody CreateRentalRequestDTO request) {
-        return rentalService.createRental(request);
+    public RentalResponseDTO createRental(@Valid @RequestBody CreateRentalRequestDTO request,
+                                          @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute("rentals", idempotencyKey, request, () -> rentalService.createRental(request));
     }
 
     @GetMapping("/me")
@@ -1,20 +1,25 @@
 package com.personal.bookstoreapi.domain.entity;
 
+import com.personal.bookstoreapi.service.CatalogChangePublisher;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -25,11 +30,19 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "books")
+@EntityListeners(CatalogChangePublisher.class)
+@Table(
+        name = "books",
+        indexes = {
+                @Index(name = "idx_books_language_id", columnList = "language, id"),
+                @Index(name = "idx_books_publication_year_id", columnList = "publication_year, id")
+        }
+)
 public class Book {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+    @SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 250)
@@ -50,12 +63,19 @@ public class Book {
     @Column(length = 500)
     private String coverUrl;
 
+    // copies sold; only BookRepository.addSoldCopies writes it, so saving a book never overwrites it
+    @Column(nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0 not null")
+    private long soldCopies;
+
+    // list pages initialise authors for the whole page in one IN query instead of one per book
     @Builder.Default
     @ManyToMany
+    @BatchSize(size = 100)
     @JoinTable(
             name = "book_authors",
             joinColumns = @JoinColumn(name = "book_id"),
-            inverseJoinColumns = @JoinColumn(name = "author_id")
+            inverseJoinColumns = @JoinColumn(name = "author_id"),
+            indexes = @Index(name = "idx_book_authors_author_book", columnList = "author_id, book_id")
     )
     private Set<Author> authors = new HashSet<>();
-}
\ No newline at end of file
+}
@@ -3,11 +3,13 @@ package com.personal.bookstoreapi.domain.entity;
 import jakarta.persistence.Column;
 import jakarta.persistence.DiscriminatorValue;
 import jakarta.persistence.Entity;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Formula;
 
 @Setter
 @Getter
@@ -23,4 +25,14 @@ public class PhysicalBookItem extends BookItem {
 
     @Column(name = "weight_grams")
     private Integer weightGrams;
+
+    // units held in stock_slots (sharded inventory); read with the row, never written through here
+    @Setter(AccessLevel.NONE)
+    @Formula("(select coalesce(sum(s.quantity), 0) from stock_slots s where s.book_item_id = id)")
+    private int slotStock;
+
+    /** Units that can be sold: the item row plus its stock slots. */
+    public int getAvailableStock() {
+        return (stockQuantity == null ? 0 : stockQuantity) + slotStock;
+    }
 }
\ No newline at end of file
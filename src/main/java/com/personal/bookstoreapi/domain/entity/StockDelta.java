@@ -0,0 +1,54 @@
+package com.personal.bookstoreapi.domain.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Units sold in memory (reservation inventory mode) but not yet subtracted from the item row.
+ * Inserted in the order's transaction, so a committed sale is never lost; the write-behind
+ * flush applies and deletes these rows in batches.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+        name = "stock_deltas",
+        indexes = @Index(name = "idx_stock_deltas_book_item", columnList = "book_item_id")
+)
+public class StockDelta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_deltas_seq")
+    @SequenceGenerator(name = "stock_deltas_seq", sequenceName = "stock_deltas_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_item_id", nullable = false)
+    private PhysicalBookItem bookItem;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Instant createdAt = Instant.now();
+}
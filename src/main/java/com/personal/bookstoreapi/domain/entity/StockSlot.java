@@ -0,0 +1,65 @@
+package com.personal.bookstoreapi.domain.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * One shard of a physical item's stock (sharded inventory mode). Purchases decrement a single
+ * slot, so concurrent buyers of the same item contend on different rows. The (item, quantity)
+ * index lets a purchase find and lock a slot with enough stock without touching the others.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+        name = "stock_slots",
+        uniqueConstraints = @UniqueConstraint(name = "uk_stock_slots_item_slot", columnNames = {"book_item_id", "slot"}),
+        indexes = @Index(name = "idx_stock_slots_item_quantity", columnList = "book_item_id, quantity")
+)
+public class StockSlot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_slots_seq")
+    @SequenceGenerator(name = "stock_slots_seq", sequenceName = "stock_slots_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_item_id", nullable = false)
+    private PhysicalBookItem bookItem;
+
+    @Column(nullable = false)
+    private int slot;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Instant updatedAt = Instant.now();
+
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+    }
+}
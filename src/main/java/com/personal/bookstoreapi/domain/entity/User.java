@@ -1,10 +1,14 @@
 package com.personal.bookstoreapi.domain.entity;
 
+import com.personal.bookstoreapi.domain.enums.UserRole;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -24,7 +28,8 @@ import java.time.Instant;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 180)
@@ -36,6 +41,17 @@ public class User {
     @Column(nullable = false, length = 120)
     private String fullName;
 
+    // stamped into access tokens as "role"; a change applies to tokens issued afterwards
+    @Builder.Default
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private UserRole role = UserRole.CUSTOMER;
+
+    // stamped into access tokens as "ver"; bumping it revokes every token issued before
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer tokenVersion = 0;
+
     @Builder.Default
     @Column(nullable = false)
     private Instant createdAt = Instant.now();
@@ -0,0 +1,5 @@
+package com.personal.bookstoreapi.domain.enums;
+
+public enum OutboxEventType {
+    ORDER_PAID
+}
@@ -0,0 +1,7 @@
+package com.personal.bookstoreapi.domain.enums;
+
+public enum UserRole {
+    CUSTOMER,
+    PARTNER,
+    ADMIN
+}
@@ -0,0 +1,9 @@
+package com.personal.bookstoreapi.dto.request;
+
+public record BookFacetFilterDTO(
+        String language,
+        Integer decade,        // first year of the decade, e.g. 1940
+        String itemType,       // PHYSICAL / DIGITAL
+        Boolean rentable
+) {
+}
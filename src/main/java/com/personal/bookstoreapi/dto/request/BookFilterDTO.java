@@ -0,0 +1,12 @@
+package com.personal.bookstoreapi.dto.request;
+
+public record BookFilterDTO(
+        String language,
+        Integer yearFrom,
+        Integer yearTo,
+        Long authorId
+) {
+    public static BookFilterDTO none() {
+        return new BookFilterDTO(null, null, null, null);
+    }
+}
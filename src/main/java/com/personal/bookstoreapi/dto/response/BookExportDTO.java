@@ -0,0 +1,17 @@
+package com.personal.bookstoreapi.dto.response;
+
+import java.util.List;
+import java.util.Set;
+
+public record BookExportDTO(
+        Long id,
+        String title,
+        String description,
+        String isbn,
+        String language,
+        Integer publicationYear,
+        String coverUrl,
+        Set<AuthorResponseDTO> authors,
+        List<BookItemDTO> items
+) {
+}
@@ -0,0 +1,11 @@
+package com.personal.bookstoreapi.dto.response;
+
+import java.util.List;
+
+public record BookFacetsDTO(
+        List<FacetCountDTO> languages,
+        List<FacetCountDTO> decades,
+        List<FacetCountDTO> itemTypes,
+        List<FacetCountDTO> rentable
+) {
+}
@@ -0,0 +1,12 @@
+package com.personal.bookstoreapi.dto.response;
+
+import java.util.List;
+
+public record BookSearchResultDTO(
+        String query,
+        List<BookSearchHitDTO> hits,
+        int page,
+        int size,
+        long totalHits
+) {
+}
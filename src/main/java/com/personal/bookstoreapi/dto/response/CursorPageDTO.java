@@ -0,0 +1,11 @@
+package com.personal.bookstoreapi.dto.response;
+
+import java.util.List;
+
+public record CursorPageDTO<T>(
+        List<T> items,
+        int size,
+        boolean hasNext,
+        String nextCursor      // opaque, pass back as ?cursor= to get the next page
+) {
+}
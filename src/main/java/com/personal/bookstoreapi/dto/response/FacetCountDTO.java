@@ -0,0 +1,7 @@
+package com.personal.bookstoreapi.dto.response;
+
+public record FacetCountDTO(
+        String value,
+        int count
+) {
+}
@@ -0,0 +1,13 @@
+package com.personal.bookstoreapi.dto.response;
+
+import java.util.List;
+
+public record FacetedBookPageDTO(
+        List<BookListDTO> items,
+        int size,
+        boolean hasNext,
+        String nextCursor,
+        int totalHits,
+        BookFacetsDTO facets   // counts per value, each facet ignoring its own filter
+) {
+}
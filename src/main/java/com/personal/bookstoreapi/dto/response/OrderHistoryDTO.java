@@ -0,0 +1,14 @@
+package com.personal.bookstoreapi.dto.response;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+public record OrderHistoryDTO(
+        Long orderId,
+        String status,
+        BigDecimal totalAmount,
+        Instant createdAt,
+        List<OrderItemResponseDTO> items      // null unless the page was requested with includeItems
+) {
+}
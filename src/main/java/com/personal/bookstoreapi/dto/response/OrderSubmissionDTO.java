@@ -0,0 +1,9 @@
+package com.personal.bookstoreapi.dto.response;
+
+public record OrderSubmissionDTO(
+        String trackingId,
+        String status,         // QUEUED, COMPLETED or REJECTED
+        Long orderId,          // set once COMPLETED; details via GET /api/orders/{orderId}
+        String error           // set when REJECTED
+) {
+}
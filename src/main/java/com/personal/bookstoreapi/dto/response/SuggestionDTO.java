@@ -0,0 +1,8 @@
+package com.personal.bookstoreapi.dto.response;
+
+public record SuggestionDTO(
+        String text,
+        String type,
+        Long id
+) {
+}
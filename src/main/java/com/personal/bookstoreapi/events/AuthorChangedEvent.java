@@ -0,0 +1,12 @@
+package com.personal.bookstoreapi.events;
+
+import lombok.Getter;
+
+@Getter
+public class AuthorChangedEvent {
+    private final Long authorId;
+
+    public AuthorChangedEvent(Long authorId) {
+        this.authorId = authorId;
+    }
+}
@@ -0,0 +1,12 @@
+package com.personal.bookstoreapi.events;
+
+import lombok.Getter;
+
+@Getter
+public class BookChangedEvent {
+    private final Long bookId;
+
+    public BookChangedEvent(Long bookId) {
+        this.bookId = bookId;
+    }
+}
@@ -0,0 +1,32 @@
+package com.personal.bookstoreapi.events;
+
+import lombok.Getter;
+
+@Getter
+public class BookItemChangedEvent {
+
+    public enum Change {
+        ADDED,
+        UPDATED,
+        REMOVED,
+        // only the stock level moved, through a bulk update that carries no other item state
+        STOCK
+    }
+
+    private final Long bookId;
+    private final Long bookItemId;
+    private final Change change;
+    // the item's value after the change; null for STOCK
+    private final Boolean availableForRent;
+
+    public BookItemChangedEvent(Long bookId, Long bookItemId, Change change, Boolean availableForRent) {
+        this.bookId = bookId;
+        this.bookItemId = bookItemId;
+        this.change = change;
+        this.availableForRent = availableForRent;
+    }
+
+    public static BookItemChangedEvent stock(Long bookId, Long bookItemId) {
+        return new BookItemChangedEvent(bookId, bookItemId, Change.STOCK, null);
+    }
+}
@@ -0,0 +1,18 @@
+package com.personal.bookstoreapi.events;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Orders that were paid, delivered in batches by {@code OutboxRelay}. Delivery is at least
+ * once, so listeners must tolerate seeing an order again.
+ */
+@Getter
+public class OrdersPaidEvent {
+    private final List<Long> orderIds;
+
+    public OrdersPaidEvent(List<Long> orderIds) {
+        this.orderIds = List.copyOf(orderIds);
+    }
+}
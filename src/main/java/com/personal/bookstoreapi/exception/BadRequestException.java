@@ -0,0 +1,7 @@
+package com.personal.bookstoreapi.exception;
+
+public class BadRequestException extends ApiException {
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
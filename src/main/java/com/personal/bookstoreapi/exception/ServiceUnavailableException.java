@@ -0,0 +1,7 @@
+package com.personal.bookstoreapi.exception;
+
+public class ServiceUnavailableException extends ApiException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.personal.bookstoreapi.exception;
+
+public class TooManyRequestsException extends ApiException {
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,247 @@
+package com.personal.bookstoreapi.inventory;
+
+import com.personal.bookstoreapi.domain.entity.PhysicalBookItem;
+import com.personal.bookstoreapi.domain.entity.StockDelta;
+import com.personal.bookstoreapi.events.BookItemChangedEvent;
+import com.personal.bookstoreapi.repository.BookItemRepository;
+import com.personal.bookstoreapi.repository.StockDeltaRepository;
+import com.personal.bookstoreapi.repository.projection.StockDeltaRow;
+import com.personal.bookstoreapi.repository.projection.StockLevelRow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Flash-sale inventory: stock is checked and reserved in {@link StockCounters}, and the
+ * database only sees an append-only {@link StockDelta} insert per sale. A scheduled flush
+ * subtracts the journalled sales from {@code book_items} in batches and deletes them.
+ * <p>
+ * The journal row commits with the order, so the database always knows the sellable stock:
+ * the item row minus its pending deltas. Counters are loaded from that on startup (nothing is
+ * lost if the process dies before a flush) and compared against it by the drift check; a
+ * difference seen on two consecutive checks is corrected in memory. Restocks and other item
+ * edits are picked up the same way on the next flush tick.
+ * <p>
+ * The counters are per process, so this mode assumes a single application instance.
+ * Metrics: {@code inventory.reservations.tracked} and {@code inventory.reservations.drift.corrections}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.reservations.enabled", havingValue = "true")
+public class InventoryReservationEngine {
+
+    private static final int BATCH_SIZE = 1_000;
+
+    private final BookItemRepository bookItemRepository;
+    private final StockDeltaRepository stockDeltaRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate writeTransaction;
+    private final TransactionTemplate readTransaction;
+    private final Counter driftCorrections;
+
+    private final StockCounters counters = new StockCounters();
+    // items to compare against the database on the next flush tick
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+    // drift seen by the previous check; only corrected when the next check sees the same value
+    private final Map<Long, Integer> suspectedDrift = new ConcurrentHashMap<>();
+
+    public InventoryReservationEngine(BookItemRepository bookItemRepository,
+                                      StockDeltaRepository stockDeltaRepository,
+                                      ApplicationEventPublisher eventPublisher,
+                                      PlatformTransactionManager transactionManager,
+                                      MeterRegistry meterRegistry) {
+        this.bookItemRepository = bookItemRepository;
+        this.stockDeltaRepository = stockDeltaRepository;
+        this.eventPublisher = eventPublisher;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.driftCorrections = Counter.builder("inventory.reservations.drift.corrections")
+                                       .description("In-memory stock counters corrected to match the database")
+                                       .register(meterRegistry);
+        Gauge.builder("inventory.reservations.tracked", counters, StockCounters::size)
+             .description("Physical book items with an in-memory stock counter")
+             .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.currentTimeMillis();
+        long afterId = 0;
+        List<StockLevelRow> batch;
+        do {
+            long after = afterId;
+            Map<Long, Integer> sellable = new HashMap<>();
+            batch = readTransaction.execute(status -> {
+                List<StockLevelRow> levels = bookItemRepository.findStockLevelsAfter(after, PageRequest.of(0, BATCH_SIZE));
+                sellable.putAll(sellable(levels));
+                return levels;
+            });
+            sellable.forEach(counters::putIfAbsent);
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1)
+                               .bookItemId();
+            }
+        } while (batch.size() == BATCH_SIZE);
+
+        log.info("Inventory counters loaded: {} items in {} ms", counters.size(), System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Reserves {@code quantity} units and journals the sale in the caller's transaction. The
+     * reservation is released if that transaction rolls back.
+     */
+    public boolean tryReserve(PhysicalBookItem item, int quantity) {
+        long id = item.getId();
+        if (!counters.contains(id)) {
+            // created after startup and not seen by a flush tick yet
+            counters.putIfAbsent(id, sellable(bookItemRepository.findStockLevelsByIds(List.of(id))).getOrDefault(id, 0));
+        }
+        if (!counters.tryReserve(id, quantity)) return false;
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    counters.commit(id, quantity);
+                } else {
+                    counters.release(id, quantity);
+                }
+            }
+        });
+        stockDeltaRepository.save(StockDelta.builder()
+                                            .bookItem(item)
+                                            .quantity(quantity)
+                                            .build());
+        return true;
+    }
+
+    public int available(long bookItemId) {
+        return counters.contains(bookItemId) ? counters.available(bookItemId) : 0;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookItemChanged(BookItemChangedEvent event) {
+        changed.add(event.getBookItemId());
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservations.flush-interval:PT1S}")
+    public void flush() {
+        int flushed = 0;
+        List<StockDeltaRow> batch;
+        do {
+            batch = writeTransaction.execute(status -> flushBatch());
+            flushed += batch.size();
+        } while (batch.size() == BATCH_SIZE);
+        if (flushed > 0) {
+            log.debug("Flushed {} stock deltas", flushed);
+        }
+
+        if (!changed.isEmpty()) {
+            List<Long> ids = new ArrayList<>(changed);
+            ids.forEach(changed::remove);
+            checkDrift(ids);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservations.drift-check-interval:PT5M}",
+               initialDelayString = "${inventory.reservations.drift-check-interval:PT5M}")
+    public void checkDrift() {
+        long[] ids = counters.ids();
+        List<Long> all = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            all.add(id);
+        }
+        checkDrift(all);
+    }
+
+    private List<StockDeltaRow> flushBatch() {
+        List<StockDeltaRow> deltas = stockDeltaRepository.findOldest(PageRequest.of(0, BATCH_SIZE));
+        if (deltas.isEmpty()) return deltas;
+
+        // item id order, so concurrent item updates always lock rows in the same order
+        Map<Long, Integer> sold = new TreeMap<>();
+        Map<Long, Long> bookIds = new HashMap<>();
+        for (StockDeltaRow delta : deltas) {
+            sold.merge(delta.bookItemId(), delta.quantity(), Integer::sum);
+            bookIds.put(delta.bookItemId(), delta.bookId());
+        }
+        Instant now = Instant.now();
+        sold.forEach((bookItemId, quantity) -> bookItemRepository.subtractSoldStock(bookItemId, quantity, now));
+        stockDeltaRepository.deleteAllByIdInBatch(deltas.stream()
+                                                        .map(StockDeltaRow::id)
+                                                        .toList());
+
+        // the bulk update skips CatalogChangePublisher; listeners run after this commits
+        sold.keySet()
+            .forEach(bookItemId -> eventPublisher.publishEvent(BookItemChangedEvent.stock(bookIds.get(bookItemId), bookItemId)));
+        return deltas;
+    }
+
+    private void checkDrift(List<Long> ids) {
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> part = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            Map<Long, Integer> sellable = readTransaction.execute(status -> sellable(bookItemRepository.findStockLevelsByIds(part)));
+
+            for (Long id : part) {
+                Integer expected = sellable.get(id);
+                if (expected == null) continue;
+                if (counters.putIfAbsent(id, expected)) continue;
+
+                int drift = expected - counters.held(id) - counters.available(id);
+                if (drift == 0) {
+                    suspectedDrift.remove(id);
+                    continue;
+                }
+                Integer previous = suspectedDrift.put(id, drift);
+                if (previous != null && previous == drift) {
+                    counters.adjust(id, drift);
+                    suspectedDrift.remove(id);
+                    driftCorrections.increment();
+                    log.info("Corrected stock counter of book item {} by {}", id, drift);
+                } else {
+                    // possibly a sale caught between the two reads; look again on the next tick
+                    changed.add(id);
+                }
+            }
+        }
+    }
+
+    // What the database says can still be sold: the item row minus journalled, unflushed sales.
+    private Map<Long, Integer> sellable(Collection<StockLevelRow> levels) {
+        if (levels.isEmpty()) return Map.of();
+        Map<Long, Integer> sellable = new HashMap<>();
+        for (StockLevelRow level : levels) {
+            sellable.put(level.bookItemId(), level.quantity()
+                                                  .intValue());
+        }
+        for (StockLevelRow pending : stockDeltaRepository.sumByBookItemIds(sellable.keySet())) {
+            sellable.merge(pending.bookItemId(), -pending.quantity()
+                                                         .intValue(), Integer::sum);
+        }
+        return sellable;
+    }
+}
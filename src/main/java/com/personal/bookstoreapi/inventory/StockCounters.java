@@ -0,0 +1,222 @@
+package com.personal.bookstoreapi.inventory;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Open-addressing map from book item id to two atomic counters: units still available and
+ * units reserved by transactions that have not finished yet. Keys live in a plain
+ * {@code long[]} and counters in {@link AtomicIntegerArray}s, so a reservation is a probe plus
+ * a CAS, without boxing. Keys are never removed; the read lock only guards against a
+ * concurrent resize.
+ */
+public final class StockCounters {
+
+    private static final long EMPTY = 0L;
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private AtomicIntegerArray available = new AtomicIntegerArray(INITIAL_CAPACITY);
+    private AtomicIntegerArray held = new AtomicIntegerArray(INITIAL_CAPACITY);
+    private int size;
+
+    public boolean contains(long id) {
+        lock.readLock()
+            .lock();
+        try {
+            return indexOf(id) >= 0;
+        } finally {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    /**
+     * Adds an item unless it is already tracked; an existing counter is left alone because it may
+     * already reflect reservations newer than {@code quantity}.
+     *
+     * @return true when the item was added
+     */
+    public boolean putIfAbsent(long id, int quantity) {
+        if (id == EMPTY) {
+            throw new IllegalArgumentException("Book item id must not be 0");
+        }
+        lock.writeLock()
+            .lock();
+        try {
+            if (indexOf(id) >= 0) return false;
+            if ((size + 1) * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+            int i = probe(keys, id);
+            keys[i] = id;
+            available.set(i, quantity);
+            size++;
+            return true;
+        } finally {
+            lock.writeLock()
+                .unlock();
+        }
+    }
+
+    /**
+     * Moves {@code quantity} units from available to held if that many are available.
+     *
+     * @throws IllegalStateException when the item is not tracked
+     */
+    public boolean tryReserve(long id, int quantity) {
+        lock.readLock()
+            .lock();
+        try {
+            int i = requireIndex(id);
+            for (; ; ) {
+                int current = available.get(i);
+                if (current < quantity) return false;
+                if (available.compareAndSet(i, current, current - quantity)) {
+                    held.addAndGet(i, quantity);
+                    return true;
+                }
+            }
+        } finally {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    /** The reserving transaction committed: the units are sold and now tracked by the database journal. */
+    public void commit(long id, int quantity) {
+        lock.readLock()
+            .lock();
+        try {
+            held.addAndGet(requireIndex(id), -quantity);
+        } finally {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    /** The reserving transaction rolled back: the units become available again. */
+    public void release(long id, int quantity) {
+        lock.readLock()
+            .lock();
+        try {
+            int i = requireIndex(id);
+            held.addAndGet(i, -quantity);
+            available.addAndGet(i, quantity);
+        } finally {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    /** Corrects the available count by {@code delta} (restocks, detected drift). */
+    public void adjust(long id, int delta) {
+        lock.readLock()
+            .lock();
+        try {
+            available.addAndGet(requireIndex(id), delta);
+        } finally {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    public int available(long id) {
+        lock.readLock()
+            .lock();
+        try {
+            return available.get(requireIndex(id));
+        } finally {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    public int held(long id) {
+        lock.readLock()
+            .lock();
+        try {
+            return held.get(requireIndex(id));
+        } finally {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    /** Tracked ids in ascending order. */
+    public long[] ids() {
+        lock.readLock()
+            .lock();
+        try {
+            long[] ids = new long[size];
+            int n = 0;
+            for (long key : keys) {
+                if (key != EMPTY) ids[n++] = key;
+            }
+            Arrays.sort(ids);
+            return ids;
+        } finally {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock()
+            .lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    private int requireIndex(long id) {
+        int i = indexOf(id);
+        if (i < 0) {
+            throw new IllegalStateException("Book item " + id + " is not tracked");
+        }
+        return i;
+    }
+
+    private int indexOf(long id) {
+        int i = probe(keys, id);
+        return keys[i] == id ? i : -1;
+    }
+
+    // First slot holding id, or the empty slot where it would go; the table is never full.
+    private static int probe(long[] table, long id) {
+        int mask = table.length - 1;
+        int i = mix(id) & mask;
+        while (table[i] != EMPTY && table[i] != id) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private static int mix(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void resize(int capacity) {
+        long[] newKeys = new long[capacity];
+        AtomicIntegerArray newAvailable = new AtomicIntegerArray(capacity);
+        AtomicIntegerArray newHeld = new AtomicIntegerArray(capacity);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == EMPTY) continue;
+            int j = probe(newKeys, keys[i]);
+            newKeys[j] = keys[i];
+            newAvailable.set(j, available.get(i));
+            newHeld.set(j, held.get(i));
+        }
+        keys = newKeys;
+        available = newAvailable;
+        held = newHeld;
+    }
+}
@@ -7,10 +7,16 @@ import com.personal.bookstoreapi.domain.entity.DigitalBookItem;
 import com.personal.bookstoreapi.domain.entity.PhysicalBookItem;
 import com.personal.bookstoreapi.dto.response.AuthorResponseDTO;
 import com.personal.bookstoreapi.dto.response.BookDetailsDTO;
+import com.personal.bookstoreapi.dto.response.BookExportDTO;
 import com.personal.bookstoreapi.dto.response.BookItemDTO;
 import com.personal.bookstoreapi.dto.response.BookListDTO;
+import com.personal.bookstoreapi.repository.projection.BookDetailsRow;
+import com.personal.bookstoreapi.repository.projection.BookExportRow;
+import com.personal.bookstoreapi.repository.projection.BookItemRow;
+import com.personal.bookstoreapi.repository.projection.BookListRow;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -42,6 +48,63 @@ public class CatalogMapper {
         );
     }
 
+    public BookListDTO toBookListDTO(BookListRow row, Set<AuthorResponseDTO> authors) {
+        return new BookListDTO(
+                row.id(),
+                row.title(),
+                row.isbn(),
+                row.language(),
+                row.publicationYear(),
+                row.coverUrl(),
+                authors == null ? Set.of() : authors
+        );
+    }
+
+    // rows come from BookRepository.findDetailsRowsById: same book, one row per author
+    public BookDetailsDTO toBookDetailsDTO(List<BookDetailsRow> rows) {
+        BookDetailsRow first = rows.get(0);
+        Set<AuthorResponseDTO> authors = rows.stream()
+                                             .filter(r -> r.authorId() != null)
+                                             .map(r -> new AuthorResponseDTO(r.authorId(), r.authorName()))
+                                             .collect(Collectors.toSet());
+        return new BookDetailsDTO(
+                first.id(),
+                first.title(),
+                first.description(),
+                first.isbn(),
+                first.language(),
+                first.publicationYear(),
+                first.coverUrl(),
+                authors
+        );
+    }
+
+    public BookExportDTO toBookExportDTO(BookExportRow row, Set<AuthorResponseDTO> authors, List<BookItemDTO> items) {
+        return new BookExportDTO(
+                row.id(),
+                row.title(),
+                row.description(),
+                row.isbn(),
+                row.language(),
+                row.publicationYear(),
+                row.coverUrl(),
+                authors == null ? Set.of() : authors,
+                items == null ? List.of() : items
+        );
+    }
+
+    public BookItemDTO toBookItemDTO(BookItemRow row) {
+        return new BookItemDTO(
+                row.id(),
+                row.type(),
+                row.price(),
+                row.rentPrice(),
+                row.availableForRent(),
+                row.fileFormat(),
+                row.stockQuantity()
+        );
+    }
+
     public BookItemDTO toBookItemDTO(BookItem item) {
 
         String fileFormat = null;
@@ -53,7 +116,7 @@ public class CatalogMapper {
             fileFormat = digital.getFileFormat();
         } else if (item instanceof PhysicalBookItem physical) {
             type = "PHYSICAL";
-            stockQuantity = physical.getStockQuantity();
+            stockQuantity = physical.getAvailableStock();
         } else {
             type = item.getClass()
                        .getSimpleName()
@@ -1,11 +1,94 @@
 package com.personal.bookstoreapi.repository;
 
 import com.personal.bookstoreapi.domain.entity.BookItem;
+import com.personal.bookstoreapi.domain.entity.PhysicalBookItem;
+import com.personal.bookstoreapi.repository.projection.BookItemFacetRow;
+import com.personal.bookstoreapi.repository.projection.BookItemRow;
+import com.personal.bookstoreapi.repository.projection.StockLevelRow;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface BookItemRepository extends JpaRepository<BookItem, Long> {
 
     List<BookItem> findByBookId(Long bookId);
-}
\ No newline at end of file
+
+    // Guarded decrement: returns 0 instead of going negative. Bypasses entity listeners and the
+    // persistence context, so managed copies keep their old stockQuantity.
+    @Modifying
+    @Query("""
+                update PhysicalBookItem p
+                set p.stockQuantity = p.stockQuantity - :quantity,
+                    p.updatedAt = :now
+                where p.id = :id
+                  and p.stockQuantity >= :quantity
+            """)
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") Instant now);
+
+    // Write-behind of units already sold in memory: unguarded, the reservation was the check.
+    @Modifying
+    @Query("""
+                update PhysicalBookItem p
+                set p.stockQuantity = p.stockQuantity - :quantity,
+                    p.updatedAt = :now
+                where p.id = :id
+            """)
+    int subtractSoldStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") Instant now);
+
+    @Query("""
+                select new com.personal.bookstoreapi.repository.projection.StockLevelRow(p.id, cast(coalesce(p.stockQuantity, 0) as Long))
+                from PhysicalBookItem p
+                where p.id > :afterId
+                order by p.id
+            """)
+    List<StockLevelRow> findStockLevelsAfter(@Param("afterId") Long afterId, Pageable limit);
+
+    @Query("""
+                select new com.personal.bookstoreapi.repository.projection.StockLevelRow(p.id, cast(coalesce(p.stockQuantity, 0) as Long))
+                from PhysicalBookItem p
+                where p.id in :ids
+            """)
+    List<StockLevelRow> findStockLevelsByIds(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from PhysicalBookItem p where p.id = :id")
+    Optional<PhysicalBookItem> findPhysicalForUpdate(@Param("id") Long id);
+
+    @Query("""
+                select new com.personal.bookstoreapi.repository.projection.BookItemFacetRow(
+                        bi.book.id,
+                        case when type(bi) = DigitalBookItem
+                             then com.personal.bookstoreapi.domain.enums.BookItemType.DIGITAL
+                             else com.personal.bookstoreapi.domain.enums.BookItemType.PHYSICAL end,
+                        bi.availableForRent)
+                from BookItem bi
+                where bi.book.id in :bookIds
+            """)
+    List<BookItemFacetRow> findFacetRowsByBookIds(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query("""
+                select new com.personal.bookstoreapi.repository.projection.BookItemRow(
+                        bi.book.id,
+                        bi.id,
+                        case when type(bi) = DigitalBookItem then 'DIGITAL' else 'PHYSICAL' end,
+                        bi.price,
+                        bi.rentPrice,
+                        bi.availableForRent,
+                        treat(bi as DigitalBookItem).fileFormat,
+                        cast(treat(bi as PhysicalBookItem).stockQuantity
+                                + (select coalesce(sum(s.quantity), 0) from StockSlot s where s.bookItem.id = bi.id) as Integer))
+                from BookItem bi
+                where bi.book.id in :bookIds
+                order by bi.id
+            """)
+    List<BookItemRow> findRowsByBookIds(@Param("bookIds") Collection<Long> bookIds);
+}
@@ -1,9 +1,20 @@
 package com.personal.bookstoreapi.repository;
 
 import com.personal.bookstoreapi.domain.entity.Book;
+import com.personal.bookstoreapi.repository.projection.BookAuthorRow;
+import com.personal.bookstoreapi.repository.projection.BookDetailsRow;
+import com.personal.bookstoreapi.repository.projection.BookExportRow;
+import com.personal.bookstoreapi.repository.projection.BookListRow;
+import com.personal.bookstoreapi.repository.projection.BookSalesRow;
+import com.personal.bookstoreapi.repository.projection.BookTextRow;
 import lombok.NonNull;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +26,132 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     Optional<Book> findById(@NonNull Long id);
 
     List<Book> findAll();
-}
\ No newline at end of file
+
+    // Keyset page on id, projected straight to the list columns (no entity hydration,
+    // no description LOB). Callers pass the last id they saw (or null for the first page)
+    // and a Pageable that only carries the limit.
+    @Query("""
+                select new com.personal.bookstoreapi.repository.projection.BookListRow(
+                        b.id, b.title, b.isbn, b.language, b.publicationYear, b.coverUrl)
+                from Book b
+                where (:afterId is null or b.id > :afterId)
+                  and (:language is null or b.language = :language)
+                  and (:yearFrom is null or b.publicationYear >= :yearFrom)
+                  and (:yearTo is null or b.publicationYear <= :yearTo)
+                  and (:authorId is null or exists (
+                        select 1 from b.authors a where a.id = :authorId
+                  ))
+                order by b.id asc
+            """)
+    List<BookListRow> findListRowsAfter(@Param("afterId") Long afterId,
+                                        @Param("language") String language,
+                                        @Param("yearFrom") Integer yearFrom,
+                                        @Param("yearTo") Integer yearTo,
+                                        @Param("authorId") Long authorId,
+                                        Pageable limit);
+
+    @Query("""
+                select new com.personal.bookstoreapi.repository.projection.BookAuthorRow(b.id, a.id, a.name)
+                from Book b
+                join b.authors a
+                where b.id in :bookIds
+            """)
+    List<BookAuthorRow> findAuthorRowsByBookIds(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query("""
+                select new com.personal.bookstoreapi.repository.projection.BookDetailsRow(
+                        b.id, b.title, b.description, b.isbn, b.language, b.publicationYear, b.coverUrl,
+                        a.id, a.name)
+                from Book b
+                left join b.authors a
+                where b.id = :id
+            """)
+    List<BookDetailsRow> findDetailsRowsById(@Param("id") Long id);
+
+    @Query("""
+                select new com.personal.bookstoreapi.repository.projection.BookListRow(
+                        b.id, b.title, b.isbn, b.language, b.publicationYear, b.coverUrl)
+                from Book b
+                where b.id in :ids
+            """)
+    List<BookListRow> findListRowsByIds(@Param("ids") Collection<Long> ids);
+
+    // Searchable text of the catalog, walked in id order by the in-memory search index.
+    @Query("""
+                select new com.personal.bookstoreapi.repository.projection.BookTextRow(b.id, b.title, b.description)
+                from Book b
+                where (:afterId is null or b.id > :afterId)
+                order by b.id asc
+            """)
+    List<BookTextRow> findTextRowsAfter(@Param("afterId") Long afterId, Pageable limit);
+
+    @Query("""
+                select new com.personal.bookstoreapi.repository.projection.BookTextRow(b.id, b.title, b.description)
+                from Book b
+                where b.id = :id
+            """)
+    Optional<BookTextRow> findTextRowById(@Param("id") Long id);
+
+    @Query("""
+                select new com.personal.bookstoreapi.repository.projection.BookTextRow(b.id, b.title, b.description)
+                from Book b
+                where b.id in :ids
+            """)
+    List<BookTextRow> findTextRowsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+                select b.id
+                from Book b
+                join b.authors a
+                where a.id = :authorId
+            """)
+    List<Long> findIdsByAuthorId(@Param("authorId") Long authorId);
+
+    // Adds the copies in the given orders to each book's sold counter. Must run exactly once per
+    // order: in the outbox transaction that deletes the order's ORDER_PAID row.
+    @Modifying
+    @Query("""
+                update Book b
+                set b.soldCopies = b.soldCopies + (
+                    select sum(oi.quantity)
+                    from OrderItem oi
+                    where oi.order.id in :orderIds
+                      and oi.bookItem.book.id = b.id
+                )
+                where b.id in (
+                    select oi.bookItem.book.id
+                    from OrderItem oi
+                    where oi.order.id in :orderIds
+                )
+            """)
+    int addSoldCopies(@Param("orderIds") Collection<Long> orderIds);
+
+    // Copies sold of the books in the given orders, the popularity signal for typeahead ranking.
+    @Query("""
+                select new com.personal.bookstoreapi.repository.projection.BookSalesRow(b.id, b.soldCopies)
+                from Book b
+                where b.id in (
+                    select oi.bookItem.book.id
+                    from OrderItem oi
+                    where oi.order.id in :orderIds
+                )
+            """)
+    List<BookSalesRow> findSalesRowsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    @Query("""
+                select new com.personal.bookstoreapi.repository.projection.BookSalesRow(b.id, b.soldCopies)
+                from Book b
+                where b.soldCopies > 0
+            """)
+    List<BookSalesRow> findSalesRows();
+
+    // Keyset page of the full export, so no cursor has to stay open between pages.
+    @Query("""
+                select new com.personal.bookstoreapi.repository.projection.BookExportRow(
+                        b.id, b.title, b.description, b.isbn, b.language, b.publicationYear, b.coverUrl)
+                from Book b
+                where (:afterId is null or b.id > :afterId)
+                order by b.id asc
+            """)
+    List<BookExportRow> findExportRowsAfter(@Param("afterId") Long afterId, Pageable limit);
+}
@@ -1,11 +1,101 @@
 package com.personal.bookstoreapi.repository;
 
 import com.personal.bookstoreapi.domain.entity.Order;
+import com.personal.bookstoreapi.domain.enums.OrderStatus;
+import com.personal.bookstoreapi.repository.projection.OrderDueRow;
+import com.personal.bookstoreapi.repository.projection.OrderItemRow;
+import com.personal.bookstoreapi.repository.projection.OrderSummaryRow;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
-    List<Order> findAllByUserId(Long userId);
+    // Newest first, keyset-paginated on (createdAt, id) so it walks idx_orders_user_created.
+    // The first page passes null for both after* parameters.
+    @Query("""
+                select new com.personal.bookstoreapi.repository.projection.OrderSummaryRow(o.id, o.status, o.totalAmount, o.createdAt)
+                from Order o
+                where o.user.id = :userId
+                  and (:status is null or o.status = :status)
+                  and (:afterId is null
+                       or o.createdAt < :afterCreatedAt
+                       or (o.createdAt = :afterCreatedAt and o.id < :afterId))
+                order by o.createdAt desc, o.id desc
+            """)
+    List<OrderSummaryRow> findPageByUserId(@Param("userId") Long userId,
+                                           @Param("status") OrderStatus status,
+                                           @Param("afterCreatedAt") Instant afterCreatedAt,
+                                           @Param("afterId") Long afterId,
+                                           Pageable limit);
+
+    // Line items for a whole page of orders in one round trip.
+    @Query("""
+                select new com.personal.bookstoreapi.repository.projection.OrderItemRow(
+                    oi.order.id, bi.id, b.title, oi.quantity, oi.unitPrice)
+                from OrderItem oi
+                join oi.bookItem bi
+                join bi.book b
+                where oi.order.id in :orderIds
+                order by oi.id
+            """)
+    List<OrderItemRow> findItemRowsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    // The whole detail view in one round trip. Filtering on the owner here means another
+    // user's order is indistinguishable from a missing one and costs the same PK lookup.
+    @Query("""
+                select o
+                from Order o
+                left join fetch o.items oi
+                left join fetch oi.bookItem bi
+                left join fetch bi.book
+                where o.id = :orderId
+                  and o.user.id = :userId
+            """)
+    Optional<Order> findDetailsByIdAndUserId(@Param("orderId") Long orderId, @Param("userId") Long userId);
+
+    // Orders waiting for a timed transition; a null due time (orders from before it was stored) means now.
+    @Query("""
+                select new com.personal.bookstoreapi.repository.projection.OrderDueRow(o.id, o.statusDueAt)
+                from Order o
+                where o.id > :afterId
+                  and o.status in :statuses
+                order by o.id
+            """)
+    List<OrderDueRow> findDueRowsAfter(@Param("afterId") Long afterId,
+                                       @Param("statuses") Collection<OrderStatus> statuses,
+                                       Pageable limit);
+
+    @Query("""
+                select new com.personal.bookstoreapi.repository.projection.OrderDueRow(o.id, o.statusDueAt)
+                from Order o
+                where o.id in :ids
+                  and o.status in :statuses
+            """)
+    List<OrderDueRow> findDueRowsByIds(@Param("ids") Collection<Long> ids,
+                                       @Param("statuses") Collection<OrderStatus> statuses);
+
+    // One statement per transition for a whole batch; the status and due-time guards make it
+    // safe to run for orders that were cancelled or are not due yet.
+    @Modifying
+    @Query("""
+                update Order o
+                set o.status = :next,
+                    o.statusDueAt = :nextDueAt
+                where o.id in :ids
+                  and o.status = :current
+                  and (o.statusDueAt is null or o.statusDueAt <= :now)
+            """)
+    int advanceStatus(@Param("ids") Collection<Long> ids,
+                      @Param("current") OrderStatus current,
+                      @Param("next") OrderStatus next,
+                      @Param("nextDueAt") Instant nextDueAt,
+                      @Param("now") Instant now);
 }
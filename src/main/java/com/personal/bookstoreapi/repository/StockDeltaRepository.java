@@ -0,0 +1,30 @@
+package com.personal.bookstoreapi.repository;
+
+import com.personal.bookstoreapi.domain.entity.StockDelta;
+import com.personal.bookstoreapi.repository.projection.StockDeltaRow;
+import com.personal.bookstoreapi.repository.projection.StockLevelRow;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface StockDeltaRepository extends JpaRepository<StockDelta, Long> {
+
+    @Query("""
+                select new com.personal.bookstoreapi.repository.projection.StockDeltaRow(d.id, d.bookItem.book.id, d.bookItem.id, d.quantity)
+                from StockDelta d
+                order by d.id
+            """)
+    List<StockDeltaRow> findOldest(Pageable limit);
+
+    @Query("""
+                select new com.personal.bookstoreapi.repository.projection.StockLevelRow(d.bookItem.id, sum(d.quantity))
+                from StockDelta d
+                where d.bookItem.id in :bookItemIds
+                group by d.bookItem.id
+            """)
+    List<StockLevelRow> sumByBookItemIds(@Param("bookItemIds") Collection<Long> bookItemIds);
+}
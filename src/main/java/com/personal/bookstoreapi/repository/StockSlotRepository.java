@@ -0,0 +1,55 @@
+package com.personal.bookstoreapi.repository;
+
+import com.personal.bookstoreapi.domain.entity.StockSlot;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface StockSlotRepository extends JpaRepository<StockSlot, Long> {
+
+    // A slot that can cover the purchase, fullest first. Lock timeout -2 is Hibernate's SKIP
+    // LOCKED: concurrent buyers move on to the next slot instead of queueing, and slots that
+    // cannot cover the purchase are never locked, so an empty result leaves the item untouched.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+                select s
+                from StockSlot s
+                where s.bookItem.id = :bookItemId
+                  and s.quantity >= :quantity
+                order by s.quantity desc
+            """)
+    List<StockSlot> findSlotWithStockForUpdate(@Param("bookItemId") Long bookItemId,
+                                               @Param("quantity") int quantity,
+                                               Pageable limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+                select s
+                from StockSlot s
+                where s.bookItem.id = :bookItemId
+                order by s.slot
+            """)
+    List<StockSlot> findAllForUpdate(@Param("bookItemId") Long bookItemId);
+
+    // Items whose stock is not spread over their slots: stock still on the item row, fewer slots
+    // than configured, or an empty slot although there is enough stock for one unit per slot.
+    @Query("""
+                select p.id
+                from PhysicalBookItem p
+                where p.id > :afterId
+                  and (p.stockQuantity > 0
+                       or exists (select 1 from StockSlot s where s.bookItem = p
+                                  group by s.bookItem
+                                  having count(s) < :slots or (min(s.quantity) = 0 and sum(s.quantity) >= count(s))))
+                order by p.id
+            """)
+    List<Long> findUnbalancedItemIds(@Param("afterId") Long afterId, @Param("slots") long slots, Pageable limit);
+}
@@ -2,7 +2,12 @@ package com.personal.bookstoreapi.repository;
 
 import com.personal.bookstoreapi.domain.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.Optional;
 
 
@@ -11,4 +16,28 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    @Query("select u.tokenVersion from User u where u.id = :id")
+    Optional<Integer> findTokenVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Query("""
+                update User u
+                set u.tokenVersion = u.tokenVersion + 1,
+                    u.updatedAt = :now
+                where u.id = :id
+            """)
+    int incrementTokenVersion(@Param("id") Long id, @Param("now") Instant now);
+
+    /** Swaps in a rehashed password, unless the password changed since {@code oldHash} was read. */
+    @Transactional
+    @Modifying
+    @Query("""
+                update User u
+                set u.passwordHash = :newHash,
+                    u.updatedAt = :now
+                where u.id = :id and u.passwordHash = :oldHash
+            """)
+    int replacePasswordHash(@Param("id") Long id, @Param("oldHash") String oldHash,
+                            @Param("newHash") String newHash, @Param("now") Instant now);
 }
@@ -0,0 +1,8 @@
+package com.personal.bookstoreapi.repository.projection;
+
+public record BookAuthorRow(
+        Long bookId,
+        Long authorId,
+        String authorName
+) {
+}
@@ -0,0 +1,15 @@
+package com.personal.bookstoreapi.repository.projection;
+
+// one row per (book, author); authorId/authorName are null for a book without authors
+public record BookDetailsRow(
+        Long id,
+        String title,
+        String description,
+        String isbn,
+        String language,
+        Integer publicationYear,
+        String coverUrl,
+        Long authorId,
+        String authorName
+) {
+}
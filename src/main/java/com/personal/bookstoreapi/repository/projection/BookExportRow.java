@@ -0,0 +1,12 @@
+package com.personal.bookstoreapi.repository.projection;
+
+public record BookExportRow(
+        Long id,
+        String title,
+        String description,
+        String isbn,
+        String language,
+        Integer publicationYear,
+        String coverUrl
+) {
+}
@@ -0,0 +1,10 @@
+package com.personal.bookstoreapi.repository.projection;
+
+import com.personal.bookstoreapi.domain.enums.BookItemType;
+
+public record BookItemFacetRow(
+        Long bookId,
+        BookItemType type,
+        boolean availableForRent
+) {
+}
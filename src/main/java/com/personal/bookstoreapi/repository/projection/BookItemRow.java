@@ -0,0 +1,15 @@
+package com.personal.bookstoreapi.repository.projection;
+
+import java.math.BigDecimal;
+
+public record BookItemRow(
+        Long bookId,
+        Long id,
+        String type,
+        BigDecimal price,
+        BigDecimal rentPrice,
+        boolean availableForRent,
+        String fileFormat,
+        Integer stockQuantity
+) {
+}
@@ -0,0 +1,11 @@
+package com.personal.bookstoreapi.repository.projection;
+
+public record BookListRow(
+        Long id,
+        String title,
+        String isbn,
+        String language,
+        Integer publicationYear,
+        String coverUrl
+) {
+}
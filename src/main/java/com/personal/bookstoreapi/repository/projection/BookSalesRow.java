@@ -0,0 +1,7 @@
+package com.personal.bookstoreapi.repository.projection;
+
+public record BookSalesRow(
+        Long bookId,
+        Long quantity
+) {
+}
@@ -0,0 +1,8 @@
+package com.personal.bookstoreapi.repository.projection;
+
+public record BookTextRow(
+        Long id,
+        String title,
+        String description
+) {
+}
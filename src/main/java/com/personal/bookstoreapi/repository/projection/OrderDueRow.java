@@ -0,0 +1,9 @@
+package com.personal.bookstoreapi.repository.projection;
+
+import java.time.Instant;
+
+public record OrderDueRow(
+        Long id,
+        Instant statusDueAt
+) {
+}
@@ -0,0 +1,12 @@
+package com.personal.bookstoreapi.repository.projection;
+
+import java.math.BigDecimal;
+
+public record OrderItemRow(
+        Long orderId,
+        Long bookItemId,
+        String bookTitle,
+        Integer quantity,
+        BigDecimal unitPrice
+) {
+}
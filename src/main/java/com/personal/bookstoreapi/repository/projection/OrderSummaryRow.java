@@ -0,0 +1,14 @@
+package com.personal.bookstoreapi.repository.projection;
+
+import com.personal.bookstoreapi.domain.enums.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record OrderSummaryRow(
+        Long id,
+        OrderStatus status,
+        BigDecimal totalAmount,
+        Instant createdAt
+) {
+}
@@ -0,0 +1,9 @@
+package com.personal.bookstoreapi.repository.projection;
+
+public record StockDeltaRow(
+        Long id,
+        Long bookId,
+        Long bookItemId,
+        Integer quantity
+) {
+}
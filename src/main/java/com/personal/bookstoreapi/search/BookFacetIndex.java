@@ -0,0 +1,153 @@
+package com.personal.bookstoreapi.search;
+
+import com.personal.bookstoreapi.events.BookChangedEvent;
+import com.personal.bookstoreapi.events.BookItemChangedEvent;
+import com.personal.bookstoreapi.repository.BookItemRepository;
+import com.personal.bookstoreapi.repository.BookRepository;
+import com.personal.bookstoreapi.repository.projection.BookItemFacetRow;
+import com.personal.bookstoreapi.repository.projection.BookListRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Facet bitsets over the catalog: language, publication decade, item type and whether any
+ * item can be rented. Built from the database once the application is ready, then kept
+ * current from {@link BookChangedEvent}s and {@link BookItemChangedEvent}s. Facets do not depend
+ * on stock, so sales and other stock-only changes are ignored.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookFacetIndex {
+
+    public static final String LANGUAGE = "language";
+    public static final String DECADE = "decade";
+    public static final String ITEM_TYPE = "itemType";
+    public static final String RENTABLE = "rentable";
+
+    private static final int BUILD_BATCH_SIZE = 1_000;
+    // below this, most bitset memory goes to ids that no book holds
+    private static final double SPARSE_KEY_DENSITY = 0.5;
+
+    private final BookRepository bookRepository;
+    private final BookItemRepository bookItemRepository;
+    private final FacetIndex index = new FacetIndex();
+
+    /**
+     * Indexes every book; books still indexed but no longer seen (deleted since, or a change
+     * event was dropped) are re-checked and removed when gone.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        Set<Long> stale = new HashSet<>(index.keys());
+        Long afterId = null;
+        List<BookListRow> batch;
+        do {
+            batch = bookRepository.findListRowsAfter(afterId, null, null, null, null, PageRequest.of(0, BUILD_BATCH_SIZE));
+            if (batch.isEmpty()) break;
+
+            Map<Long, List<BookItemFacetRow>> items = itemRows(batch.stream()
+                                                                    .map(BookListRow::id)
+                                                                    .toList());
+            for (BookListRow row : batch) {
+                index.put(row.id(), facetValues(row, items.getOrDefault(row.id(), List.of())));
+                stale.remove(row.id());
+            }
+            afterId = batch.get(batch.size() - 1)
+                           .id();
+        } while (batch.size() == BUILD_BATCH_SIZE);
+        stale.forEach(this::reindex);
+
+        log.info("Book facet index built: {} books in {} ms", index.size(), System.currentTimeMillis() - started);
+        double density = index.keyDensity();
+        if (density < SPARSE_KEY_DENSITY) {
+            log.warn("Book ids are sparse ({}% of the id range in use); facet bitsets are sized by the highest id",
+                     Math.round(density * 100));
+        }
+    }
+
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        reindex(event.getBookId());
+    }
+
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookItemChanged(BookItemChangedEvent event) {
+        if (affectsFacets(event)) {
+            reindex(event.getBookId());
+        }
+    }
+
+    public void reindex(Long bookId) {
+        List<BookListRow> rows = bookRepository.findListRowsByIds(List.of(bookId));
+        if (rows.isEmpty()) {
+            index.remove(bookId);
+            return;
+        }
+        index.put(bookId, facetValues(rows.get(0), itemRows(List.of(bookId)).getOrDefault(bookId, List.of())));
+    }
+
+    // An update keeps the item's type, so it only matters when its rentability disagrees with the
+    // book's; a rentable item of an already rentable book, or vice versa, changes nothing.
+    private boolean affectsFacets(BookItemChangedEvent event) {
+        return switch (event.getChange()) {
+            case STOCK -> false;
+            case ADDED, REMOVED -> true;
+            case UPDATED -> !index.values(event.getBookId(), RENTABLE)
+                                  .equals(Set.of(String.valueOf(event.getAvailableForRent())));
+        };
+    }
+
+    public FacetIndex.Result query(Map<String, String> filters, Long afterId, int limit) {
+        return index.query(filters, afterId, limit);
+    }
+
+    public static String decadeOf(int year) {
+        return String.valueOf(Math.floorDiv(year, 10) * 10);
+    }
+
+    private Map<Long, List<BookItemFacetRow>> itemRows(List<Long> bookIds) {
+        return bookItemRepository.findFacetRowsByBookIds(bookIds)
+                                 .stream()
+                                 .collect(Collectors.groupingBy(BookItemFacetRow::bookId));
+    }
+
+    // books without items carry no item type or rentable value
+    static Map<String, Set<String>> facetValues(BookListRow book, List<BookItemFacetRow> items) {
+        Map<String, Set<String>> values = new HashMap<>();
+        if (book.language() != null) {
+            values.put(LANGUAGE, Set.of(book.language()));
+        }
+        if (book.publicationYear() != null) {
+            values.put(DECADE, Set.of(decadeOf(book.publicationYear())));
+        }
+        if (!items.isEmpty()) {
+            Set<String> types = new HashSet<>();
+            boolean rentable = false;
+            for (BookItemFacetRow item : items) {
+                types.add(item.type()
+                              .name());
+                rentable |= item.availableForRent();
+            }
+            values.put(ITEM_TYPE, types);
+            values.put(RENTABLE, Set.of(String.valueOf(rentable)));
+        }
+        return values;
+    }
+}
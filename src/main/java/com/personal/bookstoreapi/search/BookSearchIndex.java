@@ -0,0 +1,145 @@
+package com.personal.bookstoreapi.search;
+
+import com.personal.bookstoreapi.events.AuthorChangedEvent;
+import com.personal.bookstoreapi.events.BookChangedEvent;
+import com.personal.bookstoreapi.repository.BookRepository;
+import com.personal.bookstoreapi.repository.projection.BookAuthorRow;
+import com.personal.bookstoreapi.repository.projection.BookTextRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text index over book titles, descriptions and author names. Built from the database
+ * once the application is ready, then kept current from {@link BookChangedEvent}s and, for the
+ * books of a renamed author, {@link AuthorChangedEvent}s.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookSearchIndex {
+
+    static final int TITLE_WEIGHT = 3;
+    static final int AUTHOR_WEIGHT = 2;
+    static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final int BUILD_BATCH_SIZE = 1_000;
+
+    private final BookRepository bookRepository;
+    private final InvertedIndex index = new InvertedIndex();
+
+    /**
+     * Indexes every book; books still indexed but no longer seen (deleted since, or a change
+     * event was dropped) are re-checked and removed when gone.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        Set<Long> stale = new HashSet<>(index.keys());
+        Long afterId = null;
+        List<BookTextRow> batch;
+        do {
+            batch = bookRepository.findTextRowsAfter(afterId, PageRequest.of(0, BUILD_BATCH_SIZE));
+            if (batch.isEmpty()) break;
+
+            Map<Long, List<String>> authors = authorNames(batch.stream()
+                                                               .map(BookTextRow::id)
+                                                               .toList());
+            for (BookTextRow row : batch) {
+                index.put(row.id(), termFrequencies(row, authors.getOrDefault(row.id(), List.of())));
+                stale.remove(row.id());
+            }
+            afterId = batch.get(batch.size() - 1)
+                           .id();
+        } while (batch.size() == BUILD_BATCH_SIZE);
+        if (!stale.isEmpty()) {
+            List<Long> staleIds = List.copyOf(stale);
+            for (int from = 0; from < staleIds.size(); from += BUILD_BATCH_SIZE) {
+                reindex(staleIds.subList(from, Math.min(staleIds.size(), from + BUILD_BATCH_SIZE)));
+            }
+        }
+
+        log.info("Book search index built: {} books in {} ms", index.size(), System.currentTimeMillis() - started);
+    }
+
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        reindex(event.getBookId());
+    }
+
+    public void reindex(Long bookId) {
+        bookRepository.findTextRowById(bookId)
+                      .ifPresentOrElse(
+                              row -> index.put(bookId, termFrequencies(row, authorNames(List.of(bookId)).getOrDefault(bookId, List.of()))),
+                              () -> index.remove(bookId)
+                      );
+    }
+
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorChanged(AuthorChangedEvent event) {
+        List<Long> bookIds = bookRepository.findIdsByAuthorId(event.getAuthorId());
+        for (int from = 0; from < bookIds.size(); from += BUILD_BATCH_SIZE) {
+            reindex(bookIds.subList(from, Math.min(bookIds.size(), from + BUILD_BATCH_SIZE)));
+        }
+    }
+
+    // two queries for the whole batch
+    void reindex(List<Long> bookIds) {
+        Map<Long, BookTextRow> rows = bookRepository.findTextRowsByIds(bookIds)
+                                                    .stream()
+                                                    .collect(Collectors.toMap(BookTextRow::id, Function.identity()));
+        Map<Long, List<String>> authors = authorNames(bookIds);
+        for (Long bookId : bookIds) {
+            BookTextRow row = rows.get(bookId);
+            if (row == null) {
+                index.remove(bookId);
+            } else {
+                index.put(bookId, termFrequencies(row, authors.getOrDefault(bookId, List.of())));
+            }
+        }
+    }
+
+    public InvertedIndex.SearchHits search(String query, int limit) {
+        return index.search(Tokenizer.tokenize(query), limit);
+    }
+
+    private Map<Long, List<String>> authorNames(List<Long> bookIds) {
+        return bookRepository.findAuthorRowsByBookIds(bookIds)
+                             .stream()
+                             .collect(Collectors.groupingBy(
+                                     BookAuthorRow::bookId,
+                                     Collectors.mapping(BookAuthorRow::authorName, Collectors.toList())
+                             ));
+    }
+
+    static Map<String, Integer> termFrequencies(BookTextRow row, List<String> authorNames) {
+        Map<String, Integer> tf = new HashMap<>();
+        addTokens(tf, row.title(), TITLE_WEIGHT);
+        for (String name : authorNames) {
+            addTokens(tf, name, AUTHOR_WEIGHT);
+        }
+        addTokens(tf, row.description(), DESCRIPTION_WEIGHT);
+        return tf;
+    }
+
+    private static void addTokens(Map<String, Integer> tf, String text, int weight) {
+        for (String token : Tokenizer.tokenize(text)) {
+            tf.merge(token, weight, Integer::sum);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.personal.bookstoreapi.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Thread-safe facet index: one bitset per facet value, with the document key used directly as
+ * the bit number. Filtering is a bitset intersection and matches come out in key order, so
+ * results page with the same "after id" cursor as the catalog listing. The bitsets are plain
+ * {@code long[]} words, so a query intersects into at most two scratch arrays and counts each
+ * facet value word by word without copying its bitset.
+ * <p>
+ * Memory is therefore proportional to the highest key, not to the number of documents: about
+ * {@code maxKey / 8} bytes per facet value. Catalog ids come from pooled sequences, which skip
+ * at most {@code allocationSize - 1} ids per application start, so together with deleted books
+ * the key range stays close to the row count; {@link #keyDensity()} reports how close.
+ */
+public final class FacetIndex {
+
+    /** The largest key the index accepts; keys are used as bit numbers. */
+    public static final long MAX_KEY = Integer.MAX_VALUE - 1;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Map<String, Bits>> bitsets = new HashMap<>();
+    private final Map<Long, Map<String, Set<String>>> docValues = new HashMap<>();
+    private final Bits all = new Bits(0);
+
+    /**
+     * Adds or replaces a document. {@code values} maps each facet to the document's values for
+     * it; a facet may have several values (e.g. a book with both physical and digital items).
+     */
+    public void put(long key, Map<String, Set<String>> values) {
+        int bit = bit(key);
+        lock.writeLock()
+            .lock();
+        try {
+            removeLocked(key, bit);
+            values.forEach((facet, facetValues) -> {
+                for (String value : facetValues) {
+                    bitsets.computeIfAbsent(facet, f -> new HashMap<>())
+                           // sized to the current key range up front instead of regrowing while the index fills
+                           .computeIfAbsent(value, v -> new Bits(all.words.length))
+                           .set(bit);
+                }
+            });
+            docValues.put(key, Map.copyOf(values));
+            all.set(bit);
+        } finally {
+            lock.writeLock()
+                .unlock();
+        }
+    }
+
+    public void remove(long key) {
+        int bit = bit(key);
+        lock.writeLock()
+            .lock();
+        try {
+            removeLocked(key, bit);
+        } finally {
+            lock.writeLock()
+                .unlock();
+        }
+    }
+
+    /** The document's values for {@code facet}; empty when it has none or is not indexed. */
+    public Set<String> values(long key, String facet) {
+        lock.readLock()
+            .lock();
+        try {
+            return docValues.getOrDefault(key, Map.of())
+                            .getOrDefault(facet, Set.of());
+        } finally {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    public Set<Long> keys() {
+        lock.readLock()
+            .lock();
+        try {
+            return Set.copyOf(docValues.keySet());
+        } finally {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock()
+            .lock();
+        try {
+            return docValues.size();
+        } finally {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    /** Indexed documents per bit of key range; 1.0 when the keys are exactly 0..n-1. */
+    public double keyDensity() {
+        lock.readLock()
+            .lock();
+        try {
+            return all.cardinality == 0 ? 1.0 : (double) docValues.size() / all.length();
+        } finally {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    /**
+     * Keys matching every filter (facet -> required value) that are greater than
+     * {@code afterKey}, up to {@code limit}, together with the total number of matches and the
+     * value counts of every facet.
+     * <p>
+     * A facet's counts apply all filters except its own, so the client can show how many
+     * results each alternative value would give.
+     */
+    public Result query(Map<String, String> filters, Long afterKey, int limit) {
+        lock.readLock()
+            .lock();
+        try {
+            long[] matches = new long[all.words.length];
+            intersectInto(matches, filters, null);
+
+            List<Long> keys = new ArrayList<>(limit);
+            int from = afterKey == null ? 0 : bit(afterKey) + 1;
+            for (int bit = nextSetBit(matches, from); bit >= 0 && keys.size() < limit; bit = nextSetBit(matches, bit + 1)) {
+                keys.add((long) bit);
+            }
+
+            // shared by every facet that has a filter of its own to leave out
+            long[] scratch = null;
+            Map<String, Map<String, Integer>> counts = new TreeMap<>();
+            for (Map.Entry<String, Map<String, Bits>> facet : bitsets.entrySet()) {
+                long[] base = matches;
+                if (filters.containsKey(facet.getKey())) {
+                    if (scratch == null) scratch = new long[all.words.length];
+                    intersectInto(scratch, filters, facet.getKey());
+                    base = scratch;
+                }
+                Map<String, Integer> facetCounts = new TreeMap<>();
+                for (Map.Entry<String, Bits> value : facet.getValue()
+                                                          .entrySet()) {
+                    int count = countIntersection(base, value.getValue().words);
+                    if (count > 0) facetCounts.put(value.getKey(), count);
+                }
+                counts.put(facet.getKey(), facetCounts);
+            }
+
+            return new Result(keys, cardinality(matches), counts);
+        } finally {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    // target = all documents matching every filter except skipFacet's
+    private void intersectInto(long[] target, Map<String, String> filters, String skipFacet) {
+        System.arraycopy(all.words, 0, target, 0, target.length);
+        for (Map.Entry<String, String> filter : filters.entrySet()) {
+            if (filter.getKey()
+                      .equals(skipFacet)) continue;
+
+            Bits bits = bitsets.getOrDefault(filter.getKey(), Map.of())
+                               .get(filter.getValue());
+            if (bits == null) {
+                Arrays.fill(target, 0L);
+                return;
+            }
+            for (int i = 0; i < target.length; i++) {
+                target[i] &= i < bits.words.length ? bits.words[i] : 0L;
+            }
+        }
+    }
+
+    private static int countIntersection(long[] a, long[] b) {
+        int count = 0;
+        for (int i = 0, n = Math.min(a.length, b.length); i < n; i++) {
+            count += Long.bitCount(a[i] & b[i]);
+        }
+        return count;
+    }
+
+    private static int cardinality(long[] words) {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    private static int nextSetBit(long[] words, int from) {
+        int w = from >>> 6;
+        if (w >= words.length) return -1;
+        long word = words[w] & (-1L << from);
+        while (word == 0) {
+            if (++w == words.length) return -1;
+            word = words[w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    private void removeLocked(long key, int bit) {
+        Map<String, Set<String>> old = docValues.remove(key);
+        if (old == null) return;
+
+        old.forEach((facet, values) -> {
+            Map<String, Bits> facetBits = bitsets.get(facet);
+            for (String value : values) {
+                Bits bits = facetBits.get(value);
+                bits.clear(bit);
+                if (bits.cardinality == 0) facetBits.remove(value);
+            }
+        });
+        all.clear(bit);
+    }
+
+    private static int bit(long key) {
+        if (key < 0 || key > MAX_KEY) {
+            throw new IllegalArgumentException("Facet key out of range: " + key);
+        }
+        return (int) key;
+    }
+
+    // growable bitset exposing its words, so queries can read them without copying
+    private static final class Bits {
+
+        private long[] words;
+        private int cardinality;
+
+        private Bits(int wordCount) {
+            this.words = new long[wordCount];
+        }
+
+        private void set(int bit) {
+            int w = bit >>> 6;
+            if (w >= words.length) {
+                words = Arrays.copyOf(words, Math.max(w + 1, words.length * 2));
+            }
+            long mask = 1L << bit;
+            if ((words[w] & mask) == 0) {
+                words[w] |= mask;
+                cardinality++;
+            }
+        }
+
+        private void clear(int bit) {
+            int w = bit >>> 6;
+            long mask = 1L << bit;
+            if (w < words.length && (words[w] & mask) != 0) {
+                words[w] &= ~mask;
+                cardinality--;
+            }
+        }
+
+        // highest set bit + 1
+        private int length() {
+            for (int w = words.length - 1; w >= 0; w--) {
+                if (words[w] != 0) return (w << 6) + 64 - Long.numberOfLeadingZeros(words[w]);
+            }
+            return 0;
+        }
+    }
+
+    public record Result(List<Long> keys, int total, Map<String, Map<String, Integer>> counts) {
+    }
+}
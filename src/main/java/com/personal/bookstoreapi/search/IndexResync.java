@@ -0,0 +1,32 @@
+package com.personal.bookstoreapi.search;
+
+import com.personal.bookstoreapi.config.AsyncListenerPool;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Brings the in-memory indexes back in line with the database after the listener pool dropped
+ * change events. However many were lost, each index is reconciled once per interval.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IndexResync {
+
+    private final AsyncListenerPool listenerPool;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookFacetIndex bookFacetIndex;
+    private final TypeaheadIndex typeaheadIndex;
+
+    @Scheduled(fixedDelayString = "${async.listeners.resync-interval:PT30S}")
+    public void resyncIfDropped() {
+        if (!listenerPool.takeOverflow()) return;
+
+        log.warn("Listener tasks were dropped; rebuilding search indexes");
+        bookSearchIndex.rebuild();
+        bookFacetIndex.rebuild();
+        typeaheadIndex.rebuild();
+    }
+}
@@ -0,0 +1,333 @@
+package com.personal.bookstoreapi.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Thread-safe inverted index over documents identified by a {@code long} key, ranked with BM25.
+ * <p>
+ * Documents get a dense internal number on every (re)index; postings are parallel primitive
+ * arrays in document order. Replacing or removing a document only clears its bit in
+ * {@code live}; a posting list is compacted once more than half of it is dead, and once dead
+ * numbers outnumber live documents all documents are renumbered, so memory follows the number
+ * of documents rather than the number of updates.
+ * <p>
+ * Searches score into per-document accumulators borrowed from a small pool and zeroed again
+ * (only the touched entries) before they are returned.
+ */
+public final class InvertedIndex {
+
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+
+    private static final int MIN_CAPACITY = 1024;
+    private static final int SCRATCH_POOL_SIZE = 16;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<Postings> postings = new ArrayList<>();
+    private final Map<Long, Integer> docByKey = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final BlockingQueue<float[]> scratch = new ArrayBlockingQueue<>(SCRATCH_POOL_SIZE);
+
+    private long[] docKeys = new long[MIN_CAPACITY];
+    private int[] docLengths = new int[MIN_CAPACITY];
+    private int[][] docTerms = new int[MIN_CAPACITY][];
+    private int nextDoc;
+    private int liveDocs;
+    private long totalLength;
+
+    /**
+     * Adds or replaces a document. {@code termFrequencies} maps each term to its (weighted)
+     * frequency in the document; an empty map just removes the document.
+     */
+    public void put(long key, Map<String, Integer> termFrequencies) {
+        lock.writeLock()
+            .lock();
+        try {
+            removeLocked(key);
+            if (termFrequencies.isEmpty()) return;
+            if (nextDoc - liveDocs > liveDocs + MIN_CAPACITY) renumberLocked();
+
+            int doc = nextDoc++;
+            ensureCapacity(doc + 1);
+
+            int[] terms = new int[termFrequencies.size()];
+            int length = 0;
+            int i = 0;
+            for (Map.Entry<String, Integer> e : termFrequencies.entrySet()) {
+                int termId = termIds.computeIfAbsent(e.getKey(), t -> {
+                    postings.add(new Postings());
+                    return postings.size() - 1;
+                });
+                postings.get(termId)
+                        .add(doc, e.getValue());
+                terms[i++] = termId;
+                length += e.getValue();
+            }
+
+            docKeys[doc] = key;
+            docLengths[doc] = length;
+            docTerms[doc] = terms;
+            docByKey.put(key, doc);
+            live.set(doc);
+            liveDocs++;
+            totalLength += length;
+        } finally {
+            lock.writeLock()
+                .unlock();
+        }
+    }
+
+    public void remove(long key) {
+        lock.writeLock()
+            .lock();
+        try {
+            removeLocked(key);
+        } finally {
+            lock.writeLock()
+                .unlock();
+        }
+    }
+
+    /** Internal document numbers in use, live or dead; stays within about twice {@link #size()}. */
+    int capacityInUse() {
+        lock.readLock()
+            .lock();
+        try {
+            return nextDoc;
+        } finally {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    public Set<Long> keys() {
+        lock.readLock()
+            .lock();
+        try {
+            return Set.copyOf(docByKey.keySet());
+        } finally {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock()
+            .lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    /**
+     * Scores every live document containing at least one of {@code terms} and returns the
+     * best {@code limit} of them, highest score first, plus the total number of matches.
+     */
+    public SearchHits search(Collection<String> terms, int limit) {
+        lock.readLock()
+            .lock();
+        try {
+            if (liveDocs == 0 || limit <= 0) return new SearchHits(0, List.of());
+
+            float[] scores = borrowScores();
+            Touched touched = new Touched();
+            try {
+                return rank(terms, limit, scores, touched);
+            } finally {
+                returnScores(scores, touched);
+            }
+        } finally {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    private SearchHits rank(Collection<String> terms, int limit, float[] scores, Touched touched) {
+        double avgLength = (double) totalLength / liveDocs;
+
+        for (String term : new LinkedHashSet<>(terms)) {
+            Integer termId = termIds.get(term);
+            if (termId == null) continue;
+            Postings list = postings.get(termId);
+            if (list.df == 0) continue;
+
+            double idf = Math.log(1 + (liveDocs - list.df + 0.5) / (list.df + 0.5));
+
+            for (int p = 0; p < list.size; p++) {
+                int doc = list.docs[p];
+                if (!live.get(doc)) continue;
+
+                double tf = list.freqs[p];
+                double norm = K1 * (1 - B + B * docLengths[doc] / avgLength);
+                if (scores[doc] == 0f) touched.add(doc);
+                scores[doc] += (float) (idf * tf * (K1 + 1) / (tf + norm));
+            }
+        }
+
+        if (touched.count == 0) return new SearchHits(0, List.of());
+
+        // min-heap of the current top `limit`; ties broken by key so results are stable
+        Comparator<Integer> byRank = (a, b) -> {
+            int byScore = Float.compare(scores[a], scores[b]);
+            return byScore != 0 ? byScore : Long.compare(docKeys[b], docKeys[a]);
+        };
+        PriorityQueue<Integer> top = new PriorityQueue<>(Math.min(limit, touched.count) + 1, byRank);
+        for (int i = 0; i < touched.count; i++) {
+            int doc = touched.docs[i];
+            if (top.size() < limit) {
+                top.offer(doc);
+            } else if (byRank.compare(doc, top.peek()) > 0) {
+                top.poll();
+                top.offer(doc);
+            }
+        }
+
+        Hit[] hits = new Hit[top.size()];
+        for (int i = hits.length - 1; i >= 0; i--) {
+            int doc = top.poll();
+            hits[i] = new Hit(docKeys[doc], scores[doc]);
+        }
+        return new SearchHits(touched.count, List.of(hits));
+    }
+
+    private float[] borrowScores() {
+        float[] scores = scratch.poll();
+        return scores != null && scores.length >= nextDoc ? scores : new float[docKeys.length];
+    }
+
+    private void returnScores(float[] scores, Touched touched) {
+        for (int i = 0; i < touched.count; i++) {
+            scores[touched.docs[i]] = 0f;
+        }
+        scratch.offer(scores);
+    }
+
+    // Moves live documents to 0..liveDocs-1, keeping their order, and drops every dead posting.
+    private void renumberLocked() {
+        int[] renumbered = new int[nextDoc];
+        int next = 0;
+        for (int doc = live.nextSetBit(0); doc >= 0; doc = live.nextSetBit(doc + 1)) {
+            renumbered[doc] = next;
+            docKeys[next] = docKeys[doc];
+            docLengths[next] = docLengths[doc];
+            docTerms[next] = docTerms[doc];
+            docByKey.put(docKeys[next], next);
+            next++;
+        }
+        for (Postings list : postings) {
+            list.renumber(live, renumbered);
+        }
+
+        int capacity = Math.max(MIN_CAPACITY, 2 * next);
+        docKeys = Arrays.copyOf(docKeys, capacity);
+        docLengths = Arrays.copyOf(docLengths, capacity);
+        docTerms = Arrays.copyOf(docTerms, capacity);
+        Arrays.fill(docTerms, next, capacity, null);
+        live.clear();
+        live.set(0, next);
+        nextDoc = next;
+        // pooled accumulators may be sized for the old numbering
+        scratch.clear();
+    }
+
+    private void removeLocked(long key) {
+        Integer doc = docByKey.remove(key);
+        if (doc == null) return;
+
+        live.clear(doc);
+        liveDocs--;
+        totalLength -= docLengths[doc];
+        for (int termId : docTerms[doc]) {
+            Postings list = postings.get(termId);
+            list.df--;
+            if (list.size > 2 * list.df + 8) list.compact(live);
+        }
+        docTerms[doc] = null;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= docKeys.length) return;
+        int newLength = Math.max(capacity, docKeys.length * 2);
+        docKeys = Arrays.copyOf(docKeys, newLength);
+        docLengths = Arrays.copyOf(docLengths, newLength);
+        docTerms = Arrays.copyOf(docTerms, newLength);
+    }
+
+    public record Hit(long key, double score) {
+    }
+
+    public record SearchHits(int total, List<Hit> hits) {
+    }
+
+    // documents given a score by the current search, so the accumulator can be reset cheaply
+    private static final class Touched {
+        int[] docs = new int[16];
+        int count;
+
+        void add(int doc) {
+            if (count == docs.length) docs = Arrays.copyOf(docs, count * 2);
+            docs[count++] = doc;
+        }
+    }
+
+    private static final class Postings {
+        int[] docs = new int[4];
+        int[] freqs = new int[4];
+        int size;
+        int df;     // live documents only
+
+        void add(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+            df++;
+        }
+
+        void renumber(BitSet live, int[] renumbered) {
+            int kept = 0;
+            for (int p = 0; p < size; p++) {
+                if (live.get(docs[p])) {
+                    docs[kept] = renumbered[docs[p]];
+                    freqs[kept] = freqs[p];
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+
+        void compact(BitSet live) {
+            int kept = 0;
+            for (int p = 0; p < size; p++) {
+                if (live.get(docs[p])) {
+                    docs[kept] = docs[p];
+                    freqs[kept] = freqs[p];
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+    }
+}
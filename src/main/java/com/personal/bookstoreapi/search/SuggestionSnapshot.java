@@ -0,0 +1,277 @@
+package com.personal.bookstoreapi.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Flattened prefix trie: the word-start suffixes of every entry's normalised text, sorted,
+ * so that all keys sharing a prefix form one contiguous range. A segment tree over that
+ * range answers "most popular key in [l, r]" in O(log n), which gives the top K entries for
+ * a prefix in O(K log n) without storing per-node top-K lists. The keys are primitive
+ * (entry, offset) refs sorted by comparing the text in place, so building one allocates no
+ * substrings.
+ * <p>
+ * The key set is immutable; only popularity changes in place. Popularity writes are
+ * serialised, readers may observe a bump half-applied, which only affects ranking.
+ */
+final class SuggestionSnapshot {
+
+    // only the first few words of a title/name are completion entry points
+    static final int MAX_WORD_STARTS = 4;
+
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private final List<Entry> entries;
+    private final String[] normalized;
+    private final long[] popularity;
+    private final Map<Type, Map<Long, Integer>> indexById = new EnumMap<>(Type.class);
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // ref = entry index << 16 | char offset of the word start inside normalized[entry]
+    private final long[] refs;
+    private final int[] tree;
+    private final int[] positionStart;   // CSR: positions of entry e are positions[positionStart[e]..positionStart[e+1])
+    private final int[] positions;
+
+    SuggestionSnapshot(List<Entry> entries) {
+        this.entries = List.copyOf(entries);
+        int n = this.entries.size();
+        this.normalized = new String[n];
+        this.popularity = new long[n];
+
+        int keyCount = 0;
+        for (int e = 0; e < n; e++) {
+            Entry entry = this.entries.get(e);
+            normalized[e] = Tokenizer.normalizePhrase(entry.label());
+            popularity[e] = entry.popularity();
+            indexById.computeIfAbsent(entry.type(), type -> new HashMap<>())
+                     .put(entry.id(), e);
+            keyCount += wordStarts(normalized[e], null, e, 0);
+        }
+        this.refs = new long[keyCount];
+        for (int e = 0, at = 0; e < n; e++) {
+            at += wordStarts(normalized[e], refs, e, at);
+        }
+        sort(refs, new long[refs.length], 0, refs.length);
+
+        this.positionStart = new int[n + 1];
+        for (long ref : refs) {
+            positionStart[entryOf(ref) + 1]++;
+        }
+        for (int e = 0; e < n; e++) {
+            positionStart[e + 1] += positionStart[e];
+        }
+        this.positions = new int[refs.length];
+        int[] fill = Arrays.copyOf(positionStart, n);
+        for (int i = 0; i < refs.length; i++) {
+            positions[fill[entryOf(refs[i])]++] = i;
+        }
+
+        this.tree = new int[2 * Math.max(1, refs.length)];
+        for (int i = 0; i < refs.length; i++) {
+            tree[refs.length + i] = i;
+        }
+        for (int node = refs.length - 1; node > 0; node--) {
+            tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    Entry entry(int index) {
+        return entries.get(index);
+    }
+
+    /** Entry index for the given book or author, or -1 if it is not in this snapshot. */
+    int indexOf(Type type, Long id) {
+        return indexById.getOrDefault(type, Map.of())
+                        .getOrDefault(id, -1);
+    }
+
+    /**
+     * Indices of the {@code k} most popular entries with a word starting with {@code prefix}
+     * (already normalised), most popular first.
+     */
+    List<Integer> topK(String prefix, int k) {
+        return topK(prefix, k, null);
+    }
+
+    /** As {@link #topK(String, int)}, skipping the entries set in {@code excluded}. */
+    List<Integer> topK(String prefix, int k, BitSet excluded) {
+        if (prefix.isEmpty() || refs.length == 0 || k <= 0) return List.of();
+
+        int lo = lowerBound(prefix);
+        int hi = upperBound(prefix, lo);
+        if (lo >= hi) return List.of();
+
+        // candidates are [l, r, best] ranges; popping the best one splits it around its winner
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> compare(b[2], a[2]));
+        ranges.add(new int[]{lo, hi - 1, argMax(lo, hi - 1)});
+
+        List<Integer> result = new ArrayList<>(k);
+        BitSet seen = new BitSet();
+        while (result.size() < k && !ranges.isEmpty()) {
+            int[] range = ranges.poll();
+            int best = range[2];
+            int entry = entryOf(refs[best]);
+            if (!seen.get(entry)) {
+                seen.set(entry);
+                if (excluded == null || !excluded.get(entry)) result.add(entry);
+            }
+            if (range[0] <= best - 1) ranges.add(new int[]{range[0], best - 1, argMax(range[0], best - 1)});
+            if (best + 1 <= range[1]) ranges.add(new int[]{best + 1, range[1], argMax(best + 1, range[1])});
+        }
+        return result;
+    }
+
+    void addPopularity(int entry, long delta) {
+        writeLock.lock();
+        try {
+            popularity[entry] += delta;
+            for (int p = positionStart[entry]; p < positionStart[entry + 1]; p++) {
+                int node = (positions[p] + refs.length) / 2;
+                while (node > 0) {
+                    tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+                    node /= 2;
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    long popularity(int entry) {
+        return popularity[entry];
+    }
+
+    private int argMax(int l, int r) {
+        int best = l;
+        for (int lo = l + refs.length, hi = r + refs.length + 1; lo < hi; lo /= 2, hi /= 2) {
+            if ((lo & 1) == 1) best = better(best, tree[lo++]);
+            if ((hi & 1) == 1) best = better(best, tree[--hi]);
+        }
+        return best;
+    }
+
+    // higher popularity wins, ties go to the alphabetically first key
+    private int better(int a, int b) {
+        return compare(a, b) >= 0 ? a : b;
+    }
+
+    private int compare(int a, int b) {
+        int byPopularity = Long.compare(popularity[entryOf(refs[a])], popularity[entryOf(refs[b])]);
+        return byPopularity != 0 ? byPopularity : Integer.compare(b, a);
+    }
+
+    private int lowerBound(String prefix) {
+        int lo = 0, hi = refs.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (comparePrefix(refs[mid], prefix) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private int upperBound(String prefix, int from) {
+        int lo = from, hi = refs.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (comparePrefix(refs[mid], prefix) <= 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // compares the first prefix.length() chars of the key with prefix (0 = key starts with prefix)
+    private int comparePrefix(long ref, String prefix) {
+        String text = normalized[entryOf(ref)];
+        int offset = offsetOf(ref);
+        int len = Math.min(prefix.length(), text.length() - offset);
+        for (int i = 0; i < len; i++) {
+            int diff = text.charAt(offset + i) - prefix.charAt(i);
+            if (diff != 0) return diff;
+        }
+        return len == prefix.length() ? 0 : -1;
+    }
+
+    // writes the refs of text's word starts to out (when given) from index at; returns how many
+    private static int wordStarts(String text, long[] out, int entry, int at) {
+        int starts = 0;
+        for (int offset = 0; offset < Math.min(text.length(), 0xFFFF) && starts < MAX_WORD_STARTS; offset++) {
+            if (offset == 0 || text.charAt(offset - 1) == ' ') {
+                if (out != null) out[at + starts] = ((long) entry << 16) | offset;
+                starts++;
+            }
+        }
+        return starts;
+    }
+
+    // merge sort on the primitive refs, ordered by their suffix without materialising it
+    private void sort(long[] a, long[] buffer, int from, int to) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                long ref = a[i];
+                int j = i - 1;
+                while (j >= from && compareRefs(a[j], ref) > 0) {
+                    a[j + 1] = a[j];
+                    j--;
+                }
+                a[j + 1] = ref;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sort(a, buffer, from, mid);
+        sort(a, buffer, mid, to);
+        if (compareRefs(a[mid - 1], a[mid]) <= 0) return;
+
+        System.arraycopy(a, from, buffer, from, to - from);
+        int i = from, j = mid, k = from;
+        while (i < mid && j < to) {
+            a[k++] = compareRefs(buffer[j], buffer[i]) < 0 ? buffer[j++] : buffer[i++];
+        }
+        while (i < mid) a[k++] = buffer[i++];
+        while (j < to) a[k++] = buffer[j++];
+    }
+
+    // suffix order (as String.compareTo on the suffixes), then ref order
+    private int compareRefs(long a, long b) {
+        String textA = normalized[entryOf(a)];
+        String textB = normalized[entryOf(b)];
+        int offsetA = offsetOf(a);
+        int offsetB = offsetOf(b);
+        int lengthA = textA.length() - offsetA;
+        int lengthB = textB.length() - offsetB;
+        for (int i = 0, n = Math.min(lengthA, lengthB); i < n; i++) {
+            int diff = textA.charAt(offsetA + i) - textB.charAt(offsetB + i);
+            if (diff != 0) return diff;
+        }
+        return lengthA != lengthB ? lengthA - lengthB : Long.compare(a, b);
+    }
+
+    private static int entryOf(long ref) {
+        return (int) (ref >>> 16);
+    }
+
+    private static int offsetOf(long ref) {
+        return (int) (ref & 0xFFFF);
+    }
+
+    enum Type {
+        BOOK,
+        AUTHOR
+    }
+
+    record Entry(Type type, Long id, String label, long popularity) {
+    }
+}
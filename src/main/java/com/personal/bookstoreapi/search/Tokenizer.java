@@ -0,0 +1,53 @@
+package com.personal.bookstoreapi.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Shared text normalisation for the in-memory catalog indexes: accents are folded,
+ * text is lower-cased and split on anything that is not a letter or digit.
+ */
+public final class Tokenizer {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into",
+            "is", "it", "of", "on", "or", "the", "to", "with"
+    );
+
+    private Tokenizer() {
+    }
+
+    public static String normalize(String text) {
+        if (text == null) return "";
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                             .replaceAll("");
+        return folded.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Normalised text with every run of separators collapsed to one space, e.g.
+     * {@code "Harry Potter & the..."} becomes {@code "harry potter the"}.
+     */
+    public static String normalizePhrase(String text) {
+        return SEPARATORS.matcher(normalize(text))
+                         .replaceAll(" ")
+                         .trim();
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalize(text))) {
+            if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,376 @@
+package com.personal.bookstoreapi.search;
+
+import com.personal.bookstoreapi.domain.entity.Author;
+import com.personal.bookstoreapi.events.AuthorChangedEvent;
+import com.personal.bookstoreapi.events.BookChangedEvent;
+import com.personal.bookstoreapi.events.OrdersPaidEvent;
+import com.personal.bookstoreapi.repository.AuthorRepository;
+import com.personal.bookstoreapi.repository.BookRepository;
+import com.personal.bookstoreapi.repository.projection.BookAuthorRow;
+import com.personal.bookstoreapi.repository.projection.BookListRow;
+import com.personal.bookstoreapi.repository.projection.BookSalesRow;
+import com.personal.bookstoreapi.repository.projection.BookTextRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Prefix completion over book titles and author names, ranked by copies sold (an author
+ * ranks by the sales of all their books). Each outbox batch of paid orders adds its own
+ * quantities to the books' sold counters and applies the new totals to the live suggestions.
+ * <p>
+ * Suggestions come from a base {@link SuggestionSnapshot} plus a small overlay snapshot.
+ * Catalog edits that change the key set (a title, a book's authors, an author's name, a book
+ * added or removed) are collected; on the next refresh tick only the changed books and authors
+ * are rebuilt into the overlay, and their stale base entries are hidden. Other edits leave
+ * both alone. Once the overlay outgrows {@link #MIN_MERGE_THRESHOLD} entries, or a sixteenth of
+ * the base, the base is rebuilt from memory and the overlay emptied. Authors no book
+ * references any more are hidden at once and dropped at that merge.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TypeaheadIndex {
+
+    static final int MIN_MERGE_THRESHOLD = 256;
+
+    private static final int BUILD_BATCH_SIZE = 1_000;
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+
+    // all guarded by lock
+    private final Map<Long, String> bookTitles = new HashMap<>();
+    private final Map<Long, List<Long>> bookAuthors = new HashMap<>();
+    private final Map<Long, Set<Long>> authorBooks = new HashMap<>();
+    private final Map<Long, String> authorNames = new HashMap<>();
+    private final Map<Long, Long> bookSales = new HashMap<>();
+    private final Set<Key> pending = new HashSet<>();
+    private final Set<Key> overlayKeys = new HashSet<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile View view = new View(new SuggestionSnapshot(List.of()), new SuggestionSnapshot(List.of()), new BitSet());
+
+    /**
+     * Loads every book and author; books still held but no longer seen (deleted since, or a
+     * change event was dropped) are re-checked and removed when gone.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        Set<Long> stale;
+        List<Author> authors = authorRepository.findAll();
+        lock.lock();
+        try {
+            stale = new HashSet<>(bookTitles.keySet());
+            for (Author author : authors) {
+                authorNames.put(author.getId(), author.getName());
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        Long afterId = null;
+        List<BookListRow> batch;
+        do {
+            batch = bookRepository.findListRowsAfter(afterId, null, null, null, null, PageRequest.of(0, BUILD_BATCH_SIZE));
+            if (batch.isEmpty()) break;
+
+            Map<Long, List<Long>> bookAuthorIds = new HashMap<>();
+            for (BookAuthorRow row : bookRepository.findAuthorRowsByBookIds(batch.stream()
+                                                                                 .map(BookListRow::id)
+                                                                                 .toList())) {
+                bookAuthorIds.computeIfAbsent(row.bookId(), id -> new ArrayList<>())
+                             .add(row.authorId());
+            }
+            lock.lock();
+            try {
+                for (BookListRow row : batch) {
+                    putBookLocked(row.id(), row.title(), List.copyOf(bookAuthorIds.getOrDefault(row.id(), List.of())));
+                    stale.remove(row.id());
+                }
+            } finally {
+                lock.unlock();
+            }
+            afterId = batch.get(batch.size() - 1)
+                           .id();
+        } while (batch.size() == BUILD_BATCH_SIZE);
+        stale.forEach(this::reindex);
+
+        List<BookSalesRow> sales = bookRepository.findSalesRows();
+        lock.lock();
+        try {
+            for (BookSalesRow row : sales) {
+                bookSales.put(row.bookId(), row.quantity());
+            }
+            mergeLocked();
+        } finally {
+            lock.unlock();
+        }
+        log.info("Typeahead index built: {} entries in {} ms", view.base()
+                                                                   .size(), System.currentTimeMillis() - started);
+    }
+
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        reindex(event.getBookId());
+    }
+
+    private void reindex(Long bookId) {
+        Optional<BookTextRow> row = bookRepository.findTextRowById(bookId);
+        List<BookAuthorRow> authors = row.isPresent() ? bookRepository.findAuthorRowsByBookIds(List.of(bookId)) : List.of();
+        lock.lock();
+        try {
+            if (row.isEmpty()) {
+                removeBookLocked(bookId);
+                return;
+            }
+            for (BookAuthorRow author : authors) {
+                putAuthorNameLocked(author.authorId(), author.authorName());
+            }
+            putBookLocked(bookId, row.get()
+                                     .title(), authors.stream()
+                                                      .map(BookAuthorRow::authorId)
+                                                      .toList());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // only authors some book references are suggested, so others can be ignored
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorChanged(AuthorChangedEvent event) {
+        Long authorId = event.getAuthorId();
+        lock.lock();
+        try {
+            if (!authorNames.containsKey(authorId)) return;
+        } finally {
+            lock.unlock();
+        }
+
+        String name = authorRepository.findById(authorId)
+                                      .map(Author::getName)
+                                      .orElse(null);
+        lock.lock();
+        try {
+            putAuthorNameLocked(authorId, name);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Runs in the outbox batch: the counters move in the transaction that acknowledges these
+    // orders, so a rolled-back batch undoes them too, and applying absolute totals to the index
+    // makes a redelivered batch change nothing here.
+    @EventListener
+    public void onOrdersPaid(OrdersPaidEvent event) {
+        bookRepository.addSoldCopies(event.getOrderIds());
+        for (BookSalesRow row : bookRepository.findSalesRowsByOrderIds(event.getOrderIds())) {
+            setSales(row.bookId(), row.quantity());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.typeahead.refresh-interval:PT30S}")
+    public void refresh() {
+        lock.lock();
+        try {
+            if (pending.isEmpty()) return;
+
+            overlayKeys.addAll(pending);
+            pending.clear();
+            if (overlayKeys.size() > Math.max(MIN_MERGE_THRESHOLD, view.base()
+                                                                      .size() / 16)) {
+                mergeLocked();
+            } else {
+                publishOverlayLocked();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        View current = view;
+        String normalized = Tokenizer.normalizePhrase(prefix);
+        List<Integer> fromBase = current.base()
+                                        .topK(normalized, limit, current.hidden());
+        List<Integer> fromOverlay = current.overlay()
+                                           .topK(normalized, limit);
+
+        // both lists are most popular first; on a tie the base entry goes first
+        List<Suggestion> suggestions = new ArrayList<>(limit);
+        int b = 0, o = 0;
+        while (suggestions.size() < limit && (b < fromBase.size() || o < fromOverlay.size())) {
+            boolean takeBase = o == fromOverlay.size()
+                    || b < fromBase.size() && current.base()
+                                                     .popularity(fromBase.get(b)) >= current.overlay()
+                                                                                            .popularity(fromOverlay.get(o));
+            SuggestionSnapshot.Entry entry = takeBase ? current.base()
+                                                               .entry(fromBase.get(b++)) : current.overlay()
+                                                                                                  .entry(fromOverlay.get(o++));
+            suggestions.add(new Suggestion(entry.label(), entry.type()
+                                                                  .name(), entry.id()));
+        }
+        return suggestions;
+    }
+
+    // serialised with refresh() so a bump cannot land on a snapshot that is being replaced
+    void setSales(Long bookId, long total) {
+        lock.lock();
+        try {
+            Long previous = bookSales.put(bookId, total);
+            long delta = total - (previous == null ? 0L : previous);
+            if (delta == 0) return;
+
+            View current = view;
+            addPopularity(current, SuggestionSnapshot.Type.BOOK, bookId, delta);
+            for (Long authorId : bookAuthors.getOrDefault(bookId, List.of())) {
+                addPopularity(current, SuggestionSnapshot.Type.AUTHOR, authorId, delta);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void addPopularity(View current, SuggestionSnapshot.Type type, Long id, long delta) {
+        int base = current.base()
+                          .indexOf(type, id);
+        if (base >= 0 && !current.hidden()
+                                 .get(base)) {
+            current.base()
+                   .addPopularity(base, delta);
+        }
+        int overlay = current.overlay()
+                             .indexOf(type, id);
+        if (overlay >= 0) {
+            current.overlay()
+                   .addPopularity(overlay, delta);
+        }
+    }
+
+    SuggestionSnapshot snapshot() {
+        return view.base();
+    }
+
+    int overlaySize() {
+        return view.overlay()
+                   .size();
+    }
+
+    // Book and author maps change only here; every key-set change is recorded in pending.
+
+    private void putBookLocked(Long bookId, String title, List<Long> authorIds) {
+        if (!title.equals(bookTitles.put(bookId, title))) {
+            pending.add(new Key(SuggestionSnapshot.Type.BOOK, bookId));
+        }
+        List<Long> previousAuthors = bookAuthors.put(bookId, authorIds);
+        if (!authorIds.equals(previousAuthors)) {
+            // the book's sales move between authors
+            unlinkLocked(bookId, previousAuthors);
+            for (Long authorId : authorIds) {
+                authorBooks.computeIfAbsent(authorId, id -> new HashSet<>())
+                           .add(bookId);
+                pending.add(new Key(SuggestionSnapshot.Type.AUTHOR, authorId));
+            }
+        }
+    }
+
+    private void removeBookLocked(Long bookId) {
+        if (bookTitles.remove(bookId) != null) {
+            pending.add(new Key(SuggestionSnapshot.Type.BOOK, bookId));
+        }
+        unlinkLocked(bookId, bookAuthors.remove(bookId));
+    }
+
+    private void unlinkLocked(Long bookId, List<Long> authorIds) {
+        if (authorIds == null) return;
+        for (Long authorId : authorIds) {
+            Set<Long> books = authorBooks.get(authorId);
+            if (books != null && books.remove(bookId) && books.isEmpty()) {
+                authorBooks.remove(authorId);
+            }
+            pending.add(new Key(SuggestionSnapshot.Type.AUTHOR, authorId));
+        }
+    }
+
+    private void putAuthorNameLocked(Long authorId, String name) {
+        String previous = name == null ? authorNames.remove(authorId) : authorNames.put(authorId, name);
+        if (!Objects.equals(previous, name)) {
+            pending.add(new Key(SuggestionSnapshot.Type.AUTHOR, authorId));
+        }
+    }
+
+    // the current entry for a key, or null when it is gone (or an author no book references)
+    private SuggestionSnapshot.Entry entryLocked(Key key) {
+        if (key.type() == SuggestionSnapshot.Type.BOOK) {
+            String title = bookTitles.get(key.id());
+            return title == null ? null
+                    : new SuggestionSnapshot.Entry(key.type(), key.id(), title, bookSales.getOrDefault(key.id(), 0L));
+        }
+        String name = authorNames.get(key.id());
+        Set<Long> books = authorBooks.get(key.id());
+        if (name == null || books == null) return null;
+        long sales = 0;
+        for (Long bookId : books) {
+            sales += bookSales.getOrDefault(bookId, 0L);
+        }
+        return new SuggestionSnapshot.Entry(key.type(), key.id(), name, sales);
+    }
+
+    private void publishOverlayLocked() {
+        SuggestionSnapshot base = view.base();
+        BitSet hidden = new BitSet(base.size());
+        List<SuggestionSnapshot.Entry> entries = new ArrayList<>(overlayKeys.size());
+        for (Key key : overlayKeys) {
+            int index = base.indexOf(key.type(), key.id());
+            if (index >= 0) hidden.set(index);
+            SuggestionSnapshot.Entry entry = entryLocked(key);
+            if (entry != null) entries.add(entry);
+        }
+        view = new View(base, new SuggestionSnapshot(entries), hidden);
+    }
+
+    private void mergeLocked() {
+        authorNames.keySet()
+                   .retainAll(authorBooks.keySet());
+        List<SuggestionSnapshot.Entry> entries = new ArrayList<>(bookTitles.size() + authorNames.size());
+        for (Long bookId : bookTitles.keySet()) {
+            entries.add(entryLocked(new Key(SuggestionSnapshot.Type.BOOK, bookId)));
+        }
+        for (Long authorId : authorNames.keySet()) {
+            entries.add(entryLocked(new Key(SuggestionSnapshot.Type.AUTHOR, authorId)));
+        }
+        view = new View(new SuggestionSnapshot(entries), new SuggestionSnapshot(List.of()), new BitSet());
+        overlayKeys.clear();
+        pending.clear();
+    }
+
+    // hidden holds base entries superseded by the overlay; it is never modified once published
+    private record View(SuggestionSnapshot base, SuggestionSnapshot overlay, BitSet hidden) {
+    }
+
+    private record Key(SuggestionSnapshot.Type type, Long id) {
+    }
+
+    public record Suggestion(String text, String type, Long id) {
+    }
+}
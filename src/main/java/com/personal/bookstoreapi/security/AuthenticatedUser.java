@@ -0,0 +1,46 @@
+package com.personal.bookstoreapi.security;
+
+import com.personal.bookstoreapi.domain.enums.UserRole;
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * The caller as described by a verified access token, so identifying them needs no query.
+ * {@link #getName()} is the email, which keeps {@code Authentication.getName()} unchanged.
+ */
+public record AuthenticatedUser(
+        Long id,
+        String email,
+        String fullName,
+        int tokenVersion,
+        UserRole role
+) implements Principal {
+
+    /**
+     * @return the principal, or null when the token lacks the {@code uid} or {@code sub} claim
+     */
+    public static AuthenticatedUser from(Claims claims) {
+        Long id = claims.get("uid", Long.class);
+        String email = claims.getSubject();
+        if (id == null || email == null) return null;
+        Integer version = claims.get("ver", Integer.class);
+        String role = claims.get("role", String.class);
+        // tokens issued before versioning carry no "ver" and count as version 0, and no "role" as customers
+        return new AuthenticatedUser(id, email, claims.get("name", String.class), version == null ? 0 : version,
+                                     role == null ? UserRole.CUSTOMER : UserRole.valueOf(role));
+    }
+
+    /** The role as a Spring Security authority, e.g. {@code ROLE_PARTNER}. */
+    public List<GrantedAuthority> authorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
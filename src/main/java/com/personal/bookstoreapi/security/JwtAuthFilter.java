@@ -1,30 +1,30 @@
 package com.personal.bookstoreapi.security;
 
-import com.personal.bookstoreapi.domain.entity.User;
-import com.personal.bookstoreapi.repository.UserRepository;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
 
+@Slf4j
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserRepository userRepository;
+    private final TokenVersionCache tokenVersions;
 
-    public JwtAuthFilter(JwtService jwtService, UserRepository userRepository) {
+    public JwtAuthFilter(JwtService jwtService, TokenVersionCache tokenVersions) {
         this.jwtService = jwtService;
-        this.userRepository = userRepository;
+        this.tokenVersions = tokenVersions;
     }
 
     @Override
@@ -36,9 +36,6 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         String header = request.getHeader("Authorization");
 
-        System.out.println("AUTH HEADER = " + request.getHeader("Authorization"));
-        System.out.println("PATH = " + request.getRequestURI());
-
         if (header == null || !header.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
             return;
@@ -48,31 +45,29 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         try {
             Claims claims = jwtService.parseClaims(token);
-            String email = claims.getSubject();
-
-            if (email != null && SecurityContextHolder.getContext()
-                                                      .getAuthentication() == null) {
+            // the principal comes from the verified claims; only the version check may query
+            AuthenticatedUser principal = AuthenticatedUser.from(claims);
 
-                User user = userRepository.findByEmail(email)
-                                          .orElse(null);
+            if (principal != null && SecurityContextHolder.getContext()
+                                                          .getAuthentication() == null
+                    && tokenVersions.isCurrent(principal.id(), principal.tokenVersion())) {
 
-                if (user != null) {
-                    var auth = new UsernamePasswordAuthenticationToken(
-                            user.getEmail(),
-                            null,
-                            Collections.emptyList()
-                    );
+                var auth = new UsernamePasswordAuthenticationToken(
+                        principal,
+                        null,
+                        principal.authorities()
+                );
 
-                    auth.setDetails(new org.springframework.security.web.authentication.WebAuthenticationDetailsSource()
-                            .buildDetails(request));
+                auth.setDetails(new org.springframework.security.web.authentication.WebAuthenticationDetailsSource()
+                        .buildDetails(request));
 
-                    SecurityContextHolder.getContext()
-                                         .setAuthentication(auth);
-                }
+                SecurityContextHolder.getContext()
+                                     .setAuthentication(auth);
             }
-        } catch (Exception e) {
-            System.out.println("JWT ERROR: " + e.getClass()
-                                                .getSimpleName() + " - " + e.getMessage());
+        } catch (JwtException | IllegalArgumentException e) {
+            // an invalid token leaves the request anonymous; protected endpoints then answer 401
+            log.debug("Rejected JWT: {} - {}", e.getClass()
+                                                .getSimpleName(), e.getMessage());
         }
 
         filterChain.doFilter(request, response);
@@ -1,29 +1,93 @@
 package com.personal.bookstoreapi.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.personal.bookstoreapi.domain.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.ProtectedHeader;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+/**
+ * Issues and verifies access tokens. Keys and the parser are built once. Tokens are signed
+ * with {@code jwt.secret} and carry {@code jwt.key-id} as {@code kid}; tokens signed with a
+ * retired key stay valid while that key is listed in {@code jwt.retired-keys}
+ * ({@code kid=secret,kid=secret}). Tokens without a {@code kid} are checked against the
+ * current key.
+ * <p>
+ * Verified claims are cached per token for {@code jwt.claims-cache.ttl} (never past the token's
+ * own expiry), so repeat requests with the same token skip HMAC verification and JSON parsing;
+ * a zero TTL disables the cache.
+ * A retired key that is removed from configuration therefore stops working on restart.
+ */
 @Component
 public class JwtService {
 
-    private final String secret;
     private final long accessMinutes;
+    private final String signingKeyId;
+    private final SecretKey signingKey;
+    private final Map<String, SecretKey> verificationKeys;
+    private final JwtParser parser;
+    private final Cache<String, Claims> verified;
 
     public JwtService(
             @Value("${jwt.secret}") String secret,
-            @Value("${jwt.access-token-minutes}") long accessMinutes
+            @Value("${jwt.access-token-minutes}") long accessMinutes,
+            @Value("${jwt.key-id:primary}") String keyId,
+            @Value("${jwt.retired-keys:}") String retiredKeys,
+            @Value("${jwt.claims-cache.ttl:PT1M}") Duration claimsTtl,
+            @Value("${jwt.claims-cache.maximum-size:10000}") long claimsMaximumSize
     ) {
-        this.secret = secret;
         this.accessMinutes = accessMinutes;
+        this.signingKeyId = keyId;
+        this.signingKey = hmacKey(secret);
+        this.verificationKeys = parseKeys(keyId, signingKey, retiredKeys);
+        this.parser = Jwts.parser()
+                          .keyLocator(new LocatorAdapter<Key>() {
+                              @Override
+                              protected Key locate(ProtectedHeader header) {
+                                  String kid = header.getKeyId();
+                                  return kid == null ? signingKey : verificationKeys.get(kid);
+                              }
+                          })
+                          .build();
+        // a zero TTL or size turns the cache off
+        this.verified = claimsTtl.isZero() || claimsMaximumSize == 0 ? null : Caffeine.newBuilder()
+                                .maximumSize(claimsMaximumSize)
+                                .expireAfter(new Expiry<String, Claims>() {
+                                    @Override
+                                    public long expireAfterCreate(String token, Claims claims, long currentTime) {
+                                        long untilExpiry = claims.getExpiration()
+                                                                 .getTime() - System.currentTimeMillis();
+                                        return Duration.ofMillis(Math.max(0, Math.min(untilExpiry, claimsTtl.toMillis())))
+                                                       .toNanos();
+                                    }
+
+                                    @Override
+                                    public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+                                        return currentDuration;
+                                    }
+
+                                    @Override
+                                    public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+                                        return currentDuration;
+                                    }
+                                })
+                                .build();
     }
 
     public String generateAccessToken(User user) {
@@ -35,20 +99,58 @@ public class JwtService {
         Instant exp = now.plus(ttl);
 
         return Jwts.builder()
+                   .header()
+                   .keyId(signingKeyId)
+                   .and()
                    .subject(user.getEmail())
                    .claim("uid", user.getId())
                    .claim("name", user.getFullName())
+                   .claim("ver", user.getTokenVersion())
+                   .claim("role", user.getRole()
+                                      .name())
                    .issuedAt(Date.from(now))
                    .expiration(Date.from(exp))
-                   .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                   .signWith(signingKey)
                    .compact();
     }
 
+    /**
+     * @throws io.jsonwebtoken.JwtException when the token is malformed, expired, signed with an
+     *                                      unknown key or fails verification
+     */
     public Claims parseClaims(String token) {
-        return Jwts.parser()
-                   .verifyWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
-                   .build()
-                   .parseSignedClaims(token)
-                   .getPayload();
+        Claims cached = verified == null ? null : verified.getIfPresent(token);
+        // the entry expires with the token, but eviction is lazy; never hand out expired claims
+        if (cached != null && cached.getExpiration()
+                                    .after(new Date())) {
+            return cached;
+        }
+
+        Claims claims = parser.parseSignedClaims(token)
+                              .getPayload();
+        if (verified != null && claims.getExpiration() != null) {
+            verified.put(token, claims);
+        }
+        return claims;
+    }
+
+    private static Map<String, SecretKey> parseKeys(String keyId, SecretKey signingKey, String retiredKeys) {
+        Map<String, SecretKey> keys = new LinkedHashMap<>();
+        keys.put(keyId, signingKey);
+        for (String entry : retiredKeys.split(",")) {
+            if (entry.isBlank()) continue;
+            int eq = entry.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalStateException("jwt.retired-keys entries must look like kid=secret");
+            }
+            keys.putIfAbsent(entry.substring(0, eq)
+                                  .trim(), hmacKey(entry.substring(eq + 1)
+                                                        .trim()));
+        }
+        return Map.copyOf(keys);
+    }
+
+    private static SecretKey hmacKey(String secret) {
+        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
     }
 }
@@ -0,0 +1,160 @@
+package com.personal.bookstoreapi.security;
+
+import com.personal.bookstoreapi.exception.ServiceUnavailableException;
+import com.personal.bookstoreapi.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntToLongFunction;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing on its own small pool so a login burst can use at most
+ * {@code security.hashing.threads} cores instead of every request thread. At most
+ * {@code security.hashing.queue-capacity} hashes wait; beyond that callers get 429 at once, and
+ * a caller whose hash has not finished within {@code security.hashing.timeout} gets 503.
+ * Metrics: {@code security.hashing.queued} and {@code security.hashing.rejected}.
+ */
+@Slf4j
+@Component
+public class PasswordHasher {
+
+    static final int MIN_STRENGTH = 10;
+    static final int MAX_STRENGTH = 16;
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final Counter rejected;
+
+    public PasswordHasher(
+            PasswordEncoder passwordEncoder,
+            MeterRegistry meterRegistry,
+            @Value("${security.hashing.threads:0}") int threads,
+            @Value("${security.hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${security.hashing.timeout:PT5S}") Duration timeout
+    ) {
+        this.passwordEncoder = passwordEncoder;
+        // half the cores by default, leaving the rest for catalog and order traffic
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime()
+                                                                  .availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                                               new ArrayBlockingQueue<>(queueCapacity),
+                                               runnable -> {
+                                                   Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                                                   thread.setDaemon(true);
+                                                   return thread;
+                                               },
+                                               new ThreadPoolExecutor.AbortPolicy());
+        this.timeout = timeout;
+        this.rejected = Counter.builder("security.hashing.rejected")
+                               .description("Password hashes refused because the hashing queue was full")
+                               .register(meterRegistry);
+        Gauge.builder("security.hashing.queued", executor, e -> e.getQueue()
+                                                                 .size())
+             .description("Password hashes waiting for a hashing thread")
+             .register(meterRegistry);
+    }
+
+    public String hash(String rawPassword) {
+        return await(submit(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    public boolean matches(String rawPassword, String hash) {
+        return await(submit(() -> passwordEncoder.matches(rawPassword, hash)));
+    }
+
+    /** Whether {@code hash} was made with a lower cost than the one now configured. */
+    public boolean needsRehash(String hash) {
+        return passwordEncoder.upgradeEncoding(hash);
+    }
+
+    /**
+     * Hashes in the background for an opportunistic rehash; completes exceptionally when the
+     * pool is saturated, in which case the caller simply tries again on a later login.
+     */
+    public CompletableFuture<String> hashInBackground(String rawPassword) {
+        try {
+            return CompletableFuture.supplyAsync(() -> passwordEncoder.encode(rawPassword), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private <T> Future<T> submit(Supplier<T> task) {
+        try {
+            return executor.submit(task::get);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new TooManyRequestsException("Too many sign-in attempts in progress, retry shortly");
+        }
+    }
+
+    private <T> T await(Future<T> result) {
+        try {
+            return result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(false);
+            throw new ServiceUnavailableException("Password check timed out, retry shortly");
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            throw new ServiceUnavailableException("Password check interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The highest BCrypt cost between {@value #MIN_STRENGTH} and {@value #MAX_STRENGTH} whose
+     * hash takes no longer than {@code target} here. Each extra cost step doubles the work, so
+     * one measurement at the minimum is enough to extrapolate.
+     */
+    public static int calibrate(Duration target) {
+        int strength = calibrate(target, cost -> {
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < 3; i++) {
+                long started = System.nanoTime();
+                BCrypt.hashpw("calibration", BCrypt.gensalt(cost));
+                best = Math.min(best, System.nanoTime() - started);
+            }
+            return best;
+        });
+        log.info("BCrypt cost {} selected for a {} ms target", strength, target.toMillis());
+        return strength;
+    }
+
+    static int calibrate(Duration target, IntToLongFunction nanosAtCost) {
+        long nanos = nanosAtCost.applyAsLong(MIN_STRENGTH);
+        int strength = MIN_STRENGTH;
+        while (strength < MAX_STRENGTH && nanos * 2 <= target.toNanos()) {
+            nanos *= 2;
+            strength++;
+        }
+        return strength;
+    }
+}
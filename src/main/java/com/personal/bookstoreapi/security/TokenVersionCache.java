@@ -0,0 +1,62 @@
+package com.personal.bookstoreapi.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.personal.bookstoreapi.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Current {@code users.token_version} per user, held in a bounded cache for
+ * {@code security.token-versions.ttl} so the revocation check costs one query per user per
+ * TTL instead of one per request. A revocation is seen at once on this instance and within
+ * the TTL on others.
+ */
+@Component
+public class TokenVersionCache {
+
+    // cached for users that no longer exist, so all their tokens fail
+    private static final int DELETED = Integer.MAX_VALUE;
+
+    private final UserRepository userRepository;
+    private final Cache<Long, Integer> versions;
+
+    public TokenVersionCache(
+            UserRepository userRepository,
+            @Value("${security.token-versions.ttl:PT30S}") Duration ttl,
+            @Value("${security.token-versions.maximum-size:10000}") long maximumSize
+    ) {
+        this.userRepository = userRepository;
+        this.versions = Caffeine.newBuilder()
+                                .maximumSize(maximumSize)
+                                .expireAfterWrite(ttl)
+                                .build();
+    }
+
+    /** Whether a token issued at {@code tokenVersion} is still valid for the user. */
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        int current = versions.get(userId, id -> userRepository.findTokenVersionById(id)
+                                                               .orElse(DELETED));
+        return tokenVersion >= current;
+    }
+
+    /** Invalidates every token issued to the user so far. */
+    @Transactional
+    public void revoke(Long userId) {
+        userRepository.incrementTokenVersion(userId, Instant.now());
+        versions.invalidate(userId);
+        // a concurrent check may have reloaded the old version before commit
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                versions.invalidate(userId);
+            }
+        });
+    }
+}
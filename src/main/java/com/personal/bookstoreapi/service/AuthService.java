@@ -9,18 +9,19 @@ import com.personal.bookstoreapi.exception.ConflictException;
 import com.personal.bookstoreapi.exception.UnauthorizedException;
 import com.personal.bookstoreapi.repository.UserRepository;
 import com.personal.bookstoreapi.security.JwtService;
+import com.personal.bookstoreapi.security.PasswordHasher;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 
+@Slf4j
 @Service
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtService jwtService;
 
     private final int minPass;
@@ -28,19 +29,20 @@ public class AuthService {
 
     public AuthService(
             UserRepository userRepository,
-            PasswordEncoder passwordEncoder,
+            PasswordHasher passwordHasher,
             JwtService jwtService,
             @Value("${security.password.min-length}") int minPass,
             @Value("${security.password.max-length}") int maxPass
     ) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.jwtService = jwtService;
         this.minPass = minPass;
         this.maxPass = maxPass;
     }
 
-    @Transactional
+    // Not one transaction: hashing can wait on the hashing queue and must not hold a connection.
+    // The unique email constraint still rejects a concurrent duplicate at save time.
     public RegisterResponseDTO register(RegisterRequestDTO registerRequestDTO) {
         String email = normalizeEmail(registerRequestDTO.email());
 
@@ -56,7 +58,7 @@ public class AuthService {
 
         User user = User.builder()
                         .email(email)
-                        .passwordHash(passwordEncoder.encode(registerRequestDTO.password()))
+                        .passwordHash(passwordHasher.hash(registerRequestDTO.password()))
                         .fullName(registerRequestDTO.fullName()
                                      .trim())
                         .createdAt(Instant.now())
@@ -76,15 +78,33 @@ public class AuthService {
         User user = userRepository.findByEmail(email)
                                   .orElseThrow(() -> new UnauthorizedException("Invalid credentials"));
 
-        if (!passwordEncoder.matches(loginRequestDTO.password(), user.getPasswordHash())) {
+        if (!passwordHasher.matches(loginRequestDTO.password(), user.getPasswordHash())) {
             throw new IllegalArgumentException("Invalid credentials");
         }
+        if (passwordHasher.needsRehash(user.getPasswordHash())) {
+            rehash(user, loginRequestDTO.password());
+        }
 
         String access = jwtService.generateAccessToken(user);
 
         return new LoginResponseDTO(access);
     }
 
+    /**
+     * Upgrades a hash made at a lower cost than the configured one, off the login's critical
+     * path. Skipped when the hashing pool is busy; the next login tries again.
+     */
+    private void rehash(User user, String rawPassword) {
+        Long userId = user.getId();
+        String oldHash = user.getPasswordHash();
+        passwordHasher.hashInBackground(rawPassword)
+                      .thenAccept(newHash -> userRepository.replacePasswordHash(userId, oldHash, newHash, Instant.now()))
+                      .exceptionally(e -> {
+                          log.debug("Password rehash for user {} skipped: {}", userId, e.getMessage());
+                          return null;
+                      });
+    }
+
     private void validatePassword(String password) {
         if (password == null) throw new IllegalArgumentException("Password is required");
         int len = password.length();
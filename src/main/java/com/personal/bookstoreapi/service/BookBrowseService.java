@@ -0,0 +1,98 @@
+package com.personal.bookstoreapi.service;
+
+import com.personal.bookstoreapi.domain.enums.BookItemType;
+import com.personal.bookstoreapi.dto.request.BookFacetFilterDTO;
+import com.personal.bookstoreapi.dto.response.BookFacetsDTO;
+import com.personal.bookstoreapi.dto.response.BookListDTO;
+import com.personal.bookstoreapi.dto.response.FacetCountDTO;
+import com.personal.bookstoreapi.dto.response.FacetedBookPageDTO;
+import com.personal.bookstoreapi.exception.BadRequestException;
+import com.personal.bookstoreapi.search.BookFacetIndex;
+import com.personal.bookstoreapi.search.FacetIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class BookBrowseService {
+
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
+    private final BookFacetIndex facetIndex;
+    private final CatalogService catalogService;
+
+    public FacetedBookPageDTO browse(BookFacetFilterDTO filter, String cursor, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Long afterId = CursorCodec.decodeId(cursor);
+        // a well-formed cursor can still carry an id the facet index cannot hold
+        if (afterId != null && (afterId < 0 || afterId > FacetIndex.MAX_KEY)) {
+            throw new BadRequestException("Invalid cursor");
+        }
+
+        // one extra key tells us whether another page exists
+        FacetIndex.Result result = facetIndex.query(toFilters(filter), afterId, pageSize + 1);
+
+        boolean hasNext = result.keys()
+                                .size() > pageSize;
+        List<Long> ids = hasNext ? result.keys()
+                                         .subList(0, pageSize) : result.keys();
+        List<BookListDTO> items = catalogService.getBooksByIds(ids);
+
+        String nextCursor = hasNext ? CursorCodec.encodeId(ids.get(ids.size() - 1)) : null;
+
+        BookFacetsDTO facets = new BookFacetsDTO(
+                counts(result, BookFacetIndex.LANGUAGE),
+                counts(result, BookFacetIndex.DECADE),
+                counts(result, BookFacetIndex.ITEM_TYPE),
+                counts(result, BookFacetIndex.RENTABLE)
+        );
+        return new FacetedBookPageDTO(items, items.size(), hasNext, nextCursor, result.total(), facets);
+    }
+
+    private static Map<String, String> toFilters(BookFacetFilterDTO filter) {
+        Map<String, String> filters = new HashMap<>();
+        if (filter.language() != null && !filter.language()
+                                                .isBlank()) {
+            filters.put(BookFacetIndex.LANGUAGE, filter.language());
+        }
+        if (filter.decade() != null) {
+            if (filter.decade() % 10 != 0) {
+                throw new BadRequestException("decade must be the first year of a decade, e.g. 1990");
+            }
+            filters.put(BookFacetIndex.DECADE, BookFacetIndex.decadeOf(filter.decade()));
+        }
+        if (filter.itemType() != null && !filter.itemType()
+                                                .isBlank()) {
+            filters.put(BookFacetIndex.ITEM_TYPE, parseItemType(filter.itemType()).name());
+        }
+        if (filter.rentable() != null) {
+            filters.put(BookFacetIndex.RENTABLE, filter.rentable()
+                                                       .toString());
+        }
+        return filters;
+    }
+
+    private static BookItemType parseItemType(String value) {
+        try {
+            return BookItemType.valueOf(value.trim()
+                                             .toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Unknown itemType: " + value);
+        }
+    }
+
+    private static List<FacetCountDTO> counts(FacetIndex.Result result, String facet) {
+        return result.counts()
+                     .getOrDefault(facet, Map.of())
+                     .entrySet()
+                     .stream()
+                     .map(e -> new FacetCountDTO(e.getKey(), e.getValue()))
+                     .toList();
+    }
+}
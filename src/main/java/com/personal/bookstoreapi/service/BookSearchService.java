@@ -0,0 +1,86 @@
+package com.personal.bookstoreapi.service;
+
+import com.personal.bookstoreapi.dto.response.BookListDTO;
+import com.personal.bookstoreapi.dto.response.BookSearchHitDTO;
+import com.personal.bookstoreapi.dto.response.BookSearchResultDTO;
+import com.personal.bookstoreapi.dto.response.SuggestionDTO;
+import com.personal.bookstoreapi.exception.BadRequestException;
+import com.personal.bookstoreapi.search.BookSearchIndex;
+import com.personal.bookstoreapi.search.InvertedIndex;
+import com.personal.bookstoreapi.search.TypeaheadIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class BookSearchService {
+
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+    // ranked results are paged by offset; deep pages cost a bigger top-k heap, so cap the window
+    static final int MAX_RESULT_WINDOW = 1_000;
+    static final int DEFAULT_SUGGESTION_LIMIT = 10;
+    static final int MAX_SUGGESTION_LIMIT = 20;
+
+    private final BookSearchIndex searchIndex;
+    private final TypeaheadIndex typeaheadIndex;
+    private final CatalogService catalogService;
+
+    public BookSearchResultDTO search(String query, int page, Integer size) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("Query is required");
+        }
+        if (page < 0) {
+            throw new BadRequestException("page must not be negative");
+        }
+
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int offset = page * pageSize;
+        if (offset + pageSize > MAX_RESULT_WINDOW) {
+            throw new BadRequestException("Result window is too large, refine the query");
+        }
+
+        InvertedIndex.SearchHits result = searchIndex.search(query, offset + pageSize);
+        List<InvertedIndex.Hit> pageHits = result.hits()
+                                                 .size() > offset
+                ? result.hits()
+                        .subList(offset, result.hits()
+                                               .size())
+                : List.of();
+
+        List<Long> ids = pageHits.stream()
+                                 .map(InvertedIndex.Hit::key)
+                                 .toList();
+        Map<Long, BookListDTO> books = catalogService.getBooksByIds(ids)
+                                                     .stream()
+                                                     .collect(Collectors.toMap(BookListDTO::id, Function.identity()));
+
+        List<BookSearchHitDTO> hits = new ArrayList<>(pageHits.size());
+        for (InvertedIndex.Hit hit : pageHits) {
+            BookListDTO book = books.get(hit.key());
+            if (book != null) {
+                hits.add(new BookSearchHitDTO(book, hit.score()));
+            }
+        }
+
+        return new BookSearchResultDTO(query, hits, page, pageSize, result.total());
+    }
+
+    public List<SuggestionDTO> suggest(String prefix, Integer limit) {
+        if (prefix == null || prefix.isBlank()) {
+            throw new BadRequestException("Prefix is required");
+        }
+
+        int max = limit == null ? DEFAULT_SUGGESTION_LIMIT : Math.max(1, Math.min(limit, MAX_SUGGESTION_LIMIT));
+        return typeaheadIndex.suggest(prefix, max)
+                             .stream()
+                             .map(suggestion -> new SuggestionDTO(suggestion.text(), suggestion.type(), suggestion.id()))
+                             .toList();
+    }
+}
@@ -0,0 +1,106 @@
+package com.personal.bookstoreapi.service;
+
+import com.personal.bookstoreapi.config.CacheConfig;
+import com.personal.bookstoreapi.dto.response.AuthorResponseDTO;
+import com.personal.bookstoreapi.events.AuthorChangedEvent;
+import com.personal.bookstoreapi.events.BookChangedEvent;
+import com.personal.bookstoreapi.events.BookItemChangedEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Programmatic access to the catalog caches: bulk author lookups for list pages
+ * (which {@code @Cacheable} cannot express) and the invalidation hooks used when
+ * books or book items change. Entity changes are evicted after commit, so readers never
+ * re-cache uncommitted state.
+ */
+@Component
+public class CatalogCache {
+
+    private final Cache bookDetails;
+    private final Cache bookItems;
+    private final Cache bookAuthors;
+
+    public CatalogCache(CacheManager cacheManager) {
+        this.bookDetails = Objects.requireNonNull(cacheManager.getCache(CacheConfig.BOOK_DETAILS));
+        this.bookItems = Objects.requireNonNull(cacheManager.getCache(CacheConfig.BOOK_ITEMS));
+        this.bookAuthors = Objects.requireNonNull(cacheManager.getCache(CacheConfig.BOOK_AUTHORS));
+    }
+
+    /**
+     * Returns the authors of every requested book, calling {@code loader} once with only the ids
+     * that were not cached. Books the loader returns nothing for are cached as having no authors.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<Long, Set<AuthorResponseDTO>> getAuthors(
+            List<Long> bookIds,
+            Function<List<Long>, Map<Long, Set<AuthorResponseDTO>>> loader
+    ) {
+        Map<Long, Set<AuthorResponseDTO>> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+
+        for (Long bookId : bookIds) {
+            Cache.ValueWrapper cached = bookAuthors.get(bookId);
+            if (cached != null) {
+                result.put(bookId, (Set<AuthorResponseDTO>) cached.get());
+            } else {
+                missing.add(bookId);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<Long, Set<AuthorResponseDTO>> loaded = loader.apply(missing);
+            for (Long bookId : missing) {
+                Set<AuthorResponseDTO> authors = loaded.getOrDefault(bookId, Set.of());
+                bookAuthors.put(bookId, authors);
+                result.put(bookId, authors);
+            }
+        }
+
+        return result;
+    }
+
+    public void evictBook(Long bookId) {
+        bookDetails.evict(bookId);
+        bookItems.evict(bookId);
+        bookAuthors.evict(bookId);
+    }
+
+    public void evictBookItems(Long bookId) {
+        bookItems.evict(bookId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        evictBook(event.getBookId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookItemChanged(BookItemChangedEvent event) {
+        evictBookItems(event.getBookId());
+    }
+
+    // Which books show the author is not known here, and renames are rare: drop every entry
+    // that carries author names.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorChanged(AuthorChangedEvent event) {
+        bookDetails.clear();
+        bookAuthors.clear();
+    }
+
+    public void evictAll() {
+        bookDetails.clear();
+        bookItems.clear();
+        bookAuthors.clear();
+    }
+}
@@ -0,0 +1,53 @@
+package com.personal.bookstoreapi.service;
+
+import com.personal.bookstoreapi.domain.entity.Author;
+import com.personal.bookstoreapi.domain.entity.Book;
+import com.personal.bookstoreapi.domain.entity.BookItem;
+import com.personal.bookstoreapi.events.AuthorChangedEvent;
+import com.personal.bookstoreapi.events.BookChangedEvent;
+import com.personal.bookstoreapi.events.BookItemChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener on {@link Book}, {@link BookItem} and {@link Author}. Turns entity writes
+ * into {@link BookChangedEvent}/{@link BookItemChangedEvent}/{@link AuthorChangedEvent}; consumers (catalog cache, search
+ * index, ...) use {@code @TransactionalEventListener} so they only react after commit.
+ * Instantiated by Hibernate through Spring's bean container.
+ */
+public class CatalogChangePublisher {
+
+    private final ApplicationEventPublisher publisher;
+
+    public CatalogChangePublisher(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @PostPersist
+    void onPersist(Object entity) {
+        onChange(entity, BookItemChangedEvent.Change.ADDED);
+    }
+
+    @PostUpdate
+    void onUpdate(Object entity) {
+        onChange(entity, BookItemChangedEvent.Change.UPDATED);
+    }
+
+    @PostRemove
+    void onRemove(Object entity) {
+        onChange(entity, BookItemChangedEvent.Change.REMOVED);
+    }
+
+    private void onChange(Object entity, BookItemChangedEvent.Change change) {
+        if (entity instanceof Book book) {
+            publisher.publishEvent(new BookChangedEvent(book.getId()));
+        } else if (entity instanceof Author author) {
+            publisher.publishEvent(new AuthorChangedEvent(author.getId()));
+        } else if (entity instanceof BookItem item && item.getBook() != null) {
+            publisher.publishEvent(new BookItemChangedEvent(item.getBook()
+                                                                .getId(), item.getId(), change, item.isAvailableForRent()));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.personal.bookstoreapi.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/**
+ * A cached catalog representation together with its validators, so a conditional GET is
+ * answered from the same cache entry as the body. The ETag is a digest of the body and so
+ * changes exactly when the representation does (including author renames, which leave the
+ * book row alone). No Last-Modified is sent: the load time would change on every reload while
+ * the ETag stays the same, and clients revalidate with If-None-Match.
+ */
+public record CatalogEntry<T>(T body, CatalogVersion version) {
+
+    static <T> CatalogEntry<T> of(String prefix, T body) {
+        return new CatalogEntry<>(body, new CatalogVersion(prefix + "-" + digest(body), null));
+    }
+
+    // DTOs are records, whose toString covers every component
+    private static String digest(Object body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                                       .digest(String.valueOf(body)
+                                                     .getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of()
+                            .formatHex(Arrays.copyOf(hash, 8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.personal.bookstoreapi.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.personal.bookstoreapi.dto.response.AuthorResponseDTO;
+import com.personal.bookstoreapi.dto.response.BookExportDTO;
+import com.personal.bookstoreapi.dto.response.BookItemDTO;
+import com.personal.bookstoreapi.exception.TooManyRequestsException;
+import com.personal.bookstoreapi.mapper.CatalogMapper;
+import com.personal.bookstoreapi.repository.BookItemRepository;
+import com.personal.bookstoreapi.repository.BookRepository;
+import com.personal.bookstoreapi.repository.projection.BookAuthorRow;
+import com.personal.bookstoreapi.repository.projection.BookExportRow;
+import com.personal.bookstoreapi.repository.projection.BookItemRow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+/**
+ * Writes the whole catalog as NDJSON, one book per line with its authors and items. Books are
+ * read in keyset pages of {@link #CHUNK_SIZE}; authors and items are loaded per page with one
+ * IN query each, so memory stays bounded by the chunk size whatever the catalog size. All pages
+ * are read in one read-only transaction, which on InnoDB sees a single consistent snapshot.
+ * <p>
+ * Each export holds a connection for its whole duration, so at most
+ * {@code catalog.export.max-concurrent} run at once; further callers get 429.
+ * Metric: {@code catalog.export.rejected}.
+ */
+@Service
+public class CatalogExportService {
+
+    static final int CHUNK_SIZE = 500;
+
+    private final BookRepository bookRepository;
+    private final BookItemRepository bookItemRepository;
+    private final CatalogMapper mapper;
+    private final ObjectMapper objectMapper;
+    private final Semaphore running;
+    private final Counter rejected;
+
+    public CatalogExportService(BookRepository bookRepository,
+                                BookItemRepository bookItemRepository,
+                                CatalogMapper mapper,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${catalog.export.max-concurrent:2}") int maxConcurrent) {
+        this.bookRepository = bookRepository;
+        this.bookItemRepository = bookItemRepository;
+        this.mapper = mapper;
+        this.objectMapper = objectMapper;
+        this.running = new Semaphore(maxConcurrent);
+        this.rejected = Counter.builder("catalog.export.rejected")
+                               .description("Catalog exports refused because the concurrent export limit was reached")
+                               .register(meterRegistry);
+    }
+
+    /**
+     * Reserves an export slot before the response is committed; the caller must
+     * {@link #release()} it once the stream has ended.
+     */
+    public void acquire() {
+        if (!running.tryAcquire()) {
+            rejected.increment();
+            throw new TooManyRequestsException("Too many catalog exports in progress, retry later");
+        }
+    }
+
+    public void release() {
+        running.release();
+    }
+
+    /**
+     * Streams every book to {@code out}; the stream is flushed after each chunk and left open.
+     *
+     * @return number of books written
+     */
+    @Transactional(readOnly = true)
+    public long export(OutputStream out) throws IOException {
+        // flush per chunk, not per line
+        ObjectWriter writer = objectMapper.writerFor(BookExportDTO.class)
+                                          .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long written = 0;
+        try (JsonGenerator json = objectMapper.getFactory()
+                                              .createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null);
+
+            Pageable page = PageRequest.of(0, CHUNK_SIZE);
+            Long afterId = null;
+            List<BookExportRow> chunk;
+            do {
+                chunk = bookRepository.findExportRowsAfter(afterId, page);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                writeChunk(writer, json, chunk);
+                written += chunk.size();
+                afterId = chunk.get(chunk.size() - 1)
+                               .id();
+            } while (chunk.size() == CHUNK_SIZE);
+        }
+        return written;
+    }
+
+    private void writeChunk(ObjectWriter writer, JsonGenerator json, List<BookExportRow> chunk) throws IOException {
+        List<Long> ids = chunk.stream()
+                              .map(BookExportRow::id)
+                              .toList();
+
+        Map<Long, Set<AuthorResponseDTO>> authors = bookRepository.findAuthorRowsByBookIds(ids)
+                                                                  .stream()
+                                                                  .collect(Collectors.groupingBy(
+                                                                          BookAuthorRow::bookId,
+                                                                          Collectors.mapping(r -> new AuthorResponseDTO(r.authorId(), r.authorName()),
+                                                                                             Collectors.toSet())
+                                                                  ));
+        Map<Long, List<BookItemDTO>> items = bookItemRepository.findRowsByBookIds(ids)
+                                                               .stream()
+                                                               .collect(Collectors.groupingBy(
+                                                                       BookItemRow::bookId,
+                                                                       Collectors.mapping(mapper::toBookItemDTO, Collectors.toList())
+                                                               ));
+
+        for (BookExportRow row : chunk) {
+            writer.writeValue(json, mapper.toBookExportDTO(row, authors.get(row.id()), items.get(row.id())));
+            json.writeRaw('\n');
+        }
+        json.flush();
+    }
+}
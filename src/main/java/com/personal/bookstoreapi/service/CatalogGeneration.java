@@ -0,0 +1,72 @@
+package com.personal.bookstoreapi.service;
+
+import com.personal.bookstoreapi.events.AuthorChangedEvent;
+import com.personal.bookstoreapi.events.BookChangedEvent;
+import com.personal.bookstoreapi.events.BookItemChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory version of the book listing, bumped after every committed book, author or item
+ * change (stock-only item changes excepted: the listing shows no stock). Listing ETags are
+ * built from it, so validating a GET /api/books costs no query.
+ * <p>
+ * The counter is per instance, like the catalog caches. ETags carry a random tag per
+ * application start, so they never match on another instance or after a restart, and they
+ * roll over every {@code catalog.cache.ttl}, which bounds how long a change committed on
+ * another instance can go unnoticed to the same time the caches allow.
+ */
+@Component
+public class CatalogGeneration {
+
+    private final String instanceTag = Long.toString(ThreadLocalRandom.current()
+                                                                      .nextLong() >>> 1, 36);
+    private final AtomicLong generation = new AtomicLong();
+    private final long windowMillis;
+    private volatile long changedAtMillis = System.currentTimeMillis();
+
+    public CatalogGeneration(@Value("${catalog.cache.ttl}") Duration window) {
+        this.windowMillis = Math.max(1, window.toMillis());
+    }
+
+    /**
+     * Validators for one listing request; {@code query} identifies the filters and page. Must be
+     * read before the page is loaded, so a concurrent change can only make the ETag older than
+     * the body, never newer.
+     */
+    public CatalogVersion listingVersion(String query) {
+        long now = System.currentTimeMillis();
+        long windowStart = now - now % windowMillis;
+        String etag = "c-" + instanceTag + "-" + generation.get() + "-" + now / windowMillis
+                + "-" + Integer.toHexString(query.hashCode());
+        return new CatalogVersion(etag, Instant.ofEpochMilli(Math.max(changedAtMillis, windowStart)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        bump();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorChanged(AuthorChangedEvent event) {
+        bump();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookItemChanged(BookItemChangedEvent event) {
+        if (event.getChange() != BookItemChangedEvent.Change.STOCK) {
+            bump();
+        }
+    }
+
+    private void bump() {
+        changedAtMillis = System.currentTimeMillis();
+        generation.incrementAndGet();
+    }
+}
@@ -0,0 +1,54 @@
+package com.personal.bookstoreapi.service;
+
+import com.personal.bookstoreapi.config.CacheConfig;
+import com.personal.bookstoreapi.dto.response.BookDetailsDTO;
+import com.personal.bookstoreapi.dto.response.BookItemDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Sits between the catalog caches and the database: when a hot entry expires, concurrent
+ * misses for the same book share one query instead of stampeding MySQL.
+ * Metrics: {@code catalog.load.coalesced} (waiters that piggybacked on another load) and
+ * {@code catalog.load.in-flight}, both tagged with the cache name.
+ */
+@Component
+public class CatalogLoadCoalescer {
+
+    private final SingleFlight<Long, CatalogEntry<BookDetailsDTO>> bookDetails;
+    private final SingleFlight<Long, CatalogEntry<List<BookItemDTO>>> bookItems;
+
+    public CatalogLoadCoalescer(MeterRegistry meterRegistry) {
+        this.bookDetails = singleFlight(meterRegistry, CacheConfig.BOOK_DETAILS);
+        this.bookItems = singleFlight(meterRegistry, CacheConfig.BOOK_ITEMS);
+    }
+
+    public CatalogEntry<BookDetailsDTO> bookDetails(Long bookId, Supplier<CatalogEntry<BookDetailsDTO>> loader) {
+        return bookDetails.load(bookId, loader);
+    }
+
+    public CatalogEntry<List<BookItemDTO>> bookItems(Long bookId, Supplier<CatalogEntry<List<BookItemDTO>>> loader) {
+        return bookItems.load(bookId, loader);
+    }
+
+    private static <V> SingleFlight<Long, V> singleFlight(MeterRegistry meterRegistry, String cacheName) {
+        Counter waiters = Counter.builder("catalog.load.coalesced")
+                                 .description("Catalog cache misses that waited for an in-flight load instead of querying")
+                                 .tag("cache", cacheName)
+                                 .register(meterRegistry);
+
+        SingleFlight<Long, V> flight = new SingleFlight<>(waiters);
+
+        Gauge.builder("catalog.load.in-flight", flight, SingleFlight::inFlightCount)
+             .description("Catalog loads currently running against the database")
+             .tag("cache", cacheName)
+             .register(meterRegistry);
+
+        return flight;
+    }
+}
@@ -1,43 +1,127 @@
 package com.personal.bookstoreapi.service;
 
+import com.personal.bookstoreapi.config.CacheConfig;
+import com.personal.bookstoreapi.dto.request.BookFilterDTO;
+import com.personal.bookstoreapi.dto.response.AuthorResponseDTO;
 import com.personal.bookstoreapi.dto.response.BookDetailsDTO;
 import com.personal.bookstoreapi.dto.response.BookItemDTO;
 import com.personal.bookstoreapi.dto.response.BookListDTO;
+import com.personal.bookstoreapi.dto.response.CursorPageDTO;
+import com.personal.bookstoreapi.exception.BadRequestException;
 import com.personal.bookstoreapi.exception.NotFoundException;
 import com.personal.bookstoreapi.mapper.CatalogMapper;
 import com.personal.bookstoreapi.repository.BookItemRepository;
 import com.personal.bookstoreapi.repository.BookRepository;
+import com.personal.bookstoreapi.repository.projection.BookAuthorRow;
+import com.personal.bookstoreapi.repository.projection.BookDetailsRow;
+import com.personal.bookstoreapi.repository.projection.BookListRow;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CatalogService {
 
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
     private final BookRepository bookRepository;
     private final BookItemRepository bookItemRepository;
     private final CatalogMapper mapper;
+    private final CatalogCache catalogCache;
+    private final CatalogLoadCoalescer loadCoalescer;
+    private final CatalogGeneration catalogGeneration;
 
     @Transactional(readOnly = true)
-    public List<BookListDTO> getAllBooks() {
-        return bookRepository.findAll()
-                             .stream()
-                             .map(mapper::toBookListDTO)
-                             .toList();
+    public CursorPageDTO<BookListDTO> getAllBooks(BookFilterDTO filter, String cursor, Integer size) {
+        if (filter.yearFrom() != null && filter.yearTo() != null && filter.yearFrom() > filter.yearTo()) {
+            throw new BadRequestException("yearFrom must not be after yearTo");
+        }
+
+        int pageSize = resolvePageSize(size);
+        Long afterId = CursorCodec.decodeId(cursor);
+
+        // one extra row tells us whether another page exists without a count query
+        List<BookListRow> rows = bookRepository.findListRowsAfter(
+                afterId,
+                filter.language(),
+                filter.yearFrom(),
+                filter.yearTo(),
+                filter.authorId(),
+                PageRequest.of(0, pageSize + 1)
+        );
+
+        boolean hasNext = rows.size() > pageSize;
+        List<BookListRow> page = hasNext ? rows.subList(0, pageSize) : rows;
+
+        Map<Long, Set<AuthorResponseDTO>> authors = loadAuthors(page);
+        List<BookListDTO> items = page.stream()
+                                      .map(row -> mapper.toBookListDTO(row, authors.get(row.id())))
+                                      .toList();
+
+        String nextCursor = hasNext ? CursorCodec.encodeId(page.get(page.size() - 1)
+                                                               .id()) : null;
+
+        return new CursorPageDTO<>(items, items.size(), hasNext, nextCursor);
     }
 
+    /**
+     * List DTOs for the given books, in the order of {@code ids}. Ids that no longer exist are skipped.
+     */
     @Transactional(readOnly = true)
-    public BookDetailsDTO getBookById(Long id) {
-        var book = bookRepository.findById(id)
-                                 .orElseThrow(() -> new NotFoundException("Book not found"));
-        return mapper.toBookDetailsDTO(book);
+    public List<BookListDTO> getBooksByIds(List<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+
+        Map<Long, BookListRow> rows = bookRepository.findListRowsByIds(ids)
+                                                    .stream()
+                                                    .collect(Collectors.toMap(BookListRow::id, r -> r));
+        List<BookListRow> ordered = ids.stream()
+                                       .map(rows::get)
+                                       .filter(Objects::nonNull)
+                                       .toList();
+
+        Map<Long, Set<AuthorResponseDTO>> authors = loadAuthors(ordered);
+        return ordered.stream()
+                      .map(row -> mapper.toBookListDTO(row, authors.get(row.id())))
+                      .toList();
     }
 
-    @Transactional(readOnly = true)
-    public List<BookItemDTO> getBookItems(Long bookId) {
+    // Cache misses go through the coalescer, outside any transaction, so waiters for a
+    // hot key never hold a pooled connection while the leader's query runs.
+    // The cached entry carries its own validators, so a warm conditional GET costs no query.
+    @Cacheable(cacheNames = CacheConfig.BOOK_DETAILS, key = "#id")
+    public CatalogEntry<BookDetailsDTO> getBookById(Long id) {
+        return loadCoalescer.bookDetails(id, () -> CatalogEntry.of("b" + id, loadBookDetails(id)));
+    }
+
+    @Cacheable(cacheNames = CacheConfig.BOOK_ITEMS, key = "#bookId")
+    public CatalogEntry<List<BookItemDTO>> getBookItems(Long bookId) {
+        return loadCoalescer.bookItems(bookId, () -> CatalogEntry.of("i" + bookId, loadBookItems(bookId)));
+    }
+
+    /** Validators for one listing page, from the in-memory {@link CatalogGeneration}. */
+    public CatalogVersion getCatalogVersion(BookFilterDTO filter, String cursor, Integer size) {
+        return catalogGeneration.listingVersion(filter + "|" + cursor + "|" + resolvePageSize(size));
+    }
+
+    private BookDetailsDTO loadBookDetails(Long id) {
+        List<BookDetailsRow> rows = bookRepository.findDetailsRowsById(id);
+        if (rows.isEmpty()) {
+            throw new NotFoundException("Book not found");
+        }
+        return mapper.toBookDetailsDTO(rows);
+    }
+
+    private List<BookItemDTO> loadBookItems(Long bookId) {
         if (!bookRepository.existsById(bookId)) {
             throw new NotFoundException("Book not found");
         }
@@ -47,4 +131,29 @@ public class CatalogService {
                                  .map(mapper::toBookItemDTO)
                                  .toList();
     }
+
+    private Map<Long, Set<AuthorResponseDTO>> loadAuthors(List<BookListRow> page) {
+        if (page.isEmpty()) return Map.of();
+
+        List<Long> ids = page.stream()
+                             .map(BookListRow::id)
+                             .toList();
+
+        return catalogCache.getAuthors(ids, this::fetchAuthors);
+    }
+
+    private Map<Long, Set<AuthorResponseDTO>> fetchAuthors(List<Long> bookIds) {
+        return bookRepository.findAuthorRowsByBookIds(bookIds)
+                             .stream()
+                             .collect(Collectors.groupingBy(
+                                     BookAuthorRow::bookId,
+                                     Collectors.mapping(r -> new AuthorResponseDTO(r.authorId(), r.authorName()),
+                                                        Collectors.toSet())
+                             ));
+    }
+
+    private static int resolvePageSize(Integer size) {
+        if (size == null) return DEFAULT_PAGE_SIZE;
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
 }
\ No newline at end of file
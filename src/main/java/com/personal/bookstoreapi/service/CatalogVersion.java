@@ -0,0 +1,16 @@
+package com.personal.bookstoreapi.service;
+
+import java.time.Instant;
+
+/**
+ * Validators for a conditional GET on a catalog resource: a strong ETag (unquoted) and the
+ * instant it last changed, or {@code null} when no Last-Modified is sent. Both come from
+ * in-memory state (a cached {@link CatalogEntry} or the {@link CatalogGeneration}), so
+ * checking them never costs a query.
+ */
+public record CatalogVersion(String etag, Instant lastModified) {
+
+    public long lastModifiedMillis() {
+        return lastModified == null ? -1 : lastModified.toEpochMilli();
+    }
+}
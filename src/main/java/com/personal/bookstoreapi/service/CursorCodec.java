@@ -0,0 +1,54 @@
+package com.personal.bookstoreapi.service;
+
+import com.personal.bookstoreapi.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes keyset positions as opaque, URL-safe continuation tokens.
+ * Clients must treat the token as a black box and only echo it back.
+ */
+public final class CursorCodec {
+
+    private static final String VERSION = "v1";
+
+    private CursorCodec() {
+    }
+
+    public static String encode(String... parts) {
+        String raw = VERSION + ":" + String.join(":", parts);
+        return Base64.getUrlEncoder()
+                     .withoutPadding()
+                     .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String[] decode(String cursor, int expectedParts) {
+        try {
+            String raw = new String(Base64.getUrlDecoder()
+                                          .decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", -1);
+            if (parts.length != expectedParts + 1 || !VERSION.equals(parts[0])) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            String[] values = new String[expectedParts];
+            System.arraycopy(parts, 1, values, 0, expectedParts);
+            return values;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    public static String encodeId(Long id) {
+        return encode(String.valueOf(id));
+    }
+
+    public static Long decodeId(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            return Long.parseLong(decode(cursor, 1)[0]);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
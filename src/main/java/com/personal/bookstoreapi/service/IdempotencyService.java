@@ -0,0 +1,102 @@
+package com.personal.bookstoreapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.personal.bookstoreapi.exception.BadRequestException;
+import com.personal.bookstoreapi.exception.ConflictException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * {@code Idempotency-Key} handling for create endpoints. The first request with a key runs;
+ * concurrent duplicates wait for it ({@link SingleFlight}) and later retries get the stored
+ * response without calling the service. Keys are scoped per user and endpoint and kept in a
+ * bounded in-memory store for {@code idempotency.ttl}. A failed request is not stored, so it
+ * can be retried with the same key.
+ * Metric: {@code idempotency.replayed}, tagged with the scope.
+ */
+@Service
+public class IdempotencyService {
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final Cache<Key, Stored> responses;
+    private final SingleFlight<Key, Stored> inFlight;
+    private final MeterRegistry meterRegistry;
+
+    public IdempotencyService(
+            @Value("${idempotency.ttl:PT24H}") Duration ttl,
+            @Value("${idempotency.maximum-size:100000}") long maximumSize,
+            MeterRegistry meterRegistry
+    ) {
+        this.responses = Caffeine.newBuilder()
+                                 .maximumSize(maximumSize)
+                                 .expireAfterWrite(ttl)
+                                 .build();
+        this.inFlight = new SingleFlight<>(Counter.builder("idempotency.coalesced")
+                                                  .description("Duplicate requests that waited for the in-flight original")
+                                                  .register(meterRegistry));
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs {@code action} once per {@code idempotencyKey}; without a key it simply runs it.
+     *
+     * @param request the request body; a retry must send an equal one
+     * @throws ConflictException when the key was already used with a different request
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String scope, String idempotencyKey, Object request, Supplier<T> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+
+        Key key = new Key(currentPrincipal(), scope, idempotencyKey);
+        Stored stored = responses.getIfPresent(key);
+        boolean replayed = stored != null;
+        if (stored == null) {
+            Stored[] executed = new Stored[1];
+            stored = inFlight.load(key, () -> {
+                // an earlier flight may have finished between the lookup and joining
+                Stored earlier = responses.getIfPresent(key);
+                if (earlier != null) return earlier;
+                executed[0] = new Stored(request, action.get());
+                responses.put(key, executed[0]);
+                return executed[0];
+            });
+            replayed = stored != executed[0];
+        }
+
+        if (!stored.request()
+                   .equals(request)) {
+            throw new ConflictException("Idempotency-Key was already used for a different request");
+        }
+        if (replayed) {
+            meterRegistry.counter("idempotency.replayed", "scope", scope)
+                         .increment();
+        }
+        return (T) stored.response();
+    }
+
+    private static String currentPrincipal() {
+        Authentication auth = SecurityContextHolder.getContext()
+                                                   .getAuthentication();
+        return auth == null ? "" : auth.getName();
+    }
+
+    private record Key(String principal, String scope, String idempotencyKey) {
+    }
+
+    private record Stored(Object request, Object response) {
+    }
+}
@@ -0,0 +1,172 @@
+package com.personal.bookstoreapi.service;
+
+import com.personal.bookstoreapi.domain.entity.PhysicalBookItem;
+import com.personal.bookstoreapi.domain.entity.StockSlot;
+import com.personal.bookstoreapi.events.BookItemChangedEvent;
+import com.personal.bookstoreapi.inventory.InventoryReservationEngine;
+import com.personal.bookstoreapi.repository.BookItemRepository;
+import com.personal.bookstoreapi.repository.StockSlotRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Stock changes for physical items. Each change is one guarded UPDATE, so concurrent checkouts
+ * cannot oversell and never read-modify-write the row; the row lock lasts until the caller's
+ * transaction commits, so callers should take stock as late as possible.
+ * <p>
+ * With {@code inventory.sharding.enabled} an item's stock is spread over
+ * {@code inventory.sharding.slots} {@link StockSlot} rows by {@link StockSlotRebalancer}, and a
+ * purchase takes from one slot that is not locked by another buyer, so buyers of a bestseller
+ * lock different rows. Whenever a purchase needs more than one row, it locks the item row before
+ * any slot, the same order as {@link #rebalance(Long)}.
+ * <p>
+ * With {@code inventory.reservations.enabled} stock is reserved in memory instead, see
+ * {@link InventoryReservationEngine}. The two modes are mutually exclusive.
+ */
+@Service
+public class InventoryService {
+
+    private final BookItemRepository bookItemRepository;
+    private final StockSlotRepository stockSlotRepository;
+    private final InventoryReservationEngine reservations;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean sharded;
+    private final int slots;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public InventoryService(BookItemRepository bookItemRepository,
+                            StockSlotRepository stockSlotRepository,
+                            Optional<InventoryReservationEngine> reservations,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${inventory.sharding.enabled:false}") boolean sharded,
+                            @Value("${inventory.sharding.slots:8}") int slots) {
+        if (slots < 1) {
+            throw new IllegalArgumentException("inventory.sharding.slots must be at least 1");
+        }
+        if (sharded && reservations.isPresent()) {
+            throw new IllegalStateException("inventory.sharding and inventory.reservations cannot both be enabled");
+        }
+        this.bookItemRepository = bookItemRepository;
+        this.stockSlotRepository = stockSlotRepository;
+        this.reservations = reservations.orElse(null);
+        this.eventPublisher = eventPublisher;
+        this.sharded = sharded;
+        this.slots = slots;
+    }
+
+    public int slotCount() {
+        return slots;
+    }
+
+    /**
+     * Takes {@code quantity} units of {@code item} if that many are in stock.
+     *
+     * @return false when there is not enough stock; nothing is changed then
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean tryDecrement(PhysicalBookItem item, int quantity) {
+        if (reservations != null) {
+            // the item row changes at flush time, which publishes the change event
+            return reservations.tryReserve(item, quantity);
+        }
+        Instant now = Instant.now();
+        boolean taken = sharded
+                ? takeFromSlots(item, quantity, now)
+                : bookItemRepository.decrementStock(item.getId(), quantity, now) == 1;
+        if (!taken) return false;
+
+        // the bulk updates skip CatalogChangePublisher, so announce the change ourselves
+        eventPublisher.publishEvent(BookItemChangedEvent.stock(item.getBook()
+                                                               .getId(), item.getId()));
+        return true;
+    }
+
+    /**
+     * Spreads the item's stock evenly over its slots, moving anything left on the item row
+     * (new stock, or stock from before sharding was enabled) into them.
+     */
+    @Transactional
+    public void rebalance(Long bookItemId) {
+        PhysicalBookItem item = bookItemRepository.findPhysicalForUpdate(bookItemId)
+                                                  .orElse(null);
+        if (item == null) return;
+
+        List<StockSlot> existing = stockSlotRepository.findAllForUpdate(bookItemId);
+        int total = item.getStockQuantity() == null ? 0 : item.getStockQuantity();
+        Map<Integer, StockSlot> bySlot = new HashMap<>();
+        for (StockSlot slot : existing) {
+            total += slot.getQuantity();
+            bySlot.put(slot.getSlot(), slot);
+            // slots beyond a lowered slot count are drained into the others
+            slot.setQuantity(0);
+        }
+
+        for (int i = 0; i < slots; i++) {
+            int share = total / slots + (i < total % slots ? 1 : 0);
+            StockSlot slot = bySlot.get(i);
+            if (slot == null) {
+                stockSlotRepository.save(StockSlot.builder()
+                                                  .bookItem(item)
+                                                  .slot(i)
+                                                  .quantity(share)
+                                                  .build());
+            } else {
+                slot.setQuantity(share);
+            }
+        }
+        item.setStockQuantity(0);
+    }
+
+    private boolean takeFromSlots(PhysicalBookItem item, int quantity, Instant now) {
+        List<StockSlot> free = stockSlotRepository.findSlotWithStockForUpdate(item.getId(), quantity, PageRequest.of(0, 1));
+        if (!free.isEmpty()) {
+            StockSlot slot = free.get(0);
+            slot.setQuantity(slot.getQuantity() - quantity);
+            return true;
+        }
+        // not sharded yet, or no free slot holds enough; no slot is locked, so the item row is next
+        if (bookItemRepository.decrementStock(item.getId(), quantity, now) == 1) {
+            return true;
+        }
+        return takeAcrossSlots(item, quantity);
+    }
+
+    // Slow path: lock the item row, then all its slots (the order rebalance uses), and take from each.
+    private boolean takeAcrossSlots(PhysicalBookItem item, int quantity) {
+        entityManager.refresh(item, LockModeType.PESSIMISTIC_WRITE);
+        List<StockSlot> itemSlots = stockSlotRepository.findAllForUpdate(item.getId());
+
+        int base = item.getStockQuantity() == null ? 0 : item.getStockQuantity();
+        int total = base + itemSlots.stream()
+                                    .mapToInt(StockSlot::getQuantity)
+                                    .sum();
+        if (total < quantity) return false;
+
+        int remaining = quantity;
+        int fromBase = Math.min(base, remaining);
+        item.setStockQuantity(base - fromBase);
+        remaining -= fromBase;
+        for (StockSlot slot : itemSlots) {
+            if (remaining == 0) break;
+            int take = Math.min(slot.getQuantity(), remaining);
+            slot.setQuantity(slot.getQuantity() - take);
+            remaining -= take;
+        }
+        return true;
+    }
+}
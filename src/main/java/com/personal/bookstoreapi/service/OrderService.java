@@ -4,68 +4,177 @@ import com.personal.bookstoreapi.domain.entity.BookItem;
 import com.personal.bookstoreapi.domain.entity.DigitalBookItem;
 import com.personal.bookstoreapi.domain.entity.Order;
 import com.personal.bookstoreapi.domain.entity.OrderItem;
+import com.personal.bookstoreapi.domain.entity.OutboxEvent;
 import com.personal.bookstoreapi.domain.entity.PhysicalBookItem;
 import com.personal.bookstoreapi.domain.entity.User;
 import com.personal.bookstoreapi.domain.enums.OrderStatus;
+import com.personal.bookstoreapi.domain.enums.OutboxEventType;
 import com.personal.bookstoreapi.dto.request.CreateOrderItemDTO;
 import com.personal.bookstoreapi.dto.request.CreateOrderRequestDTO;
+import com.personal.bookstoreapi.dto.response.CursorPageDTO;
 import com.personal.bookstoreapi.dto.response.OrderDetailsResponseDTO;
+import com.personal.bookstoreapi.dto.response.OrderHistoryDTO;
 import com.personal.bookstoreapi.dto.response.OrderItemResponseDTO;
 import com.personal.bookstoreapi.dto.response.OrderResponseDTO;
+import com.personal.bookstoreapi.exception.BadRequestException;
 import com.personal.bookstoreapi.repository.BookItemRepository;
 import com.personal.bookstoreapi.repository.OrderRepository;
+import com.personal.bookstoreapi.repository.OutboxEventRepository;
+import com.personal.bookstoreapi.repository.projection.OrderItemRow;
+import com.personal.bookstoreapi.repository.projection.OrderSummaryRow;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class OrderService {
 
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
     private final OrderRepository orderRepository;
     private final BookItemRepository bookItemRepository;
     private final UserService userService;
+    private final InventoryService inventoryService;
+    private final OrderWorkflow orderWorkflow;
+    private final OutboxEventRepository outboxEventRepository;
 
     @Transactional
     public OrderResponseDTO createOrder(CreateOrderRequestDTO request) {
+        return placeOrder(request, userService::getCurrentUser);
+    }
+
+    /**
+     * Places an order on behalf of {@code user}, for callers that run outside the user's
+     * request thread (see {@link OrderSubmissionPipeline}).
+     */
+    @Transactional
+    public OrderResponseDTO createOrder(CreateOrderRequestDTO request, User user) {
+        return placeOrder(request, () -> user);
+    }
 
+    /**
+     * The checks that need no database: at least one line, each with an item id and a
+     * positive quantity, and no item's merged quantity beyond {@code int}.
+     *
+     * @throws IllegalArgumentException when the request is malformed
+     */
+    public void validateShape(CreateOrderRequestDTO request) {
         if (request.items() == null || request.items()
                                               .isEmpty()) {
             throw new IllegalArgumentException("Order must contain at least one item");
         }
+        mergeLines(request.items());
+    }
 
-        User user = userService.getCurrentUser();
+    /**
+     * Read-only check for orders that will be placed together in one transaction: walks them in
+     * order against one load of every item they reference, each order consuming the stock it
+     * needs, and reports the failure each order would hit ({@code null} when it fits). Placing
+     * only the orders that fit keeps one short order from rolling back the whole group; a
+     * concurrent buyer can still take the stock in between, so the group may fail anyway.
+     */
+    @Transactional(readOnly = true)
+    public List<RuntimeException> checkGroup(List<CreateOrderRequestDTO> requests) {
+        List<Map<Long, Integer>> merged = new ArrayList<>(requests.size());
+        Set<Long> ids = new HashSet<>();
+        for (CreateOrderRequestDTO request : requests) {
+            Map<Long, Integer> quantities;
+            try {
+                validateShape(request);
+                quantities = mergeLines(request.items());
+            } catch (IllegalArgumentException e) {
+                quantities = null;
+            }
+            merged.add(quantities);
+            if (quantities != null) ids.addAll(quantities.keySet());
+        }
+
+        Map<Long, Integer> remaining = new HashMap<>();
+        Set<Long> digital = new HashSet<>();
+        for (BookItem bookItem : bookItemRepository.findAllById(ids)) {
+            if (bookItem instanceof PhysicalBookItem physical) {
+                remaining.put(physical.getId(), physical.getAvailableStock());
+            } else if (bookItem instanceof DigitalBookItem) {
+                digital.add(bookItem.getId());
+            }
+        }
+
+        List<RuntimeException> failures = new ArrayList<>(requests.size());
+        for (Map<Long, Integer> quantities : merged) {
+            RuntimeException failure = quantities == null
+                    ? new IllegalArgumentException("Invalid order")
+                    : checkAgainst(quantities, remaining, digital);
+            if (failure == null) {
+                quantities.forEach((id, quantity) -> remaining.computeIfPresent(id, (key, stock) -> stock - quantity));
+            }
+            failures.add(failure);
+        }
+        return failures;
+    }
+
+    private static RuntimeException checkAgainst(Map<Long, Integer> quantities, Map<Long, Integer> remaining, Set<Long> digital) {
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            Long id = line.getKey();
+            if (digital.contains(id)) {
+                if (line.getValue() > 1) return new IllegalArgumentException("Digital book can only be purchased once");
+            } else if (!remaining.containsKey(id)) {
+                return new IllegalArgumentException("BookItem not found: " + id);
+            } else if (remaining.get(id) < line.getValue()) {
+                return new IllegalStateException("Not enough stock for book item " + id);
+            }
+        }
+        return null;
+    }
+
+    private OrderResponseDTO placeOrder(CreateOrderRequestDTO request, Supplier<User> currentUser) {
+
+        if (request.items() == null || request.items()
+                                              .isEmpty()) {
+            throw new IllegalArgumentException("Order must contain at least one item");
+        }
+
+        // merge repeated lines first, so every item is validated and loaded once
+        Map<Long, Integer> quantities = mergeLines(request.items());
+        Map<Long, BookItem> bookItems = loadBookItems(quantities.keySet());
+
+        User user = currentUser.get();
 
         Order order = new Order();
         order.setUser(user);
         order.setStatus(OrderStatus.PAID);
+        order.setStatusDueAt(orderWorkflow.dueAt(OrderStatus.PAID, order.getCreatedAt()));
 
         List<OrderItem> orderItems = new ArrayList<>();
         BigDecimal totalAmount = BigDecimal.ZERO;
 
-        for (CreateOrderItemDTO itemDTO : request.items()) {
-
-            BookItem bookItem = bookItemRepository.findById(itemDTO.bookItemId())
-                                                  .orElseThrow(() -> new IllegalArgumentException(
-                                                          "BookItem not found: " + itemDTO.bookItemId()
-                                                  ));
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
 
-            int quantity = itemDTO.quantity();
-            if (quantity <= 0) {
-                throw new IllegalArgumentException("Quantity must be greater than 0");
-            }
+            BookItem bookItem = bookItems.get(line.getKey());
+            int quantity = line.getValue();
 
-            if (bookItem instanceof PhysicalBookItem physical) {
-                if (physical.getStockQuantity() < quantity) {
-                    throw new IllegalStateException(
-                            "Not enough stock for book item " + bookItem.getId()
-                    );
-                }
-                physical.setStockQuantity(physical.getStockQuantity() - quantity);
+            // fast reject on the loaded value; the guarded decrement below is what actually holds
+            if (bookItem instanceof PhysicalBookItem physical && physical.getAvailableStock() < quantity) {
+                throw new IllegalStateException(
+                        "Not enough stock for book item " + bookItem.getId()
+                );
             }
 
             if (bookItem instanceof DigitalBookItem && quantity > 1) {
@@ -94,6 +203,26 @@ public class OrderService {
 
         Order savedOrder = orderRepository.save(order);
 
+        // Stock is taken last so the row locks are held only until commit, and in id order so
+        // concurrent orders sharing items lock them in the same order.
+        for (Long bookItemId : quantities.keySet()
+                                         .stream()
+                                         .sorted()
+                                         .toList()) {
+            if (bookItems.get(bookItemId) instanceof PhysicalBookItem physical
+                    && !inventoryService.tryDecrement(physical, quantities.get(bookItemId))) {
+                throw new IllegalStateException(
+                        "Not enough stock for book item " + bookItemId
+                );
+            }
+        }
+
+        // commits or rolls back with the order; OutboxRelay publishes it
+        outboxEventRepository.save(OutboxEvent.builder()
+                                              .type(OutboxEventType.ORDER_PAID)
+                                              .aggregateId(savedOrder.getId())
+                                              .build());
+
         return new OrderResponseDTO(
                 savedOrder.getId(),
                 savedOrder.getStatus()
@@ -103,35 +232,124 @@ public class OrderService {
         );
     }
 
+    // bookItemId -> total quantity, in first-seen order
+    private static Map<Long, Integer> mergeLines(List<CreateOrderItemDTO> lines) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (CreateOrderItemDTO line : lines) {
+            if (line == null || line.bookItemId() == null) {
+                throw new IllegalArgumentException("Order line must reference a book item");
+            }
+            if (line.quantity() == null || line.quantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be greater than 0");
+            }
+            try {
+                quantities.merge(line.bookItemId(), line.quantity(), Math::addExact);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Quantity too large for book item " + line.bookItemId());
+            }
+        }
+        return quantities;
+    }
+
+    // one IN query for all lines instead of a findById round trip per line
+    private Map<Long, BookItem> loadBookItems(Set<Long> ids) {
+        Map<Long, BookItem> bookItems = bookItemRepository.findAllById(ids)
+                                                          .stream()
+                                                          .collect(Collectors.toMap(BookItem::getId, Function.identity()));
+        if (bookItems.size() < ids.size()) {
+            List<Long> missing = ids.stream()
+                                    .filter(id -> !bookItems.containsKey(id))
+                                    .toList();
+            throw new IllegalArgumentException("BookItem not found: " + missing);
+        }
+        return bookItems;
+    }
+
+    /**
+     * The current user's orders, newest first, one keyset page at a time. With {@code includeItems}
+     * the line items for the whole page are loaded in a single extra query.
+     */
     @Transactional(readOnly = true)
-    public List<OrderResponseDTO> getMyOrders() {
+    public CursorPageDTO<OrderHistoryDTO> getMyOrders(String status, String cursor, Integer size, boolean includeItems) {
         User user = userService.getCurrentUser();
 
-        return orderRepository.findAllByUserId(user.getId())
-                              .stream()
-                              .map(order -> new OrderResponseDTO(
-                                      order.getId(),
-                                      order.getStatus()
-                                           .name(),
-                                      order.getTotalAmount(),
-                                      order.getCreatedAt()
-                              ))
-                              .toList();
+        OrderStatus statusFilter = parseStatus(status);
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Instant afterCreatedAt = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = CursorCodec.decode(cursor, 3);
+            try {
+                afterCreatedAt = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+                afterId = Long.parseLong(parts[2]);
+            } catch (NumberFormatException | DateTimeException e) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+
+        // one extra row tells us whether another page exists without a count query
+        List<OrderSummaryRow> rows = orderRepository.findPageByUserId(
+                user.getId(), statusFilter, afterCreatedAt, afterId, PageRequest.of(0, pageSize + 1));
+        boolean hasNext = rows.size() > pageSize;
+        List<OrderSummaryRow> page = hasNext ? rows.subList(0, pageSize) : rows;
+
+        Map<Long, List<OrderItemResponseDTO>> items = includeItems ? loadItems(page) : Map.of();
+        List<OrderHistoryDTO> orders = page.stream()
+                                           .map(row -> new OrderHistoryDTO(
+                                                   row.id(),
+                                                   row.status()
+                                                      .name(),
+                                                   row.totalAmount(),
+                                                   row.createdAt(),
+                                                   includeItems ? items.getOrDefault(row.id(), List.of()) : null
+                                           ))
+                                           .toList();
+
+        String nextCursor = null;
+        if (hasNext) {
+            OrderSummaryRow last = page.get(page.size() - 1);
+            nextCursor = CursorCodec.encode(String.valueOf(last.createdAt()
+                                                               .getEpochSecond()),
+                                            String.valueOf(last.createdAt()
+                                                               .getNano()),
+                                            String.valueOf(last.id()));
+        }
+
+        return new CursorPageDTO<>(orders, orders.size(), hasNext, nextCursor);
+    }
+
+    private Map<Long, List<OrderItemResponseDTO>> loadItems(List<OrderSummaryRow> page) {
+        if (page.isEmpty()) return Map.of();
+
+        List<Long> orderIds = page.stream()
+                                  .map(OrderSummaryRow::id)
+                                  .toList();
+        Map<Long, List<OrderItemResponseDTO>> items = new HashMap<>();
+        for (OrderItemRow row : orderRepository.findItemRowsByOrderIds(orderIds)) {
+            items.computeIfAbsent(row.orderId(), id -> new ArrayList<>())
+                 .add(new OrderItemResponseDTO(row.bookItemId(), row.bookTitle(), row.quantity(), row.unitPrice()));
+        }
+        return items;
+    }
+
+    private static OrderStatus parseStatus(String status) {
+        if (status == null || status.isBlank()) return null;
+        try {
+            return OrderStatus.valueOf(status.trim()
+                                             .toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unknown order status: " + status);
+        }
     }
 
     @Transactional(readOnly = true)
     public OrderDetailsResponseDTO getOrderDetails(Long orderId) {
         User user = userService.getCurrentUser();
 
-        Order order = orderRepository.findById(orderId)
+        // orders of other users are reported as missing rather than forbidden
+        Order order = orderRepository.findDetailsByIdAndUserId(orderId, user.getId())
                                      .orElseThrow(() -> new IllegalArgumentException("Order not found"));
 
-        if (!order.getUser()
-                  .getId()
-                  .equals(user.getId())) {
-            throw new SecurityException("You are not allowed to view this order");
-        }
-
         List<OrderItemResponseDTO> items = order.getItems()
                                                 .stream()
                                                 .map(item -> new OrderItemResponseDTO(
@@ -0,0 +1,238 @@
+package com.personal.bookstoreapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.personal.bookstoreapi.domain.entity.User;
+import com.personal.bookstoreapi.dto.request.CreateOrderRequestDTO;
+import com.personal.bookstoreapi.dto.response.OrderResponseDTO;
+import com.personal.bookstoreapi.dto.response.OrderSubmissionDTO;
+import com.personal.bookstoreapi.exception.BadRequestException;
+import com.personal.bookstoreapi.exception.NotFoundException;
+import com.personal.bookstoreapi.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Accept-and-queue order creation ({@code orders.async.enabled}). {@link #submit} only checks
+ * the request's shape and enqueues it, so the request thread is released before any row is
+ * locked. {@link #drain} takes up to {@code orders.async.batch-size} submissions at a time,
+ * rejects those that {@link OrderService#checkGroup} says cannot be placed (unknown items, or
+ * not enough stock left once the earlier orders of the batch are served), and places the rest
+ * in one transaction (group commit), so a sold-out item does not break the group up. If an
+ * order still fails in the group, because a concurrent buyer took the stock after the check,
+ * the group is rolled back and replayed one order per transaction, so only the bad order is
+ * rejected.
+ * <p>
+ * The queue holds at most {@code orders.async.queue-capacity} submissions; beyond that
+ * {@link #submit} fails with 503 and the client backs off. Submission state is kept in memory
+ * for {@code orders.async.tracking-ttl}; queued submissions are lost on restart, and clients
+ * see that as an unknown tracking id. A rejected submission reports one of a few fixed
+ * messages, never the underlying exception's text.
+ * Metrics: {@code orders.async.queue.depth} and {@code orders.async.overloaded}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "orders.async.enabled", havingValue = "true")
+public class OrderSubmissionPipeline {
+
+    public enum Status {
+        QUEUED, COMPLETED, REJECTED
+    }
+
+    static final String OUT_OF_STOCK = "Not enough stock for one or more items";
+    static final String INVALID_ORDER = "Order references unknown items or invalid quantities";
+    static final String NOT_PLACED = "Order could not be placed, please submit it again";
+
+    private final OrderService orderService;
+    private final UserService userService;
+    private final TransactionTemplate transaction;
+    private final BlockingQueue<Submission> queue;
+    private final Cache<String, Submission> submissions;
+    private final int batchSize;
+    private final Counter overloaded;
+
+    public OrderSubmissionPipeline(OrderService orderService,
+                                   UserService userService,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${orders.async.queue-capacity:10000}") int queueCapacity,
+                                   @Value("${orders.async.batch-size:100}") int batchSize,
+                                   @Value("${orders.async.tracking-ttl:PT1H}") Duration trackingTtl) {
+        this.orderService = orderService;
+        this.userService = userService;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.submissions = Caffeine.newBuilder()
+                                   .expireAfterWrite(trackingTtl)
+                                   .build();
+        this.batchSize = batchSize;
+        this.overloaded = Counter.builder("orders.async.overloaded")
+                                 .description("Order submissions refused because the queue was full")
+                                 .register(meterRegistry);
+        Gauge.builder("orders.async.queue.depth", queue, BlockingQueue::size)
+             .description("Order submissions waiting to be placed")
+             .register(meterRegistry);
+    }
+
+    /**
+     * Queues the order for the current user.
+     *
+     * @throws BadRequestException         when the request is malformed
+     * @throws ServiceUnavailableException when the queue is full
+     */
+    public OrderSubmissionDTO submit(CreateOrderRequestDTO request) {
+        try {
+            orderService.validateShape(request);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+
+        Submission submission = new Submission(UUID.randomUUID()
+                                                   .toString(), userService.getCurrentUser(), request);
+        // tracked before it is queued, so the drainer never completes an unknown submission
+        submissions.put(submission.trackingId, submission);
+        if (!queue.offer(submission)) {
+            submissions.invalidate(submission.trackingId);
+            overloaded.increment();
+            throw new ServiceUnavailableException("Too many pending orders, retry later");
+        }
+        return submission.toDTO();
+    }
+
+    /**
+     * The state of one of the current user's submissions.
+     *
+     * @throws NotFoundException when the id is unknown, expired or belongs to another user
+     */
+    public OrderSubmissionDTO status(String trackingId) {
+        User user = userService.getCurrentUser();
+        Submission submission = submissions.getIfPresent(trackingId);
+        if (submission == null || !submission.user.getId()
+                                                  .equals(user.getId())) {
+            throw new NotFoundException("Order submission not found");
+        }
+        return submission.toDTO();
+    }
+
+    @Scheduled(fixedDelayString = "${orders.async.drain-interval:PT0.01S}")
+    public void drain() {
+        List<Submission> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            process(batch);
+            batch.clear();
+        }
+    }
+
+    int pendingCount() {
+        return queue.size();
+    }
+
+    private void process(List<Submission> submitted) {
+        List<RuntimeException> failures;
+        try {
+            failures = orderService.checkGroup(submitted.stream()
+                                                        .map(submission -> submission.request)
+                                                        .toList());
+        } catch (RuntimeException e) {
+            // the check is an optimisation; without it the group relies on the replay below
+            log.warn("Order group check failed: {}", e.getMessage());
+            failures = Collections.nCopies(submitted.size(), null);
+        }
+        List<Submission> batch = new ArrayList<>(submitted.size());
+        for (int i = 0; i < submitted.size(); i++) {
+            if (failures.get(i) == null) {
+                batch.add(submitted.get(i));
+            } else {
+                submitted.get(i)
+                         .reject(failures.get(i));
+            }
+        }
+        if (batch.isEmpty()) return;
+
+        List<OrderResponseDTO> placed;
+        try {
+            placed = transaction.execute(status -> batch.stream()
+                                                        .map(this::place)
+                                                        .toList());
+        } catch (RuntimeException groupFailure) {
+            // stock taken by someone else since the check rolled the group back; replay them one
+            // per transaction
+            for (Submission submission : batch) {
+                try {
+                    submission.complete(transaction.execute(status -> place(submission)));
+                } catch (RuntimeException e) {
+                    submission.reject(e);
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i)
+                 .complete(placed.get(i));
+        }
+    }
+
+    private OrderResponseDTO place(Submission submission) {
+        return orderService.createOrder(submission.request, submission.user);
+    }
+
+    private static final class Submission {
+        private final String trackingId;
+        private final User user;
+        private final CreateOrderRequestDTO request;
+        private volatile Status status = Status.QUEUED;
+        private volatile Long orderId;
+        private volatile String error;
+
+        private Submission(String trackingId, User user, CreateOrderRequestDTO request) {
+            this.trackingId = trackingId;
+            this.user = user;
+            this.request = request;
+        }
+
+        private void complete(OrderResponseDTO order) {
+            orderId = order.orderId();
+            status = Status.COMPLETED;
+        }
+
+        private void reject(RuntimeException e) {
+            error = clientMessage(e);
+            if (NOT_PLACED.equals(error)) {
+                log.warn("Order submission {} failed", trackingId, e);
+            } else {
+                log.debug("Order submission {} rejected: {}", trackingId, e.getMessage());
+            }
+            status = Status.REJECTED;
+        }
+
+        // OrderService reports shortages as IllegalStateException and bad requests as
+        // IllegalArgumentException; anything else is an internal failure
+        private static String clientMessage(RuntimeException e) {
+            if (e instanceof IllegalStateException) return OUT_OF_STOCK;
+            if (e instanceof IllegalArgumentException) return INVALID_ORDER;
+            return NOT_PLACED;
+        }
+
+        private OrderSubmissionDTO toDTO() {
+            // status is written last, so reading it first makes orderId/error visible with it
+            Status current = status;
+            return new OrderSubmissionDTO(trackingId, current.name(), orderId, error);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.personal.bookstoreapi.service;
+
+import com.personal.bookstoreapi.domain.enums.OrderStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The timed part of the order lifecycle: a paid order ships after
+ * {@code orders.workflow.ship-after} and is delivered {@code orders.workflow.deliver-after}
+ * later. Each order stores when its next transition is due, see {@link OrderWorkflowEngine}.
+ */
+@Component
+public class OrderWorkflow {
+
+    /** Statuses an order leaves on its own. */
+    public static final List<OrderStatus> TIMED_STATUSES = List.of(OrderStatus.PAID, OrderStatus.SHIPPING);
+
+    private final Duration shipAfter;
+    private final Duration deliverAfter;
+
+    public OrderWorkflow(
+            @Value("${orders.workflow.ship-after:PT30S}") Duration shipAfter,
+            @Value("${orders.workflow.deliver-after:PT30S}") Duration deliverAfter
+    ) {
+        this.shipAfter = shipAfter;
+        this.deliverAfter = deliverAfter;
+    }
+
+    /** The status a timed transition leads to, or null when {@code status} is not timed. */
+    public OrderStatus next(OrderStatus status) {
+        return switch (status) {
+            case PAID -> OrderStatus.SHIPPING;
+            case SHIPPING -> OrderStatus.DELIVERED;
+            default -> null;
+        };
+    }
+
+    /** When an order that entered {@code status} at {@code enteredAt} moves on, or null if it stays. */
+    public Instant dueAt(OrderStatus status, Instant enteredAt) {
+        return switch (status) {
+            case PAID -> enteredAt.plus(shipAfter);
+            case SHIPPING -> enteredAt.plus(deliverAfter);
+            default -> null;
+        };
+    }
+}
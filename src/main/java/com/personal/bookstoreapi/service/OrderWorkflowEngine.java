@@ -0,0 +1,120 @@
+package com.personal.bookstoreapi.service;
+
+import com.personal.bookstoreapi.domain.enums.OrderStatus;
+import com.personal.bookstoreapi.events.OrdersPaidEvent;
+import com.personal.bookstoreapi.repository.OrderRepository;
+import com.personal.bookstoreapi.repository.projection.OrderDueRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Drives the timed order transitions (PAID -> SHIPPING -> DELIVERED). The due time lives in
+ * {@code orders.status_due_at}, written in the order's own transaction, so nothing is lost on
+ * restart: pending orders are loaded back into a {@link TimerWheel} on startup. Each tick takes
+ * the expired order ids off the wheel and moves them with one guarded UPDATE per transition
+ * and batch; orders that still have a transition ahead go back on the wheel.
+ */
+@Slf4j
+@Component
+public class OrderWorkflowEngine {
+
+    private static final int BATCH_SIZE = 500;
+    private static final int WHEEL_SIZE = 512;
+
+    private final OrderRepository orderRepository;
+    private final OrderWorkflow orderWorkflow;
+    private final TransactionTemplate transaction;
+    private final TimerWheel wheel;
+
+    public OrderWorkflowEngine(OrderRepository orderRepository,
+                               OrderWorkflow orderWorkflow,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${orders.workflow.tick:PT1S}") Duration tick) {
+        this.orderRepository = orderRepository;
+        this.orderWorkflow = orderWorkflow;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.wheel = new TimerWheel(tick.toMillis(), WHEEL_SIZE, System.currentTimeMillis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long afterId = 0;
+        List<OrderDueRow> batch;
+        do {
+            batch = orderRepository.findDueRowsAfter(afterId, OrderWorkflow.TIMED_STATUSES, PageRequest.of(0, BATCH_SIZE));
+            batch.forEach(this::schedule);
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1)
+                               .id();
+            }
+        } while (batch.size() == BATCH_SIZE);
+
+        log.info("Order workflow loaded {} pending transitions", wheel.size());
+    }
+
+    // The stored due time is createdAt + delay, so computing it again from "now" can only be later.
+    // Idempotent: a redelivered order is scheduled twice, fires once per tick (the set below) and
+    // the guarded UPDATE only moves it if it is still in the expected status.
+    @EventListener
+    public void onOrdersPaid(OrdersPaidEvent event) {
+        long dueAt = orderWorkflow.dueAt(OrderStatus.PAID, Instant.now())
+                                  .toEpochMilli();
+        event.getOrderIds()
+             .forEach(orderId -> wheel.schedule(orderId, dueAt));
+    }
+
+    @Scheduled(fixedDelayString = "${orders.workflow.tick:PT1S}")
+    public void tick() {
+        // a set: an order scheduled both on startup and by its paid event fires once
+        Set<Long> fired = new LinkedHashSet<>();
+        wheel.advance(System.currentTimeMillis(), fired::add);
+        List<Long> expired = new ArrayList<>(fired);
+
+        for (int from = 0; from < expired.size(); from += BATCH_SIZE) {
+            List<Long> batch = expired.subList(from, Math.min(from + BATCH_SIZE, expired.size()));
+            try {
+                transaction.executeWithoutResult(status -> advance(batch));
+            } catch (RuntimeException ex) {
+                // keep the orders; the next tick retries them
+                log.warn("Order workflow batch of {} failed: {}", batch.size(), ex.getMessage());
+                long retryAt = System.currentTimeMillis();
+                batch.forEach(id -> wheel.schedule(id, retryAt));
+            }
+        }
+    }
+
+    public int pendingCount() {
+        return wheel.size();
+    }
+
+    private void advance(List<Long> orderIds) {
+        Instant now = Instant.now();
+        // later transitions first, so an order moves at most one step per tick
+        for (OrderStatus current : OrderWorkflow.TIMED_STATUSES.reversed()) {
+            OrderStatus next = orderWorkflow.next(current);
+            orderRepository.advanceStatus(orderIds, current, next, orderWorkflow.dueAt(next, now), now);
+        }
+        // moved on to another timed status, not due yet, or due time changed: back on the wheel
+        orderRepository.findDueRowsByIds(orderIds, OrderWorkflow.TIMED_STATUSES)
+                       .forEach(this::schedule);
+    }
+
+    private void schedule(OrderDueRow row) {
+        wheel.schedule(row.id(), row.statusDueAt() == null ? System.currentTimeMillis() : row.statusDueAt()
+                                                                                          .toEpochMilli());
+    }
+}
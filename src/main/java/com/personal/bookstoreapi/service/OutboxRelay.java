@@ -0,0 +1,80 @@
+package com.personal.bookstoreapi.service;
+
+import com.personal.bookstoreapi.domain.entity.OutboxEvent;
+import com.personal.bookstoreapi.domain.enums.OutboxEventType;
+import com.personal.bookstoreapi.events.OrdersPaidEvent;
+import com.personal.bookstoreapi.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Polls {@code outbox_events} and turns each batch into one application event per type, so
+ * listeners get work in bulk on the scheduler thread rather than once per request. Rows are
+ * locked with SKIP LOCKED and the events go to plain {@code @EventListener}s, which run inside
+ * the batch transaction; the rows are deleted only after every listener has returned, and a
+ * listener that throws rolls the batch back so the next poll delivers it again.
+ * <p>
+ * Delivery is at least once: a crash after the listeners ran but before the commit redelivers
+ * the batch, so consumers must be idempotent.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaction;
+    private final int batchSize;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       ApplicationEventPublisher eventPublisher,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${outbox.relay.batch-size:500}") int batchSize) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.eventPublisher = eventPublisher;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval:PT0.5S}")
+    public void relay() {
+        int dispatched;
+        try {
+            do {
+                dispatched = transaction.execute(status -> dispatchBatch());
+            } while (dispatched == batchSize);
+        } catch (RuntimeException ex) {
+            // rows stay in the outbox; the next poll retries them
+            log.warn("Outbox relay failed: {}", ex.getMessage());
+        }
+    }
+
+    private int dispatchBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.findBatchForDispatch(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) return 0;
+
+        Map<OutboxEventType, List<Long>> byType = new EnumMap<>(OutboxEventType.class);
+        for (OutboxEvent event : batch) {
+            byType.computeIfAbsent(event.getType(), type -> new ArrayList<>())
+                  .add(event.getAggregateId());
+        }
+        byType.forEach((type, ids) -> eventPublisher.publishEvent(switch (type) {
+            case ORDER_PAID -> new OrdersPaidEvent(ids);
+        }));
+
+        // acknowledged: every listener has processed the batch
+        outboxEventRepository.deleteAllInBatch(batch);
+        return batch.size();
+    }
+}
@@ -27,6 +27,7 @@ public class RentalService {
     private final RentalRepository rentalRepository;
     private final BookItemRepository bookItemRepository;
     private final UserService userService;
+    private final InventoryService inventoryService;
 
     @Transactional
     public RentalResponseDTO createRental(CreateRentalRequestDTO request) {
@@ -47,10 +48,9 @@ public class RentalService {
 
         // Physical stock rule: 1 rental = 1 exemplar
         if (bookItem instanceof PhysicalBookItem physical) {
-            if (physical.getStockQuantity() == null || physical.getStockQuantity() < 1) {
+            if (physical.getAvailableStock() < 1) {
                 throw new IllegalStateException("No stock available for renting this physical book item");
             }
-            physical.setStockQuantity(physical.getStockQuantity() - 1);
         }
 
         Instant startAt = Instant.now();
@@ -70,6 +70,11 @@ public class RentalService {
 
         Rental saved = rentalRepository.save(rental);
 
+        // guarded decrement, taken last to keep the row lock short; the check above is only a fast path
+        if (bookItem instanceof PhysicalBookItem physical && !inventoryService.tryDecrement(physical, 1)) {
+            throw new IllegalStateException("No stock available for renting this physical book item");
+        }
+
         return new RentalResponseDTO(
                 saved.getId(),
                 bookItem.getId(),
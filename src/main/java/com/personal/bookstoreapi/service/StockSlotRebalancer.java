@@ -0,0 +1,53 @@
+package com.personal.bookstoreapi.service;
+
+import com.personal.bookstoreapi.repository.StockSlotRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Background job of the sharded inventory mode: finds items whose stock is not spread over
+ * their slots and rebalances each one in its own short transaction.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "inventory.sharding.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class StockSlotRebalancer {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final StockSlotRepository stockSlotRepository;
+    private final InventoryService inventoryService;
+
+    @Scheduled(fixedDelayString = "${inventory.sharding.rebalance-interval:PT30S}")
+    public void rebalance() {
+        int rebalanced = 0;
+        long afterId = 0;
+        List<Long> batch;
+        do {
+            batch = stockSlotRepository.findUnbalancedItemIds(afterId, inventoryService.slotCount(), PageRequest.of(0, BATCH_SIZE));
+            for (Long bookItemId : batch) {
+                try {
+                    inventoryService.rebalance(bookItemId);
+                    rebalanced++;
+                } catch (RuntimeException ex) {
+                    // e.g. a lock timeout against a checkout; the next run picks the item up again
+                    log.warn("Rebalancing stock of book item {} failed: {}", bookItemId, ex.getMessage());
+                }
+            }
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1);
+            }
+        } while (batch.size() == BATCH_SIZE);
+
+        if (rebalanced > 0) {
+            log.info("Rebalanced stock slots of {} book items", rebalanced);
+        }
+    }
+}
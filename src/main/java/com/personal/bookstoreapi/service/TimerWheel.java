@@ -0,0 +1,122 @@
+package com.personal.bookstoreapi.service;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+
+/**
+ * Hashed timer wheel over {@code long} ids. A timer lives in bucket {@code deadlineTick % size}
+ * as an (id, deadline tick) pair in a plain {@code long[]}, so a pending timer costs 16 bytes;
+ * deadlines further away than one rotation simply stay in their bucket until a later pass
+ * reaches them. Scheduling and advancing are O(1) per timer. Guarded by a
+ * {@link ReentrantLock} rather than {@code synchronized}, so callers on virtual threads never
+ * pin their carrier while the tick thread drains a bucket.
+ */
+public final class TimerWheel {
+
+    private static final int INITIAL_BUCKET_CAPACITY = 8;
+
+    private final long tickMillis;
+    private final int mask;
+    private final long[][] buckets;
+    private final int[] lengths;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // first tick not processed yet
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param wheelSize number of buckets, rounded up to a power of two
+     */
+    public TimerWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickMillis and wheelSize must be positive");
+        }
+        int buckets = Integer.highestOneBit(wheelSize - 1) << 1;
+        buckets = Math.max(buckets, 1);
+        this.tickMillis = tickMillis;
+        this.mask = buckets - 1;
+        this.buckets = new long[buckets][];
+        this.lengths = new int[buckets];
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    /** Adds a timer; a deadline already in the past fires on the next {@link #advance}. */
+    public void schedule(long id, long deadlineMillis) {
+        lock.lock();
+        try {
+            long tick = Math.max(Math.ceilDiv(deadlineMillis, tickMillis), currentTick);
+            int b = (int) (tick & mask);
+            long[] bucket = buckets[b];
+            if (bucket == null) {
+                bucket = buckets[b] = new long[INITIAL_BUCKET_CAPACITY * 2];
+            } else if (lengths[b] == bucket.length) {
+                bucket = buckets[b] = Arrays.copyOf(bucket, bucket.length * 2);
+            }
+            bucket[lengths[b]++] = id;
+            bucket[lengths[b]++] = tick;
+            size++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes every timer whose deadline is at or before {@code nowMillis} and hands its id to
+     * {@code expired}.
+     *
+     * @return the number of timers that fired
+     */
+    public int advance(long nowMillis, LongConsumer expired) {
+        lock.lock();
+        try {
+            long nowTick = Math.floorDiv(nowMillis, tickMillis);
+            if (nowTick < currentTick) return 0;
+
+            // after a long pause one pass over all buckets is enough
+            long lastTick = Math.min(nowTick, currentTick + mask);
+            int fired = 0;
+            for (long tick = currentTick; tick <= lastTick; tick++) {
+                fired += expire((int) (tick & mask), nowTick, expired);
+            }
+            currentTick = nowTick + 1;
+            size -= fired;
+            return fired;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int expire(int b, long nowTick, LongConsumer expired) {
+        long[] bucket = buckets[b];
+        if (bucket == null) return 0;
+
+        int kept = 0;
+        int fired = 0;
+        for (int i = 0; i < lengths[b]; i += 2) {
+            if (bucket[i + 1] <= nowTick) {
+                expired.accept(bucket[i]);
+                fired++;
+            } else {
+                bucket[kept++] = bucket[i];
+                bucket[kept++] = bucket[i + 1];
+            }
+        }
+        lengths[b] = kept;
+        if (kept == 0 && bucket.length > INITIAL_BUCKET_CAPACITY * 2) {
+            // give back the memory of a burst
+            buckets[b] = null;
+        }
+        return fired;
+    }
+}
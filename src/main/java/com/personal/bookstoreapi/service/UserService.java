@@ -2,6 +2,8 @@ package com.personal.bookstoreapi.service;
 
 import com.personal.bookstoreapi.domain.entity.User;
 import com.personal.bookstoreapi.repository.UserRepository;
+import com.personal.bookstoreapi.security.AuthenticatedUser;
+import com.personal.bookstoreapi.security.TokenVersionCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -12,7 +14,14 @@ import org.springframework.stereotype.Service;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final TokenVersionCache tokenVersions;
 
+    /**
+     * The caller. For token-authenticated requests this is built from the token's claims without
+     * a query: a detached {@link User} carrying only id, email, full name and role, good for
+     * ownership and role checks and as an association target, not for reading or saving other
+     * user fields.
+     */
     public User getCurrentUser() {
         Authentication auth = SecurityContextHolder.getContext()
                                                    .getAuthentication();
@@ -21,9 +30,24 @@ public class UserService {
             throw new SecurityException("Unauthenticated");
         }
 
+        if (auth.getPrincipal() instanceof AuthenticatedUser principal) {
+            return User.builder()
+                       .id(principal.id())
+                       .email(principal.email())
+                       .fullName(principal.fullName())
+                       .tokenVersion(principal.tokenVersion())
+                       .role(principal.role())
+                       .build();
+        }
+
         String email = auth.getName();
 
         return userRepository.findByEmail(email)
                              .orElseThrow(() -> new IllegalArgumentException("User not found for email: " + email));
     }
-}
\ No newline at end of file
+
+    /** Signs the caller out everywhere: every access token issued so far stops working. */
+    public void revokeTokens() {
+        tokenVersions.revoke(getCurrentUser().getId());
+    }
+}
@@ -0,0 +1,134 @@
+package com.personal.bookstoreapi;
+
+import com.personal.bookstoreapi.repository.BookRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput and tail latency of platform vs virtual request threads under 5k concurrent
+ * clients. Not part of the default build: {@code mvn test -Pbenchmark}.
+ * <p>
+ * The endpoint runs one real query and then blocks for {@link #BLOCKING_MILLIS}, standing in
+ * for a slow MySQL round trip; H2 in memory answers too fast to show the thread-pool limit.
+ * The blocking part does not hold a pooled connection, so the numbers isolate the request
+ * threads from the Hikari pool size. Client and server share the machine, so run it on one
+ * with several cores; {@code -Dbench.clients} and {@code -Dbench.blocking-ms} change the load.
+ */
+@Tag("benchmark")
+class VirtualThreadLoadBenchmarkTest {
+
+    private static final int CLIENTS = Integer.getInteger("bench.clients", 5_000);
+    private static final int REQUESTS_PER_CLIENT = 10;
+    private static final long BLOCKING_MILLIS = Long.getLong("bench.blocking-ms", 20);
+
+    @Test
+    void platformVsVirtualThreads() throws Exception {
+        System.out.printf("%n%-9s %12s %10s %10s %8s%n", "threads", "req/s", "p50 (ms)", "p99 (ms)", "errors");
+        for (boolean virtual : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = start(virtual)) {
+                int port = ((ServletWebServerApplicationContext) context).getWebServer()
+                                                                        .getPort();
+                run(port, 200); // warm-up
+                Result result = run(port, CLIENTS);
+                System.out.printf("%-9s %12.0f %10.1f %10.1f %8d%n", virtual ? "virtual" : "platform",
+                                  result.throughput(), result.p50Millis(), result.p99Millis(), result.errors());
+                assertThat(result.errors()).isZero();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtual) {
+        // command-line arguments, so they override application.properties
+        String[] args = {
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--spring.datasource.url=jdbc:h2:mem:load-" + virtual + ";MODE=MySQL",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN"
+        };
+        return new SpringApplicationBuilder(BookStoreApiApplication.class)
+                .initializers((GenericApplicationContext ctx) -> ctx.registerBean("blockingRoute", RouterFunction.class, () ->
+                        RouterFunctions.route()
+                                       .GET("/bench/blocking", request -> {
+                                           long books = ctx.getBean(BookRepository.class)
+                                                           .count();
+                                           Thread.sleep(BLOCKING_MILLIS);
+                                           return ServerResponse.ok()
+                                                                .body(books);
+                                       })
+                                       .build()))
+                .run(args);
+    }
+
+    private static Result run(int port, int clients) throws InterruptedException {
+        HttpClient http = HttpClient.newBuilder()
+                                    .version(HttpClient.Version.HTTP_1_1)
+                                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                                    .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/bench/blocking"))
+                                         .timeout(Duration.ofSeconds(60))
+                                         .build();
+        AtomicLongArray latencies = new AtomicLongArray(clients * REQUESTS_PER_CLIENT);
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+
+        long started = System.nanoTime();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                pool.submit(() -> {
+                    for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                        long sent = System.nanoTime();
+                        try {
+                            if (http.send(request, HttpResponse.BodyHandlers.discarding())
+                                    .statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies.set(next.getAndIncrement(), System.nanoTime() - sent);
+                    }
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        long[] sorted = new long[latencies.length()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = latencies.get(i);
+        }
+        Arrays.sort(sorted);
+        return new Result(sorted.length / seconds, percentile(sorted, 0.50), percentile(sorted, 0.99), errors.get());
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+
+    private record Result(double throughput, double p50Millis, double p99Millis, int errors) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.personal.bookstoreapi.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsyncListenerPoolTest {
+
+    @Test
+    void fullQueue_dropsWithoutBlockingThePublisher_andFlagsOneResync() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AsyncListenerPool pool = new AsyncListenerPool(registry, 1, 1);
+        Executor executor = pool.executor();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch ran = new CountDownLatch(2);
+        try {
+            executor.execute(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                ran.countDown();
+            });
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            executor.execute(ran::countDown);
+            assertThat(pool.takeOverflow()).isFalse();
+
+            executor.execute(() -> { throw new AssertionError("dropped task ran"); });
+            executor.execute(() -> { throw new AssertionError("dropped task ran"); });
+
+            assertThat(registry.counter("async.listeners.dropped").count()).isEqualTo(2.0);
+            assertThat(pool.takeOverflow()).isTrue();
+            assertThat(pool.takeOverflow()).isFalse();
+
+            release.countDown();
+            assertThat(ran.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            release.countDown();
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void runsOnVirtualThreads_atMostMaxConcurrencyAtOnce() throws Exception {
+        AsyncListenerPool pool = new AsyncListenerPool(new SimpleMeterRegistry(), 2, 100);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        AtomicBoolean allVirtual = new AtomicBoolean(true);
+        CountDownLatch done = new CountDownLatch(20);
+        try {
+            for (int i = 0; i < 20; i++) {
+                pool.executor().execute(() -> {
+                    allVirtual.compareAndSet(true, Thread.currentThread().isVirtual());
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    done.countDown();
+                });
+            }
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(peak.get()).isLessThanOrEqualTo(2);
+            assertThat(allVirtual.get()).isTrue();
+            assertThat(pool.takeOverflow()).isFalse();
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
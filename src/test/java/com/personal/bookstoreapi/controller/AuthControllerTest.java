@@ -5,6 +5,7 @@ import com.personal.bookstoreapi.dto.request.RegisterRequestDTO;
 import com.personal.bookstoreapi.dto.response.LoginResponseDTO;
 import com.personal.bookstoreapi.dto.response.RegisterResponseDTO;
 import com.personal.bookstoreapi.service.AuthService;
+import com.personal.bookstoreapi.service.UserService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -12,6 +13,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -20,6 +22,9 @@ class AuthControllerTest {
     @Mock
     AuthService authService;
 
+    @Mock
+    UserService userService;
+
     @InjectMocks
     AuthController authController;
 
@@ -42,4 +47,10 @@ class AuthControllerTest {
         var out = authController.login(req);
         assertThat(out).isSameAs(res);
     }
+
+    @Test
+    void logoutAll_revokesTheCallersTokens() {
+        authController.logoutAll();
+        verify(userService).revokeTokens();
+    }
 }
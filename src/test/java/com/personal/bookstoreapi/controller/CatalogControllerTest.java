@@ -1,18 +1,46 @@
 package com.personal.bookstoreapi.controller;
 
+import com.personal.bookstoreapi.dto.request.BookFacetFilterDTO;
+import com.personal.bookstoreapi.dto.request.BookFilterDTO;
 import com.personal.bookstoreapi.dto.response.BookDetailsDTO;
 import com.personal.bookstoreapi.dto.response.BookItemDTO;
 import com.personal.bookstoreapi.dto.response.BookListDTO;
+import com.personal.bookstoreapi.dto.response.BookFacetsDTO;
+import com.personal.bookstoreapi.dto.response.CursorPageDTO;
+import com.personal.bookstoreapi.dto.response.FacetedBookPageDTO;
+import com.personal.bookstoreapi.dto.response.SuggestionDTO;
+import com.personal.bookstoreapi.dto.response.BookSearchResultDTO;
+import com.personal.bookstoreapi.service.BookBrowseService;
+import com.personal.bookstoreapi.service.BookSearchService;
+import com.personal.bookstoreapi.service.CatalogEntry;
+import com.personal.bookstoreapi.service.CatalogExportService;
 import com.personal.bookstoreapi.service.CatalogService;
+import com.personal.bookstoreapi.service.CatalogVersion;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -21,27 +49,175 @@ class CatalogControllerTest {
     @Mock
     CatalogService catalogService;
 
+    @Mock
+    BookSearchService bookSearchService;
+
+    @Mock
+    BookBrowseService bookBrowseService;
+
+    @Mock
+    CatalogExportService catalogExportService;
+
     @InjectMocks
     CatalogController controller;
 
+    private static <T> CatalogEntry<T> entry(String etag, T body) {
+        return new CatalogEntry<>(body, new CatalogVersion(etag, null));
+    }
+
+    private static ServletWebRequest request() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/api/books"), new MockHttpServletResponse());
+    }
+
     @Test
     void getAllBooks_delegates() {
-        when(catalogService.getAllBooks()).thenReturn(List.of(new BookListDTO(1L,"T",null,null,null,null,null)));
-        var res = controller.getAllBooks();
-        assertThat(res).hasSize(1);
+        var filter = new BookFilterDTO("EN", null, null, null);
+        when(catalogService.getCatalogVersion(filter, "c", 5)).thenReturn(new CatalogVersion("c-1", Instant.parse("2024-05-01T10:00:00Z")));
+        when(catalogService.getAllBooks(filter, "c", 5)).thenReturn(new CursorPageDTO<>(List.of(new BookListDTO(1L,"T",null,null,null,null,null)), 1, false, null));
+        var res = controller.getAllBooks("EN", null, null, null, "c", 5, request());
+        assertThat(res.items()).hasSize(1);
     }
 
     @Test
     void getBookById_delegates() {
-        when(catalogService.getBookById(2L)).thenReturn(new BookDetailsDTO(2L,"T2",null,null,null,null,null,null));
-        var res = controller.getBookById(2L);
+        when(catalogService.getBookById(2L)).thenReturn(entry("b2-4", new BookDetailsDTO(2L,"T2",null,null,null,null,null,null)));
+        var res = controller.getBookById(2L, request());
         assertThat(res.id()).isEqualTo(2L);
     }
 
+    @Test
+    void getBookById_matchingETag_returns304FromTheCachedEntry() {
+        when(catalogService.getBookById(2L)).thenReturn(entry("b2-4", new BookDetailsDTO(2L,"T2",null,null,null,null,null,null)));
+        var servletRequest = new MockHttpServletRequest("GET", "/api/books");
+        servletRequest.addHeader("If-None-Match", "\"b2-4\"");
+        var response = new MockHttpServletResponse();
+
+        var res = controller.getBookById(2L, new ServletWebRequest(servletRequest, response));
+
+        assertThat(res).isNull();
+        assertThat(response.getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    void getAllBooks_matchingETag_returns304WithoutLoadingThePage() {
+        var filter = new BookFilterDTO(null, null, null, null);
+        when(catalogService.getCatalogVersion(filter, null, null)).thenReturn(new CatalogVersion("c-7", Instant.parse("2024-05-01T10:00:00Z")));
+        var servletRequest = new MockHttpServletRequest("GET", "/api/books");
+        servletRequest.addHeader("If-None-Match", "\"c-7\"");
+        var response = new MockHttpServletResponse();
+
+        var res = controller.getAllBooks(null, null, null, null, null, null, new ServletWebRequest(servletRequest, response));
+
+        assertThat(res).isNull();
+        assertThat(response.getStatus()).isEqualTo(304);
+        verify(catalogService, never()).getAllBooks(any(), any(), any());
+    }
+
+    @Test
+    void getBookById_staleETag_returnsBodyWithETagOnly() {
+        when(catalogService.getBookById(2L)).thenReturn(entry("b2-5", new BookDetailsDTO(2L,"T2",null,null,null,null,null,null)));
+        var servletRequest = new MockHttpServletRequest("GET", "/api/books");
+        servletRequest.addHeader("If-None-Match", "\"b2-4\"");
+        var response = new MockHttpServletResponse();
+
+        var res = controller.getBookById(2L, new ServletWebRequest(servletRequest, response));
+
+        assertThat(res.id()).isEqualTo(2L);
+        assertThat(response.getHeader("ETag")).isEqualTo("\"b2-5\"");
+        // the entry's load time is not a validator
+        assertThat(response.getHeader("Last-Modified")).isNull();
+    }
+
     @Test
     void getBookItems_delegates() {
-        when(catalogService.getBookItems(3L)).thenReturn(List.of(new BookItemDTO(1L,"PHYSICAL",null,null,false,null,1)));
-        var res = controller.getBookItems(3L);
+        when(catalogService.getBookItems(3L)).thenReturn(entry("i3-1", List.of(new BookItemDTO(1L,"PHYSICAL",null,null,false,null,1))));
+        var res = controller.getBookItems(3L, request());
         assertThat(res).hasSize(1);
     }
+
+    @Test
+    void search_delegates() {
+        when(bookSearchService.search("orwell", 0, 10)).thenReturn(new BookSearchResultDTO("orwell", List.of(), 0, 10, 0));
+        var res = controller.search("orwell", 0, 10);
+        assertThat(res.query()).isEqualTo("orwell");
+    }
+
+    @Test
+    void suggest_delegates() {
+        when(bookSearchService.suggest("orw", 5)).thenReturn(List.of(new SuggestionDTO("George Orwell", "AUTHOR", 10L)));
+        var res = controller.suggest("orw", 5);
+        assertThat(res).extracting(SuggestionDTO::text).containsExactly("George Orwell");
+    }
+
+    @Test
+    void browse_delegates() {
+        var filter = new BookFacetFilterDTO("EN", 1940, "PHYSICAL", true);
+        var facets = new BookFacetsDTO(List.of(), List.of(), List.of(), List.of());
+        when(bookBrowseService.browse(filter, null, 10)).thenReturn(new FacetedBookPageDTO(List.of(), 0, false, null, 0, facets));
+        var res = controller.browse("EN", 1940, "PHYSICAL", true, null, 10);
+        assertThat(res.facets()).isSameAs(facets);
+    }
+
+    @Test
+    void export_acceptsGzip_compressesStream() throws Exception {
+        when(catalogExportService.export(any())).thenAnswer(i -> {
+            i.<OutputStream>getArgument(0).write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        var res = controller.export("gzip, deflate", request());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        res.getBody().writeTo(out);
+
+        assertThat(res.getHeaders().getFirst("Content-Encoding")).isEqualTo("gzip");
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("{\"id\":1}\n");
+        }
+    }
+
+    @Test
+    void export_withoutGzip_writesPlainNdjson() throws Exception {
+        var res = controller.export(null, request());
+        res.getBody().writeTo(new ByteArrayOutputStream());
+
+        assertThat(res.getHeaders().getContentType()).hasToString("application/x-ndjson");
+        assertThat(res.getHeaders().containsKey("Content-Encoding")).isFalse();
+        verify(catalogExportService).export(any());
+    }
+
+    @Test
+    void export_releasesItsSlot_evenWhenTheStreamFails() throws Exception {
+        when(catalogExportService.export(any())).thenThrow(new IOException("client went away"));
+
+        var res = controller.export(null, request());
+        verify(catalogExportService).acquire();
+        verify(catalogExportService, never()).release();
+
+        assertThatThrownBy(() -> res.getBody().writeTo(new ByteArrayOutputStream())).isInstanceOf(IOException.class);
+        verify(catalogExportService).release();
+    }
+
+    @Test
+    void export_releasesItsSlotOnce_whenTheAsyncRequestEndsBeforeTheBodyRuns() throws Exception {
+        ServletWebRequest request = request();
+        var res = controller.export(null, request);
+
+        // async timeout or disconnect: the container completes the request without the body
+        WebAsyncUtils.getAsyncManager(request).getCallableInterceptor(CatalogController.EXPORT_SLOT).afterCompletion(request, null);
+        verify(catalogExportService).release();
+
+        res.getBody().writeTo(new ByteArrayOutputStream());
+        verify(catalogExportService, times(1)).release();
+    }
+
+    @Test
+    void acceptsGzip_honoursQValues() {
+        assertThat(CatalogController.acceptsGzip("gzip, deflate")).isTrue();
+        assertThat(CatalogController.acceptsGzip("deflate, gzip;q=0.5")).isTrue();
+        assertThat(CatalogController.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(CatalogController.acceptsGzip("gzip; q=0.0, *;q=1")).isFalse();
+        assertThat(CatalogController.acceptsGzip("*")).isTrue();
+        assertThat(CatalogController.acceptsGzip("identity")).isFalse();
+        assertThat(CatalogController.acceptsGzip(null)).isFalse();
+    }
 }
@@ -1,19 +1,34 @@
 package com.personal.bookstoreapi.controller;
 
 import com.personal.bookstoreapi.dto.request.CreateOrderRequestDTO;
+import com.personal.bookstoreapi.dto.response.CursorPageDTO;
 import com.personal.bookstoreapi.dto.response.OrderDetailsResponseDTO;
+import com.personal.bookstoreapi.dto.response.OrderHistoryDTO;
 import com.personal.bookstoreapi.dto.response.OrderResponseDTO;
+import com.personal.bookstoreapi.dto.response.OrderSubmissionDTO;
+import com.personal.bookstoreapi.exception.NotFoundException;
+import com.personal.bookstoreapi.service.IdempotencyService;
 import com.personal.bookstoreapi.service.OrderService;
+import com.personal.bookstoreapi.service.OrderSubmissionPipeline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -22,22 +37,64 @@ class OrderControllerTest {
     @Mock
     OrderService orderService;
 
-    @InjectMocks
+    @Spy
+    IdempotencyService idempotencyService = new IdempotencyService(Duration.ofHours(1), 100, new SimpleMeterRegistry());
+
+    @Mock
+    OrderSubmissionPipeline submissionPipeline;
+
     OrderController controller;
 
+    @BeforeEach
+    void setUp() {
+        controller = new OrderController(orderService, idempotencyService, Optional.empty());
+    }
+
     @Test
     void createOrder_delegates() {
         var req = new CreateOrderRequestDTO(List.of());
         when(orderService.createOrder(req)).thenReturn(new OrderResponseDTO(5L, "PAID", new BigDecimal("1.00"), null));
-        var out = controller.createOrder(req);
-        assertThat(out.orderId()).isEqualTo(5L);
+        var out = controller.createOrder(req, null);
+        assertThat(out.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(((OrderResponseDTO) out.getBody()).orderId()).isEqualTo(5L);
+    }
+
+    @Test
+    void createOrder_asyncMode_queuesAndAnswersAccepted() {
+        controller = new OrderController(orderService, idempotencyService, Optional.of(submissionPipeline));
+        var req = new CreateOrderRequestDTO(List.of());
+        when(submissionPipeline.submit(req)).thenReturn(new OrderSubmissionDTO("t1", "QUEUED", null, null));
+
+        var out = controller.createOrder(req, null);
+
+        assertThat(out.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(out.getHeaders().getLocation()).hasToString("/api/orders/submissions/t1");
+        verify(orderService, never()).createOrder(req);
+    }
+
+    @Test
+    void getSubmission_syncMode_notFound() {
+        assertThatThrownBy(() -> controller.getSubmission("t1")).isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void createOrder_retryWithSameKey_returnsFirstResponse() {
+        var req = new CreateOrderRequestDTO(List.of());
+        when(orderService.createOrder(req)).thenReturn(new OrderResponseDTO(5L, "PAID", new BigDecimal("1.00"), null));
+
+        var first = controller.createOrder(req, "k1");
+        var retry = controller.createOrder(req, "k1");
+
+        assertThat(retry.getBody()).isSameAs(first.getBody());
+        verify(orderService, times(1)).createOrder(req);
     }
 
     @Test
     void getMyOrders_delegates() {
-        when(orderService.getMyOrders()).thenReturn(List.of(new OrderResponseDTO(6L,"PAID",new BigDecimal("2.00"),null)));
-        var out = controller.getMyOrders();
-        assertThat(out).hasSize(1);
+        var page = new CursorPageDTO<>(List.of(new OrderHistoryDTO(6L,"PAID",new BigDecimal("2.00"),null,null)), 1, false, null);
+        when(orderService.getMyOrders("PAID", null, 10, true)).thenReturn(page);
+        var out = controller.getMyOrders("PAID", null, 10, true);
+        assertThat(out.items()).hasSize(1);
     }
 
     @Test
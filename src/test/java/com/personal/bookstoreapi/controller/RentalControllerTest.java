@@ -3,14 +3,18 @@ package com.personal.bookstoreapi.controller;
 import com.personal.bookstoreapi.dto.request.CreateRentalRequestDTO;
 import com.personal.bookstoreapi.dto.response.RentalDetailsResponseDTO;
 import com.personal.bookstoreapi.dto.response.RentalResponseDTO;
+import com.personal.bookstoreapi.service.IdempotencyService;
 import com.personal.bookstoreapi.service.RentalService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -22,6 +26,9 @@ class RentalControllerTest {
     @Mock
     RentalService rentalService;
 
+    @Spy
+    IdempotencyService idempotencyService = new IdempotencyService(Duration.ofHours(1), 100, new SimpleMeterRegistry());
+
     @InjectMocks
     RentalController controller;
 
@@ -29,7 +36,7 @@ class RentalControllerTest {
     void createRental_delegates() {
         var req = new CreateRentalRequestDTO(1L,2);
         when(rentalService.createRental(req)).thenReturn(new RentalResponseDTO(1L,1L,"T",null,null,new BigDecimal("2.00")));
-        var out = controller.createRental(req);
+        var out = controller.createRental(req, null);
         assertThat(out.rentalId()).isEqualTo(1L);
     }
 
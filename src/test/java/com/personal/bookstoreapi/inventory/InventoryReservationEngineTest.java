@@ -0,0 +1,177 @@
+package com.personal.bookstoreapi.inventory;
+
+import com.personal.bookstoreapi.domain.entity.Book;
+import com.personal.bookstoreapi.domain.entity.PhysicalBookItem;
+import com.personal.bookstoreapi.domain.entity.StockDelta;
+import com.personal.bookstoreapi.events.BookItemChangedEvent;
+import com.personal.bookstoreapi.repository.BookItemRepository;
+import com.personal.bookstoreapi.repository.StockDeltaRepository;
+import com.personal.bookstoreapi.repository.projection.StockDeltaRow;
+import com.personal.bookstoreapi.repository.projection.StockLevelRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryReservationEngineTest {
+
+    @Mock
+    BookItemRepository bookItemRepository;
+
+    @Mock
+    StockDeltaRepository stockDeltaRepository;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    InventoryReservationEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new InventoryReservationEngine(bookItemRepository, stockDeltaRepository, eventPublisher, transactionManager, new SimpleMeterRegistry());
+    }
+
+    private static PhysicalBookItem item(long id) {
+        PhysicalBookItem p = PhysicalBookItem.builder().id(id).build();
+        Book b = new Book(); b.setId(3L); p.setBook(b); return p;
+    }
+
+    private void loadStock(long id, long stock, long pending) {
+        when(bookItemRepository.findStockLevelsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(new StockLevelRow(id, stock)));
+        when(stockDeltaRepository.sumByBookItemIds(anyCollection()))
+                .thenReturn(pending == 0 ? List.of() : List.of(new StockLevelRow(id, pending)));
+        engine.load();
+    }
+
+    @Test
+    void load_countsStockMinusPendingDeltas() {
+        loadStock(7L, 10, 4);
+
+        assertThat(engine.available(7L)).isEqualTo(6);
+    }
+
+    @Nested
+    class Reserve {
+
+        @BeforeEach
+        void startTransaction() {
+            TransactionSynchronizationManager.initSynchronization();
+        }
+
+        @AfterEach
+        void endTransaction() {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        private void complete(int status) {
+            TransactionSynchronizationManager.getSynchronizations()
+                                             .forEach(s -> s.afterCompletion(status));
+        }
+
+        @Test
+        void tryReserve_journalsSale_commitKeepsUnitsSold() {
+            loadStock(7L, 3, 0);
+            PhysicalBookItem item = item(7L);
+
+            assertThat(engine.tryReserve(item, 2)).isTrue();
+            complete(TransactionSynchronization.STATUS_COMMITTED);
+
+            ArgumentCaptor<StockDelta> delta = ArgumentCaptor.forClass(StockDelta.class);
+            verify(stockDeltaRepository).save(delta.capture());
+            assertThat(delta.getValue().getBookItem()).isSameAs(item);
+            assertThat(delta.getValue().getQuantity()).isEqualTo(2);
+            assertThat(engine.available(7L)).isEqualTo(1);
+        }
+
+        @Test
+        void tryReserve_rollbackReleasesUnits() {
+            loadStock(7L, 3, 0);
+
+            assertThat(engine.tryReserve(item(7L), 3)).isTrue();
+            assertThat(engine.tryReserve(item(7L), 1)).isFalse();
+            complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+            assertThat(engine.available(7L)).isEqualTo(3);
+        }
+
+        @Test
+        void tryReserve_untrackedItem_loadsItFirst() {
+            when(bookItemRepository.findStockLevelsByIds(List.of(9L))).thenReturn(List.of(new StockLevelRow(9L, 1L)));
+
+            assertThat(engine.tryReserve(item(9L), 1)).isTrue();
+            assertThat(engine.tryReserve(item(9L), 1)).isFalse();
+        }
+    }
+
+    @Test
+    void flush_subtractsSalesPerItem_deletesDeltas_publishesChanges() {
+        when(stockDeltaRepository.findOldest(any(Pageable.class))).thenReturn(List.of(
+                new StockDeltaRow(1L, 3L, 7L, 2),
+                new StockDeltaRow(2L, 3L, 8L, 1),
+                new StockDeltaRow(3L, 3L, 7L, 1)));
+
+        engine.flush();
+
+        verify(bookItemRepository).subtractSoldStock(eq(7L), eq(3), any());
+        verify(bookItemRepository).subtractSoldStock(eq(8L), eq(1), any());
+        verify(stockDeltaRepository).deleteAllByIdInBatch(List.of(1L, 2L, 3L));
+        verify(eventPublisher, times(2)).publishEvent(any(BookItemChangedEvent.class));
+    }
+
+    @Test
+    void driftCheck_correctsOnlyWhenSeenTwice() {
+        loadStock(7L, 5, 0);
+        when(stockDeltaRepository.findOldest(any(Pageable.class))).thenReturn(List.of());
+        // restocked to 8
+        when(bookItemRepository.findStockLevelsByIds(anyCollection())).thenReturn(List.of(new StockLevelRow(7L, 8L)));
+
+        engine.checkDrift();
+        assertThat(engine.available(7L)).isEqualTo(5);
+
+        // the suspect is re-checked on the next flush tick
+        engine.flush();
+        assertThat(engine.available(7L)).isEqualTo(8);
+    }
+
+    @Test
+    void driftCheck_transientDifference_isNotApplied() {
+        loadStock(7L, 5, 0);
+        when(stockDeltaRepository.findOldest(any(Pageable.class))).thenReturn(List.of());
+        when(bookItemRepository.findStockLevelsByIds(anyCollection()))
+                .thenReturn(List.of(new StockLevelRow(7L, 6L)))
+                .thenReturn(List.of(new StockLevelRow(7L, 5L)));
+
+        engine.checkDrift();
+        engine.flush();
+
+        assertThat(engine.available(7L)).isEqualTo(5);
+        verify(bookItemRepository, never()).subtractSoldStock(anyLong(), anyInt(), any());
+    }
+}
@@ -0,0 +1,92 @@
+package com.personal.bookstoreapi.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StockCountersTest {
+
+    private final StockCounters counters = new StockCounters();
+
+    @Test
+    void reserve_commit_release_moveUnitsBetweenAvailableAndHeld() {
+        counters.putIfAbsent(7, 5);
+
+        assertThat(counters.tryReserve(7, 3)).isTrue();
+        assertThat(counters.tryReserve(7, 3)).isFalse();
+        assertThat(counters.available(7)).isEqualTo(2);
+        assertThat(counters.held(7)).isEqualTo(3);
+
+        counters.commit(7, 2);
+        counters.release(7, 1);
+        assertThat(counters.available(7)).isEqualTo(3);
+        assertThat(counters.held(7)).isZero();
+    }
+
+    @Test
+    void putIfAbsent_keepsExistingCounter() {
+        assertThat(counters.putIfAbsent(7, 5)).isTrue();
+        counters.tryReserve(7, 1);
+
+        assertThat(counters.putIfAbsent(7, 9)).isFalse();
+        assertThat(counters.available(7)).isEqualTo(4);
+    }
+
+    @Test
+    void unknownItem_throws() {
+        assertThat(counters.contains(3)).isFalse();
+        assertThatThrownBy(() -> counters.tryReserve(3, 1)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void growsPastInitialCapacity_keepsCountersAndSortedIds() {
+        for (long id = 5_000; id > 0; id--) {
+            counters.putIfAbsent(id, (int) id);
+        }
+        counters.tryReserve(4_321, 21);
+
+        assertThat(counters.size()).isEqualTo(5_000);
+        assertThat(counters.available(4_321)).isEqualTo(4_300);
+        assertThat(counters.held(4_321)).isEqualTo(21);
+        assertThat(counters.ids()).hasSize(5_000)
+                                  .startsWith(1L, 2L, 3L)
+                                  .endsWith(5_000L);
+    }
+
+    @Test
+    void concurrentReservations_neverOversell() throws Exception {
+        counters.putIfAbsent(1, 1_000);
+        AtomicInteger sold = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                long firstNewId = 10_000L * (t + 1);
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        if (counters.tryReserve(1, 1)) sold.incrementAndGet();
+                        // force resizes while others reserve
+                        counters.putIfAbsent(firstNewId + i, 0);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(sold.get()).isEqualTo(1_000);
+        assertThat(counters.available(1)).isZero();
+        assertThat(counters.held(1)).isEqualTo(1_000);
+    }
+}
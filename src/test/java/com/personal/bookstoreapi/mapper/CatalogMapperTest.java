@@ -7,8 +7,11 @@ import com.personal.bookstoreapi.domain.entity.PhysicalBookItem;
 import com.personal.bookstoreapi.dto.response.BookDetailsDTO;
 import com.personal.bookstoreapi.dto.response.BookItemDTO;
 import com.personal.bookstoreapi.dto.response.BookListDTO;
+import com.personal.bookstoreapi.repository.projection.BookDetailsRow;
+import com.personal.bookstoreapi.repository.projection.BookListRow;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -58,4 +61,21 @@ class CatalogMapperTest {
         BookListDTO dto = mapper.toBookListDTO(b);
         assertThat(dto.authors()).isEmpty();
     }
+
+    @Test
+    void toBookListDTO_fromRow_nullAuthors_returnsEmptySet() {
+        BookListDTO dto = mapper.toBookListDTO(new BookListRow(1L, "T", "I", "EN", 2020, "c"), null);
+        assertThat(dto.title()).isEqualTo("T");
+        assertThat(dto.authors()).isEmpty();
+    }
+
+    @Test
+    void toBookDetailsDTO_fromRows_collectsAuthors() {
+        BookDetailsDTO dto = mapper.toBookDetailsDTO(List.of(
+                new BookDetailsRow(3L, "T", "D", null, null, null, null, 1L, "A"),
+                new BookDetailsRow(3L, "T", "D", null, null, null, null, 2L, "B")
+        ));
+        assertThat(dto.description()).isEqualTo("D");
+        assertThat(dto.authors()).hasSize(2);
+    }
 }
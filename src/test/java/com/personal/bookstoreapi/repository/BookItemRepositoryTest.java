@@ -0,0 +1,76 @@
+package com.personal.bookstoreapi.repository;
+
+import com.personal.bookstoreapi.domain.entity.Book;
+import com.personal.bookstoreapi.domain.entity.DigitalBookItem;
+import com.personal.bookstoreapi.domain.entity.PhysicalBookItem;
+import com.personal.bookstoreapi.domain.enums.BookItemType;
+import com.personal.bookstoreapi.repository.projection.BookItemFacetRow;
+import com.personal.bookstoreapi.repository.projection.BookItemRow;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class BookItemRepositoryTest {
+
+    @Autowired
+    TestEntityManager em;
+
+    @Autowired
+    BookItemRepository bookItemRepository;
+
+    @Test
+    void findFacetRowsByBookIds_mapsSubclassToItemType() {
+        Book book = em.persist(Book.builder().title("1984").build());
+        Book other = em.persist(Book.builder().title("Animal Farm").build());
+        em.persist(PhysicalBookItem.builder().book(book).price(BigDecimal.TEN).availableForRent(false).stockQuantity(3).build());
+        em.persist(DigitalBookItem.builder().book(book).price(BigDecimal.ONE).availableForRent(true).rentPrice(BigDecimal.ONE).build());
+        em.persist(PhysicalBookItem.builder().book(other).price(BigDecimal.TEN).availableForRent(false).stockQuantity(1).build());
+        em.flush();
+        em.clear();
+
+        List<BookItemFacetRow> rows = bookItemRepository.findFacetRowsByBookIds(List.of(book.getId()));
+
+        assertThat(rows).containsExactlyInAnyOrder(
+                new BookItemFacetRow(book.getId(), BookItemType.PHYSICAL, false),
+                new BookItemFacetRow(book.getId(), BookItemType.DIGITAL, true)
+        );
+    }
+
+    @Test
+    void findRowsByBookIds_readsSubclassColumns() {
+        Book book = em.persist(Book.builder().title("1984").build());
+        em.persist(PhysicalBookItem.builder().book(book).price(BigDecimal.TEN).availableForRent(false).stockQuantity(3).build());
+        em.persist(DigitalBookItem.builder().book(book).price(BigDecimal.ONE).availableForRent(true).rentPrice(BigDecimal.ONE).fileFormat("EPUB").build());
+        em.flush();
+        em.clear();
+
+        List<BookItemRow> rows = bookItemRepository.findRowsByBookIds(List.of(book.getId()));
+
+        assertThat(rows).extracting(BookItemRow::type, BookItemRow::fileFormat, BookItemRow::stockQuantity)
+                        .containsExactly(tuple("PHYSICAL", null, 3), tuple("DIGITAL", "EPUB", null));
+    }
+
+    @Test
+    void decrementStock_onlyWhenEnoughStock() {
+        Book book = em.persist(Book.builder().title("1984").build());
+        PhysicalBookItem item = em.persist(PhysicalBookItem.builder().book(book).price(BigDecimal.TEN).availableForRent(false).stockQuantity(3).build());
+        em.flush();
+        em.clear();
+
+        assertThat(bookItemRepository.decrementStock(item.getId(), 2, Instant.now())).isEqualTo(1);
+        assertThat(bookItemRepository.decrementStock(item.getId(), 2, Instant.now())).isZero();
+        assertThat(bookItemRepository.decrementStock(item.getId(), 1, Instant.now())).isEqualTo(1);
+
+        em.clear();
+        assertThat(em.find(PhysicalBookItem.class, item.getId()).getStockQuantity()).isZero();
+    }
+}
@@ -0,0 +1,186 @@
+package com.personal.bookstoreapi.repository;
+
+import com.personal.bookstoreapi.domain.entity.Author;
+import com.personal.bookstoreapi.domain.entity.Book;
+import com.personal.bookstoreapi.domain.entity.Order;
+import com.personal.bookstoreapi.domain.entity.OrderItem;
+import com.personal.bookstoreapi.domain.entity.PhysicalBookItem;
+import com.personal.bookstoreapi.domain.entity.User;
+import com.personal.bookstoreapi.domain.enums.OrderStatus;
+import com.personal.bookstoreapi.dto.response.BookDetailsDTO;
+import com.personal.bookstoreapi.mapper.CatalogMapper;
+import com.personal.bookstoreapi.repository.projection.BookAuthorRow;
+import com.personal.bookstoreapi.repository.projection.BookDetailsRow;
+import com.personal.bookstoreapi.repository.projection.BookExportRow;
+import com.personal.bookstoreapi.repository.projection.BookListRow;
+import com.personal.bookstoreapi.repository.projection.BookSalesRow;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class BookRepositoryTest {
+
+    @Autowired
+    TestEntityManager em;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    Author orwell;
+    Author rowling;
+    List<Book> books;
+
+    @BeforeEach
+    void setup() {
+        orwell = em.persist(Author.builder().name("George Orwell").build());
+        rowling = em.persist(Author.builder().name("J.K. Rowling").build());
+
+        books = List.of(
+                em.persist(book("1984", "EN", 1949, orwell)),
+                em.persist(book("Animal Farm", "EN", 1945, orwell)),
+                em.persist(book("Harry Potter", "EN", 1997, rowling)),
+                em.persist(book("Ferma animalelor", "RO", 1945, orwell)),
+                em.persist(book("Homage to Catalonia", "EN", 1938, orwell))
+        );
+        em.flush();
+        em.clear();
+    }
+
+    private Statistics statistics() {
+        Statistics stats = em.getEntityManager()
+                             .getEntityManagerFactory()
+                             .unwrap(SessionFactory.class)
+                             .getStatistics();
+        stats.clear();
+        return stats;
+    }
+
+    private static Book book(String title, String language, int year, Author author) {
+        return Book.builder().title(title).language(language).publicationYear(year).authors(Set.of(author)).build();
+    }
+
+    private static List<Long> ids(List<BookListRow> rows) {
+        return rows.stream().map(BookListRow::id).toList();
+    }
+
+    @Test
+    void findPageAfter_walksAllRowsInIdOrder() {
+        List<BookListRow> first = bookRepository.findListRowsAfter(null, null, null, null, null, PageRequest.of(0, 2));
+        List<BookListRow> second = bookRepository.findListRowsAfter(first.get(1).id(), null, null, null, null, PageRequest.of(0, 2));
+        List<BookListRow> third = bookRepository.findListRowsAfter(second.get(1).id(), null, null, null, null, PageRequest.of(0, 2));
+
+        assertThat(ids(first)).containsExactly(books.get(0).getId(), books.get(1).getId());
+        assertThat(ids(second)).containsExactly(books.get(2).getId(), books.get(3).getId());
+        assertThat(ids(third)).containsExactly(books.get(4).getId());
+    }
+
+    @Test
+    void findPageAfter_appliesLanguageYearAndAuthorFilters() {
+        List<BookListRow> res = bookRepository.findListRowsAfter(null, "EN", 1940, 1950, orwell.getId(), PageRequest.of(0, 10));
+
+        assertThat(res).extracting(BookListRow::title).containsExactly("1984", "Animal Farm");
+    }
+
+    @Test
+    void findPageAfter_authorFilter_onlyThatAuthorsBooks() {
+        List<BookListRow> res = bookRepository.findListRowsAfter(null, null, null, null, rowling.getId(), PageRequest.of(0, 10));
+
+        assertThat(res).extracting(BookListRow::title).containsExactly("Harry Potter");
+    }
+
+    @Test
+    void listPage_withAuthors_runsTwoQueriesRegardlessOfPageSize() {
+        Statistics stats = statistics();
+
+        List<BookListRow> page = bookRepository.findListRowsAfter(null, null, null, null, null, PageRequest.of(0, 10));
+        List<BookAuthorRow> authors = bookRepository.findAuthorRowsByBookIds(ids(page));
+
+        assertThat(page).hasSize(5);
+        assertThat(authors).hasSize(5);
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(2);
+        // projections never hydrate Book entities
+        assertThat(stats.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void findDetailsRowsById_oneQuery_oneRowPerAuthor() {
+        Book coAuthored = em.persist(Book.builder().title("Co").description("long text").authors(Set.of(orwell, rowling)).build());
+        em.flush();
+        em.clear();
+        Statistics stats = statistics();
+
+        BookDetailsDTO dto = new CatalogMapper().toBookDetailsDTO(bookRepository.findDetailsRowsById(coAuthored.getId()));
+
+        assertThat(dto.description()).isEqualTo("long text");
+        assertThat(dto.authors()).extracting("fullName").containsExactlyInAnyOrder("George Orwell", "J.K. Rowling");
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(stats.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void findDetailsRowsById_bookWithoutAuthors_returnsSingleRow() {
+        Book lonely = em.persist(Book.builder().title("Anon").build());
+        em.flush();
+        em.clear();
+
+        List<BookDetailsRow> rows = bookRepository.findDetailsRowsById(lonely.getId());
+
+        assertThat(rows).hasSize(1);
+        assertThat(new CatalogMapper().toBookDetailsDTO(rows).authors()).isEmpty();
+    }
+
+    @Test
+    void findDetailsRowsById_unknownId_returnsEmpty() {
+        assertThat(bookRepository.findDetailsRowsById(-1L)).isEmpty();
+    }
+
+    @Test
+    void findExportRowsAfter_pagesThroughAllBooksInIdOrder() {
+        List<Long> ids = books.stream().map(Book::getId).toList();
+
+        List<BookExportRow> first = bookRepository.findExportRowsAfter(null, PageRequest.of(0, 1));
+        List<BookExportRow> rest = bookRepository.findExportRowsAfter(first.get(0).id(), PageRequest.of(0, ids.size()));
+
+        assertThat(first).extracting(BookExportRow::id).containsExactly(ids.get(0));
+        assertThat(rest).extracting(BookExportRow::id).containsExactlyElementsOf(ids.subList(1, ids.size()));
+    }
+
+    @Test
+    void addSoldCopies_addsOnlyTheGivenOrdersQuantities() {
+        User user = em.persist(User.builder().email("a@x").fullName("A").passwordHash("p").build());
+        PhysicalBookItem nineteen = em.persist(PhysicalBookItem.builder().book(books.get(0)).price(BigDecimal.TEN).availableForRent(false).stockQuantity(9).build());
+        PhysicalBookItem farm = em.persist(PhysicalBookItem.builder().book(books.get(1)).price(BigDecimal.TEN).availableForRent(false).stockQuantity(9).build());
+        Order first = em.persist(Order.builder().user(user).status(OrderStatus.PAID).build());
+        Order second = em.persist(Order.builder().user(user).status(OrderStatus.PAID).build());
+        Order later = em.persist(Order.builder().user(user).status(OrderStatus.PAID).build());
+        em.persist(OrderItem.builder().order(first).bookItem(nineteen).quantity(2).unitPrice(BigDecimal.TEN).build());
+        em.persist(OrderItem.builder().order(second).bookItem(nineteen).quantity(3).unitPrice(BigDecimal.TEN).build());
+        em.persist(OrderItem.builder().order(later).bookItem(farm).quantity(4).unitPrice(BigDecimal.TEN).build());
+        em.flush();
+
+        bookRepository.addSoldCopies(List.of(first.getId()));
+        bookRepository.addSoldCopies(List.of(second.getId(), later.getId()));
+        em.clear();
+
+        assertThat(bookRepository.findSalesRowsByOrderIds(List.of(first.getId()))).containsExactly(
+                new BookSalesRow(books.get(0).getId(), 5L));
+        assertThat(bookRepository.findSalesRows()).containsExactlyInAnyOrder(
+                new BookSalesRow(books.get(0).getId(), 5L),
+                new BookSalesRow(books.get(1).getId(), 4L));
+    }
+}
@@ -0,0 +1,120 @@
+package com.personal.bookstoreapi.repository;
+
+import com.personal.bookstoreapi.domain.entity.Book;
+import com.personal.bookstoreapi.domain.entity.Order;
+import com.personal.bookstoreapi.domain.entity.OrderItem;
+import com.personal.bookstoreapi.domain.entity.PhysicalBookItem;
+import com.personal.bookstoreapi.domain.entity.User;
+import com.personal.bookstoreapi.domain.enums.OrderStatus;
+import com.personal.bookstoreapi.repository.projection.OrderDueRow;
+import com.personal.bookstoreapi.repository.projection.OrderItemRow;
+import com.personal.bookstoreapi.repository.projection.OrderSummaryRow;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class OrderRepositoryTest {
+
+    private static final List<OrderStatus> TIMED = List.of(OrderStatus.PAID, OrderStatus.SHIPPING);
+
+    @Autowired
+    TestEntityManager em;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    private Order order(User user, OrderStatus status, Instant dueAt) {
+        return em.persist(Order.builder().user(user).status(status).statusDueAt(dueAt).build());
+    }
+
+    @Test
+    void advanceStatus_onlyMovesDueOrdersInTheExpectedStatus() {
+        User user = em.persist(User.builder().email("a@x").fullName("A").passwordHash("p").build());
+        Instant now = Instant.parse("2024-05-01T10:00:00Z");
+        Order due = order(user, OrderStatus.PAID, now.minusSeconds(1));
+        Order legacy = order(user, OrderStatus.PAID, null);
+        Order notYet = order(user, OrderStatus.PAID, now.plusSeconds(10));
+        Order cancelled = order(user, OrderStatus.CANCELLED, null);
+        em.flush();
+        List<Long> ids = List.of(due.getId(), legacy.getId(), notYet.getId(), cancelled.getId());
+
+        int moved = orderRepository.advanceStatus(ids, OrderStatus.PAID, OrderStatus.SHIPPING, now.plusSeconds(30), now);
+        em.clear();
+
+        assertThat(moved).isEqualTo(2);
+        assertThat(orderRepository.findDueRowsByIds(ids, TIMED)).containsExactlyInAnyOrder(
+                new OrderDueRow(due.getId(), now.plusSeconds(30)),
+                new OrderDueRow(legacy.getId(), now.plusSeconds(30)),
+                new OrderDueRow(notYet.getId(), now.plusSeconds(10)));
+
+        orderRepository.advanceStatus(ids, OrderStatus.SHIPPING, OrderStatus.DELIVERED, null, now.plusSeconds(30));
+        em.clear();
+        assertThat(em.find(Order.class, due.getId()).getStatus()).isEqualTo(OrderStatus.DELIVERED);
+        assertThat(em.find(Order.class, due.getId()).getStatusDueAt()).isNull();
+        assertThat(orderRepository.findDueRowsAfter(0L, TIMED, PageRequest.of(0, 10)))
+                .extracting(OrderDueRow::id)
+                .containsExactly(notYet.getId());
+    }
+
+    @Test
+    void findPageByUserId_walksNewestFirstByKeyset_andItemsLoadForTheWholePage() {
+        User user = em.persist(User.builder().email("a@x").fullName("A").passwordHash("p").build());
+        User other = em.persist(User.builder().email("b@x").fullName("B").passwordHash("p").build());
+        Instant t0 = Instant.parse("2024-05-01T10:00:00Z");
+        Order oldest = em.persist(Order.builder().user(user).status(OrderStatus.DELIVERED).createdAt(t0).build());
+        Order tieA = em.persist(Order.builder().user(user).status(OrderStatus.PAID).createdAt(t0.plusSeconds(1)).build());
+        Order tieB = em.persist(Order.builder().user(user).status(OrderStatus.PAID).createdAt(t0.plusSeconds(1)).build());
+        em.persist(Order.builder().user(other).status(OrderStatus.PAID).createdAt(t0.plusSeconds(2)).build());
+        Book book = em.persist(Book.builder().title("Dune").build());
+        PhysicalBookItem item = em.persist(PhysicalBookItem.builder().book(book).price(BigDecimal.TEN).availableForRent(false).stockQuantity(1).build());
+        em.persist(OrderItem.builder().order(tieB).bookItem(item).quantity(2).unitPrice(BigDecimal.TEN).build());
+        em.persist(OrderItem.builder().order(oldest).bookItem(item).quantity(1).unitPrice(BigDecimal.ONE).build());
+        em.flush();
+        em.clear();
+
+        List<OrderSummaryRow> first = orderRepository.findPageByUserId(user.getId(), null, null, null, PageRequest.of(0, 2));
+        assertThat(first).extracting(OrderSummaryRow::id).containsExactly(tieB.getId(), tieA.getId());
+
+        OrderSummaryRow last = first.get(1);
+        assertThat(orderRepository.findPageByUserId(user.getId(), null, last.createdAt(), last.id(), PageRequest.of(0, 2)))
+                .extracting(OrderSummaryRow::id)
+                .containsExactly(oldest.getId());
+        assertThat(orderRepository.findPageByUserId(user.getId(), OrderStatus.DELIVERED, null, null, PageRequest.of(0, 2)))
+                .extracting(OrderSummaryRow::id)
+                .containsExactly(oldest.getId());
+
+        assertThat(orderRepository.findItemRowsByOrderIds(List.of(tieB.getId(), tieA.getId(), oldest.getId()))).containsExactly(
+                new OrderItemRow(tieB.getId(), item.getId(), "Dune", 2, new BigDecimal("10.00")),
+                new OrderItemRow(oldest.getId(), item.getId(), "Dune", 1, new BigDecimal("1.00")));
+    }
+
+    @Test
+    void findDetailsByIdAndUserId_fetchesItemsAndBooks_onlyForTheOwner() {
+        User owner = em.persist(User.builder().email("a@x").fullName("A").passwordHash("p").build());
+        User other = em.persist(User.builder().email("b@x").fullName("B").passwordHash("p").build());
+        Order order = em.persist(Order.builder().user(owner).status(OrderStatus.PAID).build());
+        Book book = em.persist(Book.builder().title("Dune").build());
+        PhysicalBookItem item = em.persist(PhysicalBookItem.builder().book(book).price(BigDecimal.TEN).availableForRent(false).stockQuantity(1).build());
+        em.persist(OrderItem.builder().order(order).bookItem(item).quantity(1).unitPrice(BigDecimal.TEN).build());
+        em.persist(OrderItem.builder().order(order).bookItem(item).quantity(2).unitPrice(BigDecimal.TEN).build());
+        em.flush();
+        em.clear();
+
+        assertThat(orderRepository.findDetailsByIdAndUserId(order.getId(), other.getId())).isEmpty();
+
+        Order loaded = orderRepository.findDetailsByIdAndUserId(order.getId(), owner.getId()).orElseThrow();
+        em.clear();
+        // everything the detail view touches must already be initialised
+        assertThat(loaded.getItems()).hasSize(2)
+                                     .allSatisfy(oi -> assertThat(oi.getBookItem().getBook().getTitle()).isEqualTo("Dune"));
+    }
+}
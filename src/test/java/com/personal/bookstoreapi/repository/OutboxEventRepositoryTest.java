@@ -0,0 +1,36 @@
+package com.personal.bookstoreapi.repository;
+
+import com.personal.bookstoreapi.domain.entity.OutboxEvent;
+import com.personal.bookstoreapi.domain.enums.OutboxEventType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class OutboxEventRepositoryTest {
+
+    @Autowired
+    TestEntityManager em;
+
+    @Autowired
+    OutboxEventRepository outboxEventRepository;
+
+    @Test
+    void findBatchForDispatch_returnsOldestFirst_upToLimit() {
+        OutboxEvent first = em.persist(OutboxEvent.builder().type(OutboxEventType.ORDER_PAID).aggregateId(7L).build());
+        OutboxEvent second = em.persist(OutboxEvent.builder().type(OutboxEventType.ORDER_PAID).aggregateId(8L).build());
+        em.persist(OutboxEvent.builder().type(OutboxEventType.ORDER_PAID).aggregateId(9L).build());
+        em.flush();
+        em.clear();
+
+        var batch = outboxEventRepository.findBatchForDispatch(PageRequest.of(0, 2));
+        assertThat(batch).extracting(OutboxEvent::getId).containsExactly(first.getId(), second.getId());
+
+        outboxEventRepository.deleteAllInBatch(batch);
+        assertThat(outboxEventRepository.findAll()).extracting(OutboxEvent::getAggregateId).containsExactly(9L);
+    }
+}
@@ -0,0 +1,56 @@
+package com.personal.bookstoreapi.repository;
+
+import com.personal.bookstoreapi.domain.entity.Book;
+import com.personal.bookstoreapi.domain.entity.DigitalBookItem;
+import com.personal.bookstoreapi.domain.entity.PhysicalBookItem;
+import com.personal.bookstoreapi.domain.entity.StockDelta;
+import com.personal.bookstoreapi.repository.projection.StockDeltaRow;
+import com.personal.bookstoreapi.repository.projection.StockLevelRow;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class StockDeltaRepositoryTest {
+
+    @Autowired
+    TestEntityManager em;
+
+    @Autowired
+    StockDeltaRepository stockDeltaRepository;
+
+    @Autowired
+    BookItemRepository bookItemRepository;
+
+    @Test
+    void journal_sumsPerItem_andFlushSubtractsFromItemRow() {
+        Book book = em.persist(Book.builder().title("1984").build());
+        PhysicalBookItem first = em.persist(PhysicalBookItem.builder().book(book).price(BigDecimal.TEN).availableForRent(false).stockQuantity(10).build());
+        PhysicalBookItem second = em.persist(PhysicalBookItem.builder().book(book).price(BigDecimal.TEN).availableForRent(false).stockQuantity(null).build());
+        em.persist(DigitalBookItem.builder().book(book).price(BigDecimal.ONE).availableForRent(false).build());
+        StockDelta d1 = em.persist(StockDelta.builder().bookItem(first).quantity(2).build());
+        em.persist(StockDelta.builder().bookItem(first).quantity(3).build());
+        em.flush();
+        em.clear();
+
+        assertThat(bookItemRepository.findStockLevelsAfter(0L, PageRequest.of(0, 10)))
+                .containsExactly(new StockLevelRow(first.getId(), 10L), new StockLevelRow(second.getId(), 0L));
+        assertThat(stockDeltaRepository.sumByBookItemIds(List.of(first.getId(), second.getId())))
+                .containsExactly(new StockLevelRow(first.getId(), 5L));
+        assertThat(stockDeltaRepository.findOldest(PageRequest.of(0, 1)))
+                .containsExactly(new StockDeltaRow(d1.getId(), book.getId(), first.getId(), 2));
+
+        bookItemRepository.subtractSoldStock(first.getId(), 5, Instant.now());
+        em.clear();
+        assertThat(bookItemRepository.findStockLevelsByIds(List.of(first.getId())))
+                .containsExactly(new StockLevelRow(first.getId(), 5L));
+    }
+}
@@ -0,0 +1,79 @@
+package com.personal.bookstoreapi.repository;
+
+import com.personal.bookstoreapi.domain.entity.Book;
+import com.personal.bookstoreapi.domain.entity.PhysicalBookItem;
+import com.personal.bookstoreapi.domain.entity.StockSlot;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class StockSlotRepositoryTest {
+
+    @Autowired
+    TestEntityManager em;
+
+    @Autowired
+    StockSlotRepository stockSlotRepository;
+
+    @Autowired
+    BookItemRepository bookItemRepository;
+
+    private PhysicalBookItem item(Book book, int stock) {
+        return em.persist(PhysicalBookItem.builder().book(book).price(BigDecimal.TEN).availableForRent(false).stockQuantity(stock).build());
+    }
+
+    private void slots(PhysicalBookItem item, int... quantities) {
+        for (int i = 0; i < quantities.length; i++) {
+            em.persist(StockSlot.builder().bookItem(item).slot(i).quantity(quantities[i]).build());
+        }
+    }
+
+    @Test
+    void findSlotWithStockForUpdate_onlyASlotWithEnough_availableStockSumsRowAndSlots() {
+        Book book = em.persist(Book.builder().title("1984").build());
+        PhysicalBookItem item = item(book, 1);
+        slots(item, 2, 3);
+        em.flush();
+        em.clear();
+
+        assertThat(stockSlotRepository.findSlotWithStockForUpdate(item.getId(), 4, PageRequest.of(0, 1))).isEmpty();
+        List<StockSlot> free = stockSlotRepository.findSlotWithStockForUpdate(item.getId(), 2, PageRequest.of(0, 1));
+        assertThat(free).extracting(StockSlot::getSlot).containsExactly(1);
+        free.get(0).setQuantity(0);
+        em.flush();
+
+        em.clear();
+        assertThat(em.find(PhysicalBookItem.class, item.getId()).getAvailableStock()).isEqualTo(3);
+        assertThat(bookItemRepository.findRowsByBookIds(List.of(book.getId())).get(0).stockQuantity()).isEqualTo(3);
+    }
+
+    @Test
+    void findUnbalancedItemIds_skipsEvenlySpreadAndNearlyEmptyItems() {
+        Book book = em.persist(Book.builder().title("1984").build());
+        PhysicalBookItem balanced = item(book, 0);
+        slots(balanced, 2, 2);
+        PhysicalBookItem almostSoldOut = item(book, 0);
+        slots(almostSoldOut, 1, 0);
+        PhysicalBookItem drained = item(book, 0);
+        slots(drained, 0, 4);
+        PhysicalBookItem restocked = item(book, 5);
+        slots(restocked, 1, 1);
+        PhysicalBookItem missingSlot = item(book, 0);
+        slots(missingSlot, 1);
+        PhysicalBookItem neverSharded = item(book, 0);
+        em.flush();
+
+        List<Long> ids = stockSlotRepository.findUnbalancedItemIds(0L, 2, PageRequest.of(0, 10));
+
+        assertThat(ids).containsExactly(drained.getId(), restocked.getId(), missingSlot.getId())
+                       .doesNotContain(balanced.getId(), almostSoldOut.getId(), neverSharded.getId());
+    }
+}
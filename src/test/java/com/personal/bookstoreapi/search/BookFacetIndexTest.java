@@ -0,0 +1,96 @@
+package com.personal.bookstoreapi.search;
+
+import com.personal.bookstoreapi.domain.enums.BookItemType;
+import com.personal.bookstoreapi.events.BookItemChangedEvent;
+import com.personal.bookstoreapi.repository.BookItemRepository;
+import com.personal.bookstoreapi.repository.BookRepository;
+import com.personal.bookstoreapi.repository.projection.BookItemFacetRow;
+import com.personal.bookstoreapi.repository.projection.BookListRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookFacetIndexTest {
+
+    @Mock
+    BookRepository bookRepository;
+
+    @Mock
+    BookItemRepository bookItemRepository;
+
+    @InjectMocks
+    BookFacetIndex facetIndex;
+
+    private void seed() {
+        when(bookRepository.findListRowsAfter(isNull(), isNull(), isNull(), isNull(), isNull(), any(Pageable.class))).thenReturn(List.of(
+                new BookListRow(1L, "1984", null, "EN", 1949, null),
+                new BookListRow(2L, "Ion", null, "RO", 1920, null),
+                new BookListRow(3L, "Draft", null, null, null, null)
+        ));
+        when(bookItemRepository.findFacetRowsByBookIds(List.of(1L, 2L, 3L))).thenReturn(List.of(
+                new BookItemFacetRow(1L, BookItemType.PHYSICAL, false),
+                new BookItemFacetRow(1L, BookItemType.DIGITAL, true),
+                new BookItemFacetRow(2L, BookItemType.PHYSICAL, false)
+        ));
+        facetIndex.rebuild();
+    }
+
+    @Test
+    void rebuild_indexesBookAndItemFacets() {
+        seed();
+
+        FacetIndex.Result res = facetIndex.query(Map.of(), null, 10);
+
+        assertThat(res.keys()).containsExactly(1L, 2L, 3L);
+        assertThat(res.counts().get(BookFacetIndex.DECADE)).isEqualTo(Map.of("1940", 1, "1920", 1));
+        assertThat(res.counts().get(BookFacetIndex.ITEM_TYPE)).isEqualTo(Map.of("PHYSICAL", 2, "DIGITAL", 1));
+        assertThat(res.counts().get(BookFacetIndex.RENTABLE)).isEqualTo(Map.of("true", 1, "false", 1));
+    }
+
+    @Test
+    void onBookItemChanged_reindexesItemFacetsOfThatBook() {
+        seed();
+        when(bookRepository.findListRowsByIds(List.of(2L))).thenReturn(List.of(new BookListRow(2L, "Ion", null, "RO", 1920, null)));
+        when(bookItemRepository.findFacetRowsByBookIds(List.of(2L))).thenReturn(List.of(
+                new BookItemFacetRow(2L, BookItemType.PHYSICAL, true)));
+
+        facetIndex.onBookItemChanged(new BookItemChangedEvent(2L, 20L, BookItemChangedEvent.Change.UPDATED, true));
+
+        assertThat(facetIndex.query(Map.of(BookFacetIndex.RENTABLE, "true"), null, 10).keys()).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void onBookItemChanged_stockOnlyOrSameRentability_skipsTheReload() {
+        seed();
+
+        facetIndex.onBookItemChanged(BookItemChangedEvent.stock(2L, 20L));
+        facetIndex.onBookItemChanged(new BookItemChangedEvent(1L, 10L, BookItemChangedEvent.Change.UPDATED, true));
+        facetIndex.onBookItemChanged(new BookItemChangedEvent(2L, 20L, BookItemChangedEvent.Change.UPDATED, false));
+
+        verify(bookRepository, never()).findListRowsByIds(any());
+    }
+
+    @Test
+    void reindex_deletedBook_isRemoved() {
+        seed();
+        when(bookRepository.findListRowsByIds(List.of(1L))).thenReturn(List.of());
+
+        facetIndex.reindex(1L);
+
+        assertThat(facetIndex.query(Map.of(), null, 10).keys()).containsExactly(2L, 3L);
+    }
+}
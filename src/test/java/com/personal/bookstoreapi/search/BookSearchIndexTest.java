@@ -0,0 +1,118 @@
+package com.personal.bookstoreapi.search;
+
+import com.personal.bookstoreapi.events.AuthorChangedEvent;
+import com.personal.bookstoreapi.repository.BookRepository;
+import com.personal.bookstoreapi.repository.projection.BookAuthorRow;
+import com.personal.bookstoreapi.repository.projection.BookTextRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookSearchIndexTest {
+
+    @Mock
+    BookRepository bookRepository;
+
+    @InjectMocks
+    BookSearchIndex searchIndex;
+
+    private void seed() {
+        when(bookRepository.findTextRowsAfter(isNull(), any(Pageable.class))).thenReturn(List.of(
+                new BookTextRow(1L, "1984", "A dystopian novel about surveillance."),
+                new BookTextRow(2L, "Crime and Punishment", "A psychological novel.")
+        ));
+        when(bookRepository.findAuthorRowsByBookIds(List.of(1L, 2L))).thenReturn(List.of(
+                new BookAuthorRow(1L, 10L, "George Orwell"),
+                new BookAuthorRow(2L, 11L, "Fyodor Dostoevsky")
+        ));
+        searchIndex.rebuild();
+    }
+
+    private List<Long> keys(String query) {
+        return searchIndex.search(query, 10).hits().stream().map(InvertedIndex.Hit::key).toList();
+    }
+
+    @Test
+    void rebuild_indexesTitleDescriptionAndAuthors() {
+        seed();
+
+        assertThat(keys("orwell")).containsExactly(1L);
+        assertThat(keys("surveillance")).containsExactly(1L);
+        assertThat(keys("punishment")).containsExactly(2L);
+        assertThat(keys("novel")).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void reindex_updatesChangedBook() {
+        seed();
+        when(bookRepository.findTextRowById(2L)).thenReturn(Optional.of(new BookTextRow(2L, "The Idiot", null)));
+        when(bookRepository.findAuthorRowsByBookIds(List.of(2L))).thenReturn(List.of(new BookAuthorRow(2L, 11L, "Fyodor Dostoevsky")));
+
+        searchIndex.reindex(2L);
+
+        assertThat(keys("punishment")).isEmpty();
+        assertThat(keys("idiot")).containsExactly(2L);
+    }
+
+    @Test
+    void reindex_deletedBook_isRemoved() {
+        seed();
+        when(bookRepository.findTextRowById(1L)).thenReturn(Optional.empty());
+
+        searchIndex.reindex(1L);
+
+        assertThat(keys("orwell")).isEmpty();
+    }
+
+    @Test
+    void rebuild_dropsBooksDeletedSinceTheLastBuild() {
+        seed();
+        when(bookRepository.findTextRowsAfter(isNull(), any(Pageable.class))).thenReturn(List.of(
+                new BookTextRow(2L, "Crime and Punishment", "A psychological novel.")
+        ));
+        when(bookRepository.findAuthorRowsByBookIds(List.of(2L))).thenReturn(List.of(new BookAuthorRow(2L, 11L, "Fyodor Dostoevsky")));
+        when(bookRepository.findTextRowsByIds(List.of(1L))).thenReturn(List.of());
+
+        searchIndex.rebuild();
+
+        assertThat(keys("orwell")).isEmpty();
+        assertThat(keys("punishment")).containsExactly(2L);
+    }
+
+    @Test
+    void onAuthorChanged_reindexesThatAuthorsBooksInOneBatch() {
+        seed();
+        when(bookRepository.findIdsByAuthorId(10L)).thenReturn(List.of(1L));
+        when(bookRepository.findTextRowsByIds(List.of(1L))).thenReturn(List.of(new BookTextRow(1L, "1984", "A dystopian novel about surveillance.")));
+        when(bookRepository.findAuthorRowsByBookIds(List.of(1L))).thenReturn(List.of(new BookAuthorRow(1L, 10L, "Eric Blair")));
+
+        searchIndex.onAuthorChanged(new AuthorChangedEvent(10L));
+
+        assertThat(keys("orwell")).isEmpty();
+        assertThat(keys("blair")).containsExactly(1L);
+    }
+
+    @Test
+    void titleMatch_ranksAboveDescriptionMatch() {
+        when(bookRepository.findTextRowsAfter(isNull(), any(Pageable.class))).thenReturn(List.of(
+                new BookTextRow(1L, "Other", "a story about a dragon"),
+                new BookTextRow(2L, "Dragon", "a story")
+        ));
+        when(bookRepository.findAuthorRowsByBookIds(List.of(1L, 2L))).thenReturn(List.of());
+        searchIndex.rebuild();
+
+        assertThat(keys("dragon")).containsExactly(2L, 1L);
+    }
+}
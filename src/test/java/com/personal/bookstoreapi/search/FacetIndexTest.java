@@ -0,0 +1,101 @@
+package com.personal.bookstoreapi.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FacetIndexTest {
+
+    private final FacetIndex index = new FacetIndex();
+
+    @BeforeEach
+    void setup() {
+        index.put(1, Map.of("lang", Set.of("EN"), "type", Set.of("PHYSICAL", "DIGITAL")));
+        index.put(2, Map.of("lang", Set.of("EN"), "type", Set.of("PHYSICAL")));
+        index.put(5, Map.of("lang", Set.of("RO"), "type", Set.of("DIGITAL")));
+        index.put(9, Map.of("lang", Set.of("EN")));
+    }
+
+    @Test
+    void query_noFilters_returnsAllInKeyOrderWithCounts() {
+        FacetIndex.Result res = index.query(Map.of(), null, 10);
+
+        assertThat(res.keys()).containsExactly(1L, 2L, 5L, 9L);
+        assertThat(res.total()).isEqualTo(4);
+        assertThat(res.counts().get("lang")).isEqualTo(Map.of("EN", 3, "RO", 1));
+        assertThat(res.counts().get("type")).isEqualTo(Map.of("PHYSICAL", 2, "DIGITAL", 2));
+    }
+
+    @Test
+    void keyDensity_isDocumentsPerBitOfKeyRange() {
+        assertThat(index.keyDensity()).isEqualTo(0.4);
+
+        index.remove(9);
+        assertThat(index.keyDensity()).isEqualTo(0.5);
+    }
+
+    @Test
+    void query_combinedFilters_intersect() {
+        FacetIndex.Result res = index.query(Map.of("lang", "EN", "type", "DIGITAL"), null, 10);
+
+        assertThat(res.keys()).containsExactly(1L);
+        assertThat(res.total()).isEqualTo(1);
+    }
+
+    @Test
+    void query_facetCountsIgnoreOwnFilter() {
+        FacetIndex.Result res = index.query(Map.of("lang", "EN"), null, 10);
+
+        // other languages stay visible, other facets are narrowed to EN
+        assertThat(res.counts().get("lang")).isEqualTo(Map.of("EN", 3, "RO", 1));
+        assertThat(res.counts().get("type")).isEqualTo(Map.of("PHYSICAL", 2, "DIGITAL", 1));
+    }
+
+    @Test
+    void query_pagesAfterKey() {
+        FacetIndex.Result res = index.query(Map.of("lang", "EN"), 1L, 1);
+
+        assertThat(res.keys()).containsExactly(2L);
+        assertThat(res.total()).isEqualTo(3);
+    }
+
+    @Test
+    void query_unknownValue_matchesNothing() {
+        assertThat(index.query(Map.of("lang", "FR"), null, 10).keys()).isEmpty();
+    }
+
+    @Test
+    void put_replacesOldValues_andRemoveClearsThem() {
+        index.put(2, Map.of("lang", Set.of("RO")));
+        index.remove(5);
+
+        FacetIndex.Result res = index.query(Map.of(), null, 10);
+        assertThat(res.keys()).containsExactly(1L, 2L, 9L);
+        assertThat(res.counts().get("lang")).isEqualTo(Map.of("EN", 2, "RO", 1));
+        assertThat(res.counts().get("type")).isEqualTo(Map.of("PHYSICAL", 1, "DIGITAL", 1));
+    }
+
+    @Test
+    void put_negativeKey_throwsIllegalArgumentException() {
+        assertThatThrownBy(() -> index.put(-1, Map.of())).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void query_keysAcrossWordBoundaries_pageAndCount() {
+        index.put(63, Map.of("lang", Set.of("EN")));
+        index.put(64, Map.of("lang", Set.of("EN"), "type", Set.of("DIGITAL")));
+        index.put(200, Map.of("lang", Set.of("RO"), "type", Set.of("DIGITAL")));
+
+        FacetIndex.Result res = index.query(Map.of("type", "DIGITAL"), 5L, 10);
+
+        assertThat(res.keys()).containsExactly(64L, 200L);
+        assertThat(res.total()).isEqualTo(4);
+        assertThat(res.counts().get("lang")).isEqualTo(Map.of("EN", 2, "RO", 2));
+        assertThat(res.counts().get("type")).isEqualTo(Map.of("PHYSICAL", 2, "DIGITAL", 4));
+    }
+}
@@ -0,0 +1,110 @@
+package com.personal.bookstoreapi.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvertedIndexTest {
+
+    InvertedIndex index = new InvertedIndex();
+
+    @Test
+    void search_ranksHigherTermFrequencyFirst() {
+        index.put(1L, Map.of("wizard", 1, "school", 1));
+        index.put(2L, Map.of("wizard", 3, "school", 1));
+        index.put(3L, Map.of("dystopia", 1));
+
+        InvertedIndex.SearchHits res = index.search(List.of("wizard"), 10);
+
+        assertThat(res.total()).isEqualTo(2);
+        assertThat(res.hits()).extracting(InvertedIndex.Hit::key).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void search_rareTermOutweighsCommonTerm() {
+        index.put(1L, Map.of("novel", 1, "wizard", 1));
+        index.put(2L, Map.of("novel", 1));
+        index.put(3L, Map.of("novel", 1));
+        index.put(4L, Map.of("novel", 1, "dystopia", 1));
+
+        InvertedIndex.SearchHits res = index.search(List.of("novel", "wizard"), 1);
+
+        assertThat(res.total()).isEqualTo(4);
+        assertThat(res.hits()).extracting(InvertedIndex.Hit::key).containsExactly(1L);
+    }
+
+    @Test
+    void put_replacesPreviousVersionOfDocument() {
+        index.put(1L, Map.of("old", 1));
+        index.put(1L, Map.of("new", 1));
+
+        assertThat(index.search(List.of("old"), 10).total()).isZero();
+        assertThat(index.search(List.of("new"), 10).hits()).extracting(InvertedIndex.Hit::key).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void remove_dropsDocument_andSurvivesCompaction() {
+        for (long key = 1; key <= 50; key++) {
+            index.put(key, Map.of("common", 1));
+        }
+        for (long key = 1; key <= 45; key++) {
+            index.remove(key);
+        }
+
+        InvertedIndex.SearchHits res = index.search(List.of("common"), 100);
+
+        assertThat(res.total()).isEqualTo(5);
+        assertThat(res.hits()).extracting(InvertedIndex.Hit::key).containsExactlyInAnyOrder(46L, 47L, 48L, 49L, 50L);
+    }
+
+    @Test
+    void repeatedReindex_renumbersDocuments_insteadOfGrowingWithUpdates() {
+        for (long key = 1; key <= 10; key++) {
+            index.put(key, Map.of("common", 1, "k" + key, 1));
+        }
+        for (int round = 0; round < 3000; round++) {
+            index.put(3L, Map.of("common", 1, "round" + round, 1));
+        }
+
+        assertThat(index.size()).isEqualTo(10);
+        assertThat(index.capacityInUse()).isLessThanOrEqualTo(2 * 10 + 1024 + 1);
+        assertThat(index.search(List.of("round2999"), 10).hits()).extracting(InvertedIndex.Hit::key).containsExactly(3L);
+        assertThat(index.search(List.of("round0"), 10).total()).isZero();
+        assertThat(index.search(List.of("k7"), 10).hits()).extracting(InvertedIndex.Hit::key).containsExactly(7L);
+        assertThat(index.search(List.of("common"), 100).total()).isEqualTo(10);
+    }
+
+    @Test
+    void search_reusedAccumulator_doesNotLeakScoresBetweenQueries() {
+        index.put(1L, Map.of("wizard", 1));
+        index.put(2L, Map.of("wizard", 1, "dragon", 1));
+
+        double first = index.search(List.of("dragon"), 10).hits().get(0).score();
+        index.search(List.of("wizard"), 10);
+
+        assertThat(index.search(List.of("dragon"), 10).hits().get(0).score()).isEqualTo(first);
+    }
+
+    @Test
+    void search_unknownTermOrEmptyIndex_returnsNothing() {
+        assertThat(index.search(List.of("x"), 10).total()).isZero();
+        index.put(1L, Map.of("a", 1));
+        assertThat(index.search(List.of("x"), 10).hits()).isEmpty();
+    }
+
+    @Test
+    void search_limit_returnsTopKOutOfAllMatches() {
+        for (long key = 1; key <= 30; key++) {
+            index.put(key, Map.of("term", (int) key));
+        }
+
+        InvertedIndex.SearchHits res = index.search(List.of("term"), 3);
+
+        assertThat(res.total()).isEqualTo(30);
+        assertThat(res.hits()).extracting(InvertedIndex.Hit::key).containsExactly(30L, 29L, 28L);
+    }
+}
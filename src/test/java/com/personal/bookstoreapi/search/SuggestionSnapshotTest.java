@@ -0,0 +1,69 @@
+package com.personal.bookstoreapi.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.personal.bookstoreapi.search.SuggestionSnapshot.Entry;
+import static com.personal.bookstoreapi.search.SuggestionSnapshot.Type.AUTHOR;
+import static com.personal.bookstoreapi.search.SuggestionSnapshot.Type.BOOK;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestionSnapshotTest {
+
+    private final SuggestionSnapshot snapshot = new SuggestionSnapshot(List.of(
+            new Entry(BOOK, 1L, "Harry Potter and the Philosopher's Stone", 50),
+            new Entry(BOOK, 2L, "Hamlet", 80),
+            new Entry(BOOK, 3L, "The Hobbit", 30),
+            new Entry(AUTHOR, 10L, "Émile Zola", 5),
+            new Entry(BOOK, 4L, "Harry Potter and the Chamber of Secrets", 20)
+    ));
+
+    private List<Long> ids(String prefix, int k) {
+        return snapshot.topK(prefix, k).stream().map(i -> snapshot.entry(i).id()).toList();
+    }
+
+    @Test
+    void topK_ranksMatchesByPopularity() {
+        assertThat(ids("ha", 10)).containsExactly(2L, 1L, 4L);
+        assertThat(ids("ha", 2)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void topK_matchesLaterWordStartsAndFoldsAccents() {
+        assertThat(ids("hob", 10)).containsExactly(3L);
+        assertThat(ids("potter and", 10)).containsExactly(1L, 4L);
+        assertThat(ids("zol", 10)).containsExactly(10L);
+        assertThat(ids("emile", 10)).containsExactly(10L);
+    }
+
+    @Test
+    void topK_entryMatchingTwiceIsReturnedOnce() {
+        assertThat(ids("the", 10)).containsExactly(1L, 3L, 4L);
+    }
+
+    @Test
+    void topK_noMatchOrMidWordPrefix_returnsNothing() {
+        assertThat(ids("xyz", 10)).isEmpty();
+        assertThat(ids("otter", 10)).isEmpty();
+        assertThat(ids("", 10)).isEmpty();
+    }
+
+    @Test
+    void addPopularity_reordersInPlace() {
+        snapshot.addPopularity(snapshot.indexOf(BOOK, 4L), 100);
+
+        assertThat(ids("harry", 10)).containsExactly(4L, 1L);
+        assertThat(snapshot.popularity(snapshot.indexOf(BOOK, 4L))).isEqualTo(120);
+    }
+
+    @Test
+    void indexOf_unknownId_returnsMinusOne() {
+        assertThat(snapshot.indexOf(AUTHOR, 1L)).isEqualTo(-1);
+    }
+
+    @Test
+    void emptySnapshot_returnsNothing() {
+        assertThat(new SuggestionSnapshot(List.of()).topK("a", 5)).isEmpty();
+    }
+}
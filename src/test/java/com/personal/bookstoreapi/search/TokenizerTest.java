@@ -0,0 +1,30 @@
+package com.personal.bookstoreapi.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenizerTest {
+
+    @Test
+    void tokenize_lowercasesFoldsAccentsAndSplitsOnPunctuation() {
+        assertThat(Tokenizer.tokenize("Crime & Punishment: Dostoïevski's Élan"))
+                .containsExactly("crime", "punishment", "dostoievski", "s", "elan");
+    }
+
+    @Test
+    void tokenize_dropsStopWords() {
+        assertThat(Tokenizer.tokenize("The Lord of the Rings")).containsExactly("lord", "rings");
+    }
+
+    @Test
+    void tokenize_keepsDigits() {
+        assertThat(Tokenizer.tokenize("1984")).containsExactly("1984");
+    }
+
+    @Test
+    void tokenize_nullOrBlank_returnsEmpty() {
+        assertThat(Tokenizer.tokenize(null)).isEmpty();
+        assertThat(Tokenizer.tokenize("  -- ")).isEmpty();
+    }
+}
@@ -0,0 +1,201 @@
+package com.personal.bookstoreapi.search;
+
+import com.personal.bookstoreapi.domain.entity.Author;
+import com.personal.bookstoreapi.events.AuthorChangedEvent;
+import com.personal.bookstoreapi.events.BookChangedEvent;
+import com.personal.bookstoreapi.events.OrdersPaidEvent;
+import com.personal.bookstoreapi.repository.AuthorRepository;
+import com.personal.bookstoreapi.repository.BookRepository;
+import com.personal.bookstoreapi.repository.projection.BookAuthorRow;
+import com.personal.bookstoreapi.repository.projection.BookListRow;
+import com.personal.bookstoreapi.repository.projection.BookSalesRow;
+import com.personal.bookstoreapi.repository.projection.BookTextRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TypeaheadIndexTest {
+
+    @Mock
+    BookRepository bookRepository;
+
+    @Mock
+    AuthorRepository authorRepository;
+
+    @InjectMocks
+    TypeaheadIndex typeaheadIndex;
+
+    private void seed() {
+        when(authorRepository.findAll()).thenReturn(List.of(
+                Author.builder().id(10L).name("George Orwell").build(),
+                Author.builder().id(11L).name("Gabriel García Márquez").build()
+        ));
+        when(bookRepository.findListRowsAfter(isNull(), isNull(), isNull(), isNull(), isNull(), any(Pageable.class))).thenReturn(List.of(
+                new BookListRow(1L, "1984", null, null, null, null),
+                new BookListRow(2L, "Animal Farm", null, null, null, null),
+                new BookListRow(3L, "One Hundred Years of Solitude", null, null, null, null)
+        ));
+        when(bookRepository.findAuthorRowsByBookIds(List.of(1L, 2L, 3L))).thenReturn(List.of(
+                new BookAuthorRow(1L, 10L, "George Orwell"),
+                new BookAuthorRow(2L, 10L, "George Orwell"),
+                new BookAuthorRow(3L, 11L, "Gabriel García Márquez")
+        ));
+        when(bookRepository.findSalesRows()).thenReturn(List.of(
+                new BookSalesRow(1L, 5L),
+                new BookSalesRow(2L, 4L),
+                new BookSalesRow(3L, 7L)
+        ));
+        typeaheadIndex.rebuild();
+    }
+
+    private List<String> texts(String prefix) {
+        return typeaheadIndex.suggest(prefix, 10).stream().map(TypeaheadIndex.Suggestion::text).toList();
+    }
+
+    @Test
+    void rebuild_ranksAuthorsBySalesOfTheirBooks() {
+        seed();
+
+        // Orwell: 5 + 4 = 9, Márquez: 7
+        assertThat(texts("g")).containsExactly("George Orwell", "Gabriel García Márquez");
+        assertThat(typeaheadIndex.suggest("anim", 10))
+                .containsExactly(new TypeaheadIndex.Suggestion("Animal Farm", "BOOK", 2L));
+    }
+
+    @Test
+    void onOrdersPaid_bumpsBookAndItsAuthorsWithoutRebuild() {
+        seed();
+        when(bookRepository.findSalesRowsByOrderIds(List.of(99L))).thenReturn(List.of(new BookSalesRow(3L, 10L)));
+
+        typeaheadIndex.onOrdersPaid(new OrdersPaidEvent(List.of(99L)));
+
+        verify(bookRepository).addSoldCopies(List.of(99L));
+
+        assertThat(texts("g")).containsExactly("Gabriel García Márquez", "George Orwell");
+    }
+
+    @Test
+    void onOrdersPaid_redelivered_doesNotCountSalesTwice() {
+        seed();
+        // the first delivery rolled back, so the counter holds this batch once
+        when(bookRepository.findSalesRowsByOrderIds(List.of(99L))).thenReturn(List.of(new BookSalesRow(3L, 8L)));
+
+        typeaheadIndex.onOrdersPaid(new OrdersPaidEvent(List.of(99L)));
+        typeaheadIndex.onOrdersPaid(new OrdersPaidEvent(List.of(99L)));
+
+        // Márquez: 8, Orwell still ahead with 9
+        assertThat(texts("g")).containsExactly("George Orwell", "Gabriel García Márquez");
+    }
+
+    @Test
+    void onBookChanged_isVisibleAfterRefresh() {
+        seed();
+        when(bookRepository.findTextRowById(4L)).thenReturn(Optional.of(new BookTextRow(4L, "Homage to Catalonia", null)));
+        when(bookRepository.findAuthorRowsByBookIds(List.of(4L))).thenReturn(List.of(new BookAuthorRow(4L, 10L, "George Orwell")));
+
+        typeaheadIndex.onBookChanged(new BookChangedEvent(4L));
+        assertThat(texts("homage")).isEmpty();
+
+        typeaheadIndex.refresh();
+        assertThat(texts("homage")).containsExactly("Homage to Catalonia");
+    }
+
+    @Test
+    void onBookChanged_deletedBookIsDropped() {
+        seed();
+        when(bookRepository.findTextRowById(2L)).thenReturn(Optional.empty());
+
+        typeaheadIndex.onBookChanged(new BookChangedEvent(2L));
+        typeaheadIndex.refresh();
+
+        assertThat(texts("animal")).isEmpty();
+    }
+
+    @Test
+    void onBookChanged_withUnchangedKeysKeepsTheSnapshot() {
+        seed();
+        when(bookRepository.findTextRowById(2L)).thenReturn(Optional.of(new BookTextRow(2L, "Animal Farm", "new description")));
+        when(bookRepository.findAuthorRowsByBookIds(List.of(2L))).thenReturn(List.of(new BookAuthorRow(2L, 10L, "George Orwell")));
+        SuggestionSnapshot before = typeaheadIndex.snapshot();
+
+        typeaheadIndex.onBookChanged(new BookChangedEvent(2L));
+        typeaheadIndex.refresh();
+
+        assertThat(typeaheadIndex.snapshot()).isSameAs(before);
+    }
+
+    @Test
+    void onBookChanged_prunesAuthorsNoBookReferences() {
+        seed();
+        when(bookRepository.findTextRowById(3L)).thenReturn(Optional.empty());
+
+        typeaheadIndex.onBookChanged(new BookChangedEvent(3L));
+        typeaheadIndex.refresh();
+
+        assertThat(texts("gabriel")).isEmpty();
+        assertThat(texts("george")).containsExactly("George Orwell");
+    }
+
+    @Test
+    void onAuthorChanged_renamesReferencedAuthor() {
+        seed();
+        when(authorRepository.findById(10L)).thenReturn(Optional.of(Author.builder().id(10L).name("Eric Blair").build()));
+
+        typeaheadIndex.onAuthorChanged(new AuthorChangedEvent(10L));
+        typeaheadIndex.refresh();
+
+        assertThat(texts("george")).isEmpty();
+        assertThat(texts("eric")).containsExactly("Eric Blair");
+    }
+
+    @Test
+    void onBookChanged_titleChangeGoesToTheOverlay_notARebuild() {
+        seed();
+        when(bookRepository.findTextRowById(2L)).thenReturn(Optional.of(new BookTextRow(2L, "Animal Farm: A Fairy Story", null)));
+        when(bookRepository.findAuthorRowsByBookIds(List.of(2L))).thenReturn(List.of(new BookAuthorRow(2L, 10L, "George Orwell")));
+        SuggestionSnapshot before = typeaheadIndex.snapshot();
+
+        typeaheadIndex.onBookChanged(new BookChangedEvent(2L));
+        typeaheadIndex.refresh();
+
+        assertThat(typeaheadIndex.snapshot()).isSameAs(before);
+        assertThat(typeaheadIndex.overlaySize()).isEqualTo(1);
+        assertThat(typeaheadIndex.suggest("animal", 10))
+                .containsExactly(new TypeaheadIndex.Suggestion("Animal Farm: A Fairy Story", "BOOK", 2L));
+        // sales still reach the overlay entry
+        typeaheadIndex.setSales(2L, 40L);
+        assertThat(texts("a")).first().isEqualTo("Animal Farm: A Fairy Story");
+    }
+
+    @Test
+    void refresh_mergesTheOverlayOnceItOutgrowsTheThreshold() {
+        seed();
+        when(bookRepository.findTextRowById(any())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            return Optional.of(new BookTextRow(id, "Volume " + id, null));
+        });
+        when(bookRepository.findAuthorRowsByBookIds(any())).thenReturn(List.of());
+
+        for (long id = 100; id < 100 + TypeaheadIndex.MIN_MERGE_THRESHOLD + 1; id++) {
+            typeaheadIndex.onBookChanged(new BookChangedEvent(id));
+        }
+        typeaheadIndex.refresh();
+
+        assertThat(typeaheadIndex.overlaySize()).isZero();
+        assertThat(typeaheadIndex.snapshot().size()).isEqualTo(5 + TypeaheadIndex.MIN_MERGE_THRESHOLD + 1);
+        assertThat(typeaheadIndex.suggest("volume", 3)).hasSize(3);
+    }
+}
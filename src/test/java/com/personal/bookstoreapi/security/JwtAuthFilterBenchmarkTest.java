@@ -0,0 +1,84 @@
+package com.personal.bookstoreapi.security;
+
+import com.personal.bookstoreapi.domain.entity.User;
+import com.personal.bookstoreapi.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cost of {@link JwtAuthFilter} per authenticated request; the token-version check is served
+ * from its cache, so only the token work is measured. Compares rebuilding the key and parser per call (the old
+ * {@code JwtService}), the shared parser, and the shared parser with the verified-claims cache.
+ * Not part of the default build: {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class JwtAuthFilterBenchmarkTest {
+
+    private static final String SECRET = "secretKeyForJWTGenerationForBookStoreAPI";
+    private static final int WARMUP = 50_000;
+    private static final int RUNS = 200_000;
+
+    private static final User USER = User.builder().id(1L).email("bench@x").fullName("Bench").passwordHash("p").build();
+
+    @Test
+    void filterPath_nanosPerRequest() throws Exception {
+        UserRepository users = mock(UserRepository.class);
+        when(users.findTokenVersionById(1L)).thenReturn(Optional.of(0));
+        TokenVersionCache tokenVersions = new TokenVersionCache(users, Duration.ofMinutes(1), 100);
+        String token = new JwtService(SECRET, 30, "primary", "", Duration.ofMinutes(1), 10_000).generateAccessToken(USER);
+
+        JwtService perCall = new JwtService(SECRET, 30, "primary", "", Duration.ofMinutes(1), 10_000) {
+            @Override
+            public Claims parseClaims(String t) {
+                return Jwts.parser()
+                           .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                           .build()
+                           .parseSignedClaims(t)
+                           .getPayload();
+            }
+        };
+        JwtService sharedParser = new JwtService(SECRET, 30, "primary", "", Duration.ZERO, 10_000);
+        JwtService cached = new JwtService(SECRET, 30, "primary", "", Duration.ofMinutes(1), 10_000);
+
+        Object[][] modes = {{"key+parser per call", perCall}, {"shared parser", sharedParser}, {"shared parser + cache", cached}};
+        for (Object[] mode : modes) {
+            run(new JwtAuthFilter((JwtService) mode[1], tokenVersions), token, WARMUP);
+        }
+
+        System.out.printf("%n%-22s %12s%n", "mode", "ns/request");
+        for (Object[] mode : modes) {
+            JwtAuthFilter filter = new JwtAuthFilter((JwtService) mode[1], tokenVersions);
+            long started = System.nanoTime();
+            run(filter, token, RUNS);
+            System.out.printf("%-22s %12.0f%n", mode[0], (double) (System.nanoTime() - started) / RUNS);
+        }
+    }
+
+    private static void run(JwtAuthFilter filter, String token, int requests) throws Exception {
+        FilterChain chain = (req, res) -> {
+        };
+        for (int i = 0; i < requests; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders/me");
+            request.addHeader("Authorization", "Bearer " + token);
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                throw new AssertionError("request was not authenticated");
+            }
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.personal.bookstoreapi.security;
+
+import com.personal.bookstoreapi.domain.entity.User;
+import com.personal.bookstoreapi.domain.enums.UserRole;
+import com.personal.bookstoreapi.repository.UserRepository;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthFilterTest {
+
+    private static final User USER = User.builder().id(3L).email("a@x").fullName("A").passwordHash("p").tokenVersion(1).build();
+
+    @Mock
+    UserRepository userRepository;
+
+    JwtService jwtService = new JwtService("secretKeyForJWTGenerationForBookStoreAPI", 30, "primary", "", Duration.ofMinutes(1), 100);
+
+    TokenVersionCache tokenVersions;
+
+    JwtAuthFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        tokenVersions = new TokenVersionCache(userRepository, Duration.ofMinutes(1), 100);
+        filter = new JwtAuthFilter(jwtService, tokenVersions);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders/me");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), mock(FilterChain.class));
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Test
+    void validToken_principalComesFromClaims_andTheVersionIsCheckedOncePerUser() throws Exception {
+        when(userRepository.findTokenVersionById(3L)).thenReturn(Optional.of(1));
+        String token = jwtService.generateAccessToken(USER);
+
+        Authentication first = authenticate(token);
+        authenticate(token);
+
+        assertThat(first.getPrincipal()).isEqualTo(new AuthenticatedUser(3L, "a@x", "A", 1, UserRole.CUSTOMER));
+        assertThat(first.getName()).isEqualTo("a@x");
+        verify(userRepository, times(1)).findTokenVersionById(3L);
+    }
+
+    @Test
+    void revokedToken_leavesTheRequestAnonymous() throws Exception {
+        when(userRepository.findTokenVersionById(3L)).thenReturn(Optional.of(1), Optional.of(2));
+        String token = jwtService.generateAccessToken(USER);
+        assertThat(authenticate(token)).isNotNull();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tokenVersions.revoke(3L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(userRepository).incrementTokenVersion(eq(3L), any());
+        assertThat(authenticate(token)).isNull();
+    }
+
+    @Test
+    void tokenOfDeletedUser_isRejected() throws Exception {
+        when(userRepository.findTokenVersionById(3L)).thenReturn(Optional.empty());
+        assertThat(authenticate(jwtService.generateAccessToken(USER))).isNull();
+    }
+
+    @Test
+    void roleClaim_becomesTheAuthority() throws Exception {
+        User partner = User.builder().id(3L).email("a@x").fullName("A").passwordHash("p").tokenVersion(1).role(UserRole.PARTNER).build();
+        when(userRepository.findTokenVersionById(3L)).thenReturn(Optional.of(1));
+
+        Authentication auth = authenticate(jwtService.generateAccessToken(partner));
+
+        assertThat(auth.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_PARTNER");
+    }
+
+    @Test
+    void garbageToken_isIgnored() throws Exception {
+        assertThat(authenticate("not-a-jwt")).isNull();
+    }
+}
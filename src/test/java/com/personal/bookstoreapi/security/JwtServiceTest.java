@@ -0,0 +1,87 @@
+package com.personal.bookstoreapi.security;
+
+import com.personal.bookstoreapi.domain.entity.User;
+import com.personal.bookstoreapi.domain.enums.UserRole;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtServiceTest {
+
+    private static final String OLD_SECRET = "oldSecretKeyForJWTGenerationForBookStoreAPI";
+    private static final String NEW_SECRET = "newSecretKeyForJWTGenerationForBookStoreAPI";
+
+    private static final User USER = User.builder().id(7L).email("a@x").fullName("A").passwordHash("p").build();
+
+    private static JwtService service(String secret, String keyId, String retired) {
+        return new JwtService(secret, 30, keyId, retired, Duration.ofMinutes(1), 100);
+    }
+
+    @Test
+    void generatedToken_roundTrips_andRepeatParsesAreServedFromTheCache() {
+        JwtService jwt = service(NEW_SECRET, "k2", "");
+        String token = jwt.generateAccessToken(USER);
+
+        Claims claims = jwt.parseClaims(token);
+        assertThat(claims.getSubject()).isEqualTo("a@x");
+        assertThat(claims.get("uid", Long.class)).isEqualTo(7L);
+        assertThat(AuthenticatedUser.from(claims)).isEqualTo(new AuthenticatedUser(7L, "a@x", "A", 0, UserRole.CUSTOMER));
+        assertThat(jwt.parseClaims(token)).isSameAs(claims);
+    }
+
+    @Test
+    void rotation_tokensFromARetiredKeyVerifyUntilTheKeyIsDropped() {
+        String oldToken = service(OLD_SECRET, "k1", "").generateAccessToken(USER);
+
+        assertThat(service(NEW_SECRET, "k2", "k1=" + OLD_SECRET).parseClaims(oldToken).getSubject()).isEqualTo("a@x");
+        assertThatThrownBy(() -> service(NEW_SECRET, "k2", "").parseClaims(oldToken)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void tokenWithoutKid_isCheckedAgainstTheCurrentKey() {
+        String legacy = Jwts.builder()
+                            .subject("a@x")
+                            .expiration(Date.from(Instant.now().plusSeconds(60)))
+                            .signWith(Keys.hmacShaKeyFor(NEW_SECRET.getBytes(StandardCharsets.UTF_8)))
+                            .compact();
+
+        assertThat(service(NEW_SECRET, "k2", "").parseClaims(legacy).getSubject()).isEqualTo("a@x");
+        assertThatThrownBy(() -> service(OLD_SECRET, "k1", "").parseClaims(legacy)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void tamperedToken_isRejected() {
+        JwtService jwt = service(NEW_SECRET, "k2", "");
+        String token = jwt.generateAccessToken(USER);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> jwt.parseClaims(tampered)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void expiredToken_isRejected() {
+        String expired = Jwts.builder()
+                             .header().keyId("k2").and()
+                             .subject("a@x")
+                             .expiration(Date.from(Instant.now().minusSeconds(1)))
+                             .signWith(Keys.hmacShaKeyFor(NEW_SECRET.getBytes(StandardCharsets.UTF_8)))
+                             .compact();
+
+        assertThatThrownBy(() -> service(NEW_SECRET, "k2", "").parseClaims(expired)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void malformedRetiredKeys_failFast() {
+        assertThatThrownBy(() -> service(NEW_SECRET, "k2", "k1")).isInstanceOf(IllegalStateException.class);
+    }
+}
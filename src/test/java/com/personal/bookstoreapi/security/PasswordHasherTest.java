@@ -0,0 +1,69 @@
+package com.personal.bookstoreapi.security;
+
+import com.personal.bookstoreapi.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHasherTest {
+
+    @Test
+    void hashAndMatch_runOnThePool_andLowerCostHashesNeedRehash() {
+        PasswordHasher hasher = new PasswordHasher(new BCryptPasswordEncoder(5), new SimpleMeterRegistry(), 1, 4, Duration.ofSeconds(5));
+
+        String hash = hasher.hash("secret");
+        assertThat(hasher.matches("secret", hash)).isTrue();
+        assertThat(hasher.matches("wrong", hash)).isFalse();
+        assertThat(hasher.needsRehash(hash)).isFalse();
+        assertThat(hasher.needsRehash(new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+    }
+
+    @Test
+    void fullQueue_rejectsImmediately_withTooManyRequests() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordHasher hasher = new PasswordHasher(blocking, registry, 1, 1, Duration.ofSeconds(5));
+
+        CompletableFuture<String> running = hasher.hashInBackground("a");
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = hasher.hashInBackground("b");
+
+        assertThatThrownBy(() -> hasher.hash("c")).isInstanceOf(TooManyRequestsException.class);
+        assertThat(hasher.hashInBackground("d")).isCompletedExceptionally();
+        assertThat(registry.counter("security.hashing.rejected").count()).isEqualTo(1.0);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).startsWith("$2a$04$");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).startsWith("$2a$04$");
+    }
+
+    @Test
+    void calibrate_picksTheHighestCostWithinTarget_clampedToBounds() {
+        // 40 ms at cost 10 -> 80 ms at 11, 160 ms at 12, 320 ms at 13
+        assertThat(PasswordHasher.calibrate(Duration.ofMillis(250), cost -> 40_000_000L)).isEqualTo(12);
+        assertThat(PasswordHasher.calibrate(Duration.ofMillis(10), cost -> 40_000_000L)).isEqualTo(PasswordHasher.MIN_STRENGTH);
+        assertThat(PasswordHasher.calibrate(Duration.ofSeconds(60), cost -> 1_000_000L)).isEqualTo(PasswordHasher.MAX_STRENGTH);
+    }
+}
@@ -9,6 +9,7 @@ import com.personal.bookstoreapi.exception.ConflictException;
 import com.personal.bookstoreapi.exception.UnauthorizedException;
 import com.personal.bookstoreapi.repository.UserRepository;
 import com.personal.bookstoreapi.security.JwtService;
+import com.personal.bookstoreapi.security.PasswordHasher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -16,14 +17,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -35,7 +38,7 @@ class AuthServiceTest {
     UserRepository userRepository;
 
     @Mock
-    PasswordEncoder passwordEncoder;
+    PasswordHasher passwordHasher;
 
     @Mock
     JwtService jwtService;
@@ -45,7 +48,7 @@ class AuthServiceTest {
     @BeforeEach
     void setup() {
         // use same bounds as application.properties
-        authService = new AuthService(userRepository, passwordEncoder, jwtService, 4, 20);
+        authService = new AuthService(userRepository, passwordHasher, jwtService, 4, 20);
     }
 
     @Nested
@@ -56,7 +59,7 @@ class AuthServiceTest {
             var req = new RegisterRequestDTO("Test@Example.com","secret"," John Doe ");
 
             when(userRepository.existsByEmail("test@example.com")).thenReturn(false);
-            when(passwordEncoder.encode("secret")).thenReturn("hashed");
+            when(passwordHasher.hash("secret")).thenReturn("hashed");
 
             User saved = User.builder()
                     .id(10L)
@@ -107,7 +110,7 @@ class AuthServiceTest {
             // min length 4
             var reqMin = new RegisterRequestDTO("x@x.com", "abcd", "Name");
             when(userRepository.existsByEmail("x@x.com")).thenReturn(false);
-            when(passwordEncoder.encode("abcd")).thenReturn("h1");
+            when(passwordHasher.hash("abcd")).thenReturn("h1");
             when(userRepository.save(any())).thenReturn(User.builder().id(1L).email("x@x.com").fullName("Name").passwordHash("h1").build());
             when(jwtService.generateAccessToken(any())).thenReturn("t");
             authService.register(reqMin);
@@ -116,7 +119,7 @@ class AuthServiceTest {
             String longPass = "p".repeat(20);
             var reqMax = new RegisterRequestDTO("y@y.com", longPass, "Name");
             when(userRepository.existsByEmail("y@y.com")).thenReturn(false);
-            when(passwordEncoder.encode(longPass)).thenReturn("h2");
+            when(passwordHasher.hash(longPass)).thenReturn("h2");
             when(userRepository.save(any())).thenReturn(User.builder().id(2L).email("y@y.com").fullName("Name").passwordHash("h2").build());
             when(jwtService.generateAccessToken(any())).thenReturn("t2");
             authService.register(reqMax);
@@ -178,11 +181,26 @@ class AuthServiceTest {
             var req = new LoginRequestDTO(" u@x.com ","pwd");
             User user = User.builder().id(5L).email("u@x.com").passwordHash("h").build();
             when(userRepository.findByEmail("u@x.com")).thenReturn(Optional.of(user));
-            when(passwordEncoder.matches("pwd","h")).thenReturn(true);
+            when(passwordHasher.matches("pwd","h")).thenReturn(true);
             when(jwtService.generateAccessToken(user)).thenReturn("tok");
 
             LoginResponseDTO res = authService.login(req);
             assertThat(res.accessToken()).isEqualTo("tok");
+            verify(passwordHasher, never()).hashInBackground(anyString());
+        }
+
+        @Test
+        void happy_hashBelowConfiguredCost_isRehashedInBackground() {
+            var req = new LoginRequestDTO("u@x.com","pwd");
+            User user = User.builder().id(5L).email("u@x.com").passwordHash("old").build();
+            when(userRepository.findByEmail("u@x.com")).thenReturn(Optional.of(user));
+            when(passwordHasher.matches("pwd","old")).thenReturn(true);
+            when(passwordHasher.needsRehash("old")).thenReturn(true);
+            when(passwordHasher.hashInBackground("pwd")).thenReturn(CompletableFuture.completedFuture("new"));
+            when(jwtService.generateAccessToken(user)).thenReturn("tok");
+
+            assertThat(authService.login(req).accessToken()).isEqualTo("tok");
+            verify(userRepository).replacePasswordHash(eq(5L), eq("old"), eq("new"), any());
         }
 
         @Test
@@ -208,7 +226,7 @@ class AuthServiceTest {
             var req = new LoginRequestDTO("u@x.com","pwd");
             User user = User.builder().id(5L).email("u@x.com").passwordHash("h").build();
             when(userRepository.findByEmail("u@x.com")).thenReturn(Optional.of(user));
-            when(passwordEncoder.matches("pwd","h")).thenReturn(false);
+            when(passwordHasher.matches("pwd","h")).thenReturn(false);
 
             assertThatThrownBy(() -> authService.login(req))
                     .isInstanceOf(IllegalArgumentException.class)
@@ -0,0 +1,81 @@
+package com.personal.bookstoreapi.service;
+
+import com.personal.bookstoreapi.dto.request.BookFacetFilterDTO;
+import com.personal.bookstoreapi.dto.response.BookListDTO;
+import com.personal.bookstoreapi.dto.response.FacetCountDTO;
+import com.personal.bookstoreapi.dto.response.FacetedBookPageDTO;
+import com.personal.bookstoreapi.exception.BadRequestException;
+import com.personal.bookstoreapi.search.BookFacetIndex;
+import com.personal.bookstoreapi.search.FacetIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookBrowseServiceTest {
+
+    @Mock
+    BookFacetIndex facetIndex;
+
+    @Mock
+    CatalogService catalogService;
+
+    @InjectMocks
+    BookBrowseService bookBrowseService;
+
+    private static BookListDTO book(long id) {
+        return new BookListDTO(id, "T" + id, null, null, null, null, null);
+    }
+
+    @Test
+    void happy_translatesFiltersAndReturnsPageWithCounts() {
+        Map<String, String> filters = Map.of(
+                BookFacetIndex.LANGUAGE, "EN",
+                BookFacetIndex.DECADE, "1940",
+                BookFacetIndex.ITEM_TYPE, "DIGITAL",
+                BookFacetIndex.RENTABLE, "true");
+        when(facetIndex.query(filters, null, 3)).thenReturn(new FacetIndex.Result(List.of(1L, 4L, 7L), 5, Map.of(
+                BookFacetIndex.LANGUAGE, Map.of("EN", 5))));
+        when(catalogService.getBooksByIds(List.of(1L, 4L))).thenReturn(List.of(book(1L), book(4L)));
+
+        FacetedBookPageDTO res = bookBrowseService.browse(new BookFacetFilterDTO("EN", 1940, "digital", true), null, 2);
+
+        assertThat(res.items()).extracting(BookListDTO::id).containsExactly(1L, 4L);
+        assertThat(res.hasNext()).isTrue();
+        assertThat(CursorCodec.decodeId(res.nextCursor())).isEqualTo(4L);
+        assertThat(res.totalHits()).isEqualTo(5);
+        assertThat(res.facets().languages()).containsExactly(new FacetCountDTO("EN", 5));
+        assertThat(res.facets().decades()).isEmpty();
+    }
+
+    @Test
+    void unhappy_unknownItemType_throwsBadRequestException() {
+        assertThatThrownBy(() -> bookBrowseService.browse(new BookFacetFilterDTO(null, null, "AUDIO", null), null, null))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void unhappy_decadeNotRound_throwsBadRequestException() {
+        assertThatThrownBy(() -> bookBrowseService.browse(new BookFacetFilterDTO(null, 1945, null, null), null, null))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void cursorWithIdOutsideTheKeyRange_isBadRequest() {
+        BookFacetFilterDTO noFilter = new BookFacetFilterDTO(null, null, null, null);
+
+        assertThatThrownBy(() -> bookBrowseService.browse(noFilter, CursorCodec.encodeId(-1L), 10))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> bookBrowseService.browse(noFilter, CursorCodec.encodeId(1L << 40), 10))
+                .isInstanceOf(BadRequestException.class);
+    }
+}
@@ -0,0 +1,90 @@
+package com.personal.bookstoreapi.service;
+
+import com.personal.bookstoreapi.dto.response.BookListDTO;
+import com.personal.bookstoreapi.dto.response.BookSearchResultDTO;
+import com.personal.bookstoreapi.dto.response.SuggestionDTO;
+import com.personal.bookstoreapi.exception.BadRequestException;
+import com.personal.bookstoreapi.search.BookSearchIndex;
+import com.personal.bookstoreapi.search.InvertedIndex;
+import com.personal.bookstoreapi.search.TypeaheadIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookSearchServiceTest {
+
+    @Mock
+    BookSearchIndex searchIndex;
+
+    @Mock
+    TypeaheadIndex typeaheadIndex;
+
+    @Mock
+    CatalogService catalogService;
+
+    @InjectMocks
+    BookSearchService bookSearchService;
+
+    private static BookListDTO book(long id) {
+        return new BookListDTO(id, "T" + id, null, null, null, null, null);
+    }
+
+    @Test
+    void happy_secondPage_keepsRankOrderAndScores() {
+        when(searchIndex.search("novel", 4)).thenReturn(new InvertedIndex.SearchHits(7, List.of(
+                new InvertedIndex.Hit(5L, 4.0), new InvertedIndex.Hit(3L, 3.0),
+                new InvertedIndex.Hit(9L, 2.0), new InvertedIndex.Hit(1L, 1.0))));
+        when(catalogService.getBooksByIds(List.of(9L, 1L))).thenReturn(List.of(book(9L), book(1L)));
+
+        BookSearchResultDTO res = bookSearchService.search("novel", 1, 2);
+
+        assertThat(res.totalHits()).isEqualTo(7);
+        assertThat(res.hits()).extracting(h -> h.book().id()).containsExactly(9L, 1L);
+        assertThat(res.hits().get(0).score()).isEqualTo(2.0);
+    }
+
+    @Test
+    void happy_hitDeletedMeanwhile_isSkipped() {
+        when(searchIndex.search("novel", 20)).thenReturn(new InvertedIndex.SearchHits(2, List.of(
+                new InvertedIndex.Hit(5L, 4.0), new InvertedIndex.Hit(3L, 3.0))));
+        when(catalogService.getBooksByIds(List.of(5L, 3L))).thenReturn(List.of(book(3L)));
+
+        BookSearchResultDTO res = bookSearchService.search("novel", 0, null);
+
+        assertThat(res.hits()).extracting(h -> h.book().id()).containsExactly(3L);
+    }
+
+    @Test
+    void unhappy_blankQuery_throwsBadRequestException() {
+        assertThatThrownBy(() -> bookSearchService.search(" ", 0, null)).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void unhappy_pageBeyondWindow_throwsBadRequestException() {
+        assertThatThrownBy(() -> bookSearchService.search("x", 100, 100)).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void happy_suggest_clampsLimitAndMapsSuggestions() {
+        when(typeaheadIndex.suggest("orw", BookSearchService.MAX_SUGGESTION_LIMIT))
+                .thenReturn(List.of(new TypeaheadIndex.Suggestion("George Orwell", "AUTHOR", 10L)));
+
+        List<SuggestionDTO> res = bookSearchService.suggest("orw", 500);
+
+        assertThat(res).containsExactly(new SuggestionDTO("George Orwell", "AUTHOR", 10L));
+    }
+
+    @Test
+    void unhappy_blankPrefix_throwsBadRequestException() {
+        assertThatThrownBy(() -> bookSearchService.suggest("", null)).isInstanceOf(BadRequestException.class);
+    }
+}
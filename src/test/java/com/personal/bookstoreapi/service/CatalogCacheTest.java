@@ -0,0 +1,85 @@
+package com.personal.bookstoreapi.service;
+
+import com.personal.bookstoreapi.config.CacheConfig;
+import com.personal.bookstoreapi.dto.response.AuthorResponseDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogCacheTest {
+
+    CacheManager cacheManager;
+    CatalogCache catalogCache;
+    List<List<Long>> loaderCalls;
+
+    @BeforeEach
+    void setup() {
+        cacheManager = new CacheConfig(Duration.ofMinutes(5), 1_000).cacheManager();
+        catalogCache = new CatalogCache(cacheManager);
+        loaderCalls = new ArrayList<>();
+    }
+
+    private Map<Long, Set<AuthorResponseDTO>> load(List<Long> ids) {
+        loaderCalls.add(ids);
+        return Map.of(1L, Set.of(new AuthorResponseDTO(10L, "A")));
+    }
+
+    @Test
+    void getAuthors_secondCall_servedFromCache() {
+        var first = catalogCache.getAuthors(List.of(1L, 2L), this::load);
+        var second = catalogCache.getAuthors(List.of(1L, 2L), this::load);
+
+        assertThat(loaderCalls).containsExactly(List.of(1L, 2L));
+        assertThat(second).isEqualTo(first);
+        // book 2 had no authors and is cached as such
+        assertThat(second.get(2L)).isEmpty();
+    }
+
+    @Test
+    void getAuthors_partialHit_loadsOnlyMissingIds() {
+        catalogCache.getAuthors(List.of(1L), this::load);
+        catalogCache.getAuthors(List.of(1L, 3L), this::load);
+
+        assertThat(loaderCalls).containsExactly(List.of(1L), List.of(3L));
+    }
+
+    @Test
+    void evictBook_dropsAllEntriesOfThatBook() {
+        cacheManager.getCache(CacheConfig.BOOK_DETAILS).put(1L, "details");
+        cacheManager.getCache(CacheConfig.BOOK_ITEMS).put(1L, List.of());
+        catalogCache.getAuthors(List.of(1L), this::load);
+
+        catalogCache.evictBook(1L);
+
+        assertThat(cacheManager.getCache(CacheConfig.BOOK_DETAILS).get(1L)).isNull();
+        assertThat(cacheManager.getCache(CacheConfig.BOOK_ITEMS).get(1L)).isNull();
+        catalogCache.getAuthors(List.of(1L), this::load);
+        assertThat(loaderCalls).hasSize(2);
+    }
+
+    @Test
+    void evictBookItems_keepsDetails() {
+        cacheManager.getCache(CacheConfig.BOOK_DETAILS).put(1L, "details");
+        cacheManager.getCache(CacheConfig.BOOK_ITEMS).put(1L, List.of());
+
+        catalogCache.evictBookItems(1L);
+
+        assertThat(cacheManager.getCache(CacheConfig.BOOK_DETAILS).get(1L)).isNotNull();
+        assertThat(cacheManager.getCache(CacheConfig.BOOK_ITEMS).get(1L)).isNull();
+    }
+
+    @Test
+    void cacheManager_onlyKnowsCatalogCaches() {
+        assertThat(cacheManager.getCacheNames())
+                .containsExactlyInAnyOrder(CacheConfig.BOOK_DETAILS, CacheConfig.BOOK_ITEMS, CacheConfig.BOOK_AUTHORS);
+        assertThat(cacheManager.getCache("unknown")).isNull();
+    }
+}
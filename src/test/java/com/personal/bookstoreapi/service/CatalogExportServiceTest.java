@@ -0,0 +1,121 @@
+package com.personal.bookstoreapi.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.personal.bookstoreapi.exception.TooManyRequestsException;
+import com.personal.bookstoreapi.mapper.CatalogMapper;
+import com.personal.bookstoreapi.repository.BookItemRepository;
+import com.personal.bookstoreapi.repository.BookRepository;
+import com.personal.bookstoreapi.repository.projection.BookAuthorRow;
+import com.personal.bookstoreapi.repository.projection.BookExportRow;
+import com.personal.bookstoreapi.repository.projection.BookItemRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogExportServiceTest {
+
+    @Mock
+    BookRepository bookRepository;
+
+    @Mock
+    BookItemRepository bookItemRepository;
+
+    @Spy
+    CatalogMapper mapper = new CatalogMapper();
+
+    @Spy
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    CatalogExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new CatalogExportService(bookRepository, bookItemRepository, mapper, objectMapper, new SimpleMeterRegistry(), 1);
+    }
+
+    private static BookExportRow row(long id) {
+        return new BookExportRow(id, "T" + id, null, null, "EN", null, null);
+    }
+
+    @Test
+    void export_writesOneJsonLinePerBook_withAuthorsAndItems() throws Exception {
+        when(bookRepository.findExportRowsAfter(isNull(), any())).thenReturn(List.of(row(1L), row(2L)));
+        when(bookRepository.findAuthorRowsByBookIds(List.of(1L, 2L))).thenReturn(List.of(new BookAuthorRow(1L, 10L, "George Orwell")));
+        when(bookItemRepository.findRowsByBookIds(List.of(1L, 2L))).thenReturn(List.of(
+                new BookItemRow(2L, 20L, "DIGITAL", BigDecimal.ONE, null, false, "EPUB", null)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = exportService.export(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(written).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertThat(first.get("authors").get(0).get("fullName").asText()).isEqualTo("George Orwell");
+        assertThat(first.get("items")).isEmpty();
+        assertThat(second.get("items").get(0).get("fileFormat").asText()).isEqualTo("EPUB");
+    }
+
+    @Test
+    void export_loadsAuthorsAndItemsOncePerChunk() throws Exception {
+        int books = CatalogExportService.CHUNK_SIZE * 2 + 1;
+        when(bookRepository.findExportRowsAfter(any(), any())).thenAnswer(i -> {
+            Long afterId = i.getArgument(0);
+            long from = afterId == null ? 1 : afterId + 1;
+            return LongStream.rangeClosed(from, Math.min(books, from + CatalogExportService.CHUNK_SIZE - 1))
+                             .mapToObj(CatalogExportServiceTest::row)
+                             .toList();
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = exportService.export(out);
+
+        assertThat(written).isEqualTo(books);
+        assertThat(out.toString(StandardCharsets.UTF_8).split("\n")).hasSize(books);
+        verify(bookRepository, times(3)).findAuthorRowsByBookIds(anyCollection());
+        verify(bookItemRepository, times(3)).findRowsByBookIds(anyCollection());
+        verify(bookRepository).findExportRowsAfter(CatalogExportService.CHUNK_SIZE * 2L, PageRequest.of(0, CatalogExportService.CHUNK_SIZE));
+    }
+
+    @Test
+    void export_emptyCatalog_writesNothing() throws Exception {
+        when(bookRepository.findExportRowsAfter(isNull(), any())).thenReturn(List.of());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(exportService.export(out)).isZero();
+        assertThat(out.size()).isZero();
+    }
+
+    @Test
+    void acquire_beyondTheLimit_isRejectedUntilReleased() {
+        exportService.acquire();
+
+        assertThatThrownBy(exportService::acquire).isInstanceOf(TooManyRequestsException.class);
+
+        exportService.release();
+        exportService.acquire();
+    }
+}
@@ -0,0 +1,69 @@
+package com.personal.bookstoreapi.service;
+
+import com.personal.bookstoreapi.config.CacheConfig;
+import com.personal.bookstoreapi.mapper.CatalogMapper;
+import com.personal.bookstoreapi.repository.BookItemRepository;
+import com.personal.bookstoreapi.repository.BookRepository;
+import com.personal.bookstoreapi.repository.projection.BookDetailsRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(classes = {
+        CacheConfig.class,
+        CatalogService.class,
+        CatalogCache.class,
+        CatalogLoadCoalescer.class,
+        CatalogGeneration.class,
+        CatalogMapper.class,
+        SimpleMeterRegistry.class
+})
+class CatalogServiceCachingTest {
+
+    @MockBean
+    BookRepository bookRepository;
+
+    @MockBean
+    BookItemRepository bookItemRepository;
+
+    @Autowired
+    CatalogService catalogService;
+
+    @Autowired
+    CatalogCache catalogCache;
+
+    @Test
+    void getBookById_readThrough_thenInvalidated() {
+        when(bookRepository.findDetailsRowsById(1L))
+                .thenReturn(List.of(new BookDetailsRow(1L, "T", null, null, null, null, null, null, null)));
+
+        catalogService.getBookById(1L);
+        var cached = catalogService.getBookById(1L);
+        verify(bookRepository, times(1)).findDetailsRowsById(1L);
+        assertThat(cached.body().title()).isEqualTo("T");
+
+        catalogCache.evictBook(1L);
+        catalogService.getBookById(1L);
+        verify(bookRepository, times(2)).findDetailsRowsById(1L);
+    }
+
+    @Test
+    void getBookItems_readThrough() {
+        when(bookRepository.existsById(2L)).thenReturn(true);
+        when(bookItemRepository.findByBookId(2L)).thenReturn(List.of());
+
+        catalogService.getBookItems(2L);
+        catalogService.getBookItems(2L);
+
+        verify(bookItemRepository, times(1)).findByBookId(2L);
+    }
+}
@@ -1,26 +1,49 @@
 package com.personal.bookstoreapi.service;
 
-import com.personal.bookstoreapi.domain.entity.Book;
+import com.personal.bookstoreapi.dto.request.BookFilterDTO;
+import com.personal.bookstoreapi.dto.response.AuthorResponseDTO;
 import com.personal.bookstoreapi.dto.response.BookDetailsDTO;
 import com.personal.bookstoreapi.dto.response.BookItemDTO;
 import com.personal.bookstoreapi.dto.response.BookListDTO;
+import com.personal.bookstoreapi.dto.response.CursorPageDTO;
+import com.personal.bookstoreapi.events.AuthorChangedEvent;
+import com.personal.bookstoreapi.events.BookItemChangedEvent;
+import com.personal.bookstoreapi.exception.BadRequestException;
 import com.personal.bookstoreapi.exception.NotFoundException;
 import com.personal.bookstoreapi.mapper.CatalogMapper;
 import com.personal.bookstoreapi.repository.BookItemRepository;
 import com.personal.bookstoreapi.repository.BookRepository;
+import com.personal.bookstoreapi.repository.projection.BookAuthorRow;
+import com.personal.bookstoreapi.repository.projection.BookDetailsRow;
+import com.personal.bookstoreapi.repository.projection.BookListRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 
+import java.time.Duration;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,30 +58,103 @@ class CatalogServiceTest {
     @Mock
     CatalogMapper mapper;
 
+    @Mock
+    CatalogCache catalogCache;
+
+    @Spy
+    CatalogLoadCoalescer loadCoalescer = new CatalogLoadCoalescer(new SimpleMeterRegistry());
+
+    @Spy
+    CatalogGeneration catalogGeneration = new CatalogGeneration(Duration.ofMinutes(10));
+
     @InjectMocks
     CatalogService catalogService;
 
+    @BeforeEach
+    void passThroughAuthorCache() {
+        lenient().when(catalogCache.getAuthors(anyList(), any()))
+                 .thenAnswer(i -> i.<Function<List<Long>, Map<Long, Set<AuthorResponseDTO>>>>getArgument(1).apply(i.getArgument(0)));
+    }
+
+    private static BookListRow row(long id, String title) {
+        return new BookListRow(id, title, null, null, null, null);
+    }
+
     @Nested
     class GetAllBooks {
         @Test
-        void happy_returnsListOfBookListDTOs() {
-            Book b1 = new Book(); b1.setId(1L); b1.setTitle("A");
-            Book b2 = new Book(); b2.setId(2L); b2.setTitle("B");
+        void happy_returnsPageOfBookListDTOs_withAuthors() {
+            BookListRow r1 = row(1L, "A");
+            BookListRow r2 = row(2L, "B");
+            Set<AuthorResponseDTO> authorsOf1 = Set.of(new AuthorResponseDTO(5L, "Auth"));
+
+            when(bookRepository.findListRowsAfter(isNull(), isNull(), isNull(), isNull(), isNull(), any(Pageable.class))).thenReturn(List.of(r1,r2));
+            when(bookRepository.findAuthorRowsByBookIds(List.of(1L,2L))).thenReturn(List.of(new BookAuthorRow(1L, 5L, "Auth")));
+            when(mapper.toBookListDTO(r1, authorsOf1)).thenReturn(new BookListDTO(1L,"A",null,null,null,null,authorsOf1));
+            when(mapper.toBookListDTO(r2, null)).thenReturn(new BookListDTO(2L,"B",null,null,null,null,Set.of()));
+
+            CursorPageDTO<BookListDTO> res = catalogService.getAllBooks(BookFilterDTO.none(), null, null);
+            assertThat(res.items()).hasSize(2);
+            assertThat(res.items().get(0).id()).isEqualTo(1L);
+            assertThat(res.items().get(0).authors()).hasSize(1);
+            assertThat(res.hasNext()).isFalse();
+            assertThat(res.nextCursor()).isNull();
+        }
 
-            when(bookRepository.findAll()).thenReturn(List.of(b1,b2));
-            when(mapper.toBookListDTO(b1)).thenReturn(new BookListDTO(1L,"A",null,null,null,null,null));
-            when(mapper.toBookListDTO(b2)).thenReturn(new BookListDTO(2L,"B",null,null,null,null,null));
+        @Test
+        void happy_emptyList_returnsEmpty_withoutAuthorQuery() {
+            when(bookRepository.findListRowsAfter(isNull(), isNull(), isNull(), isNull(), isNull(), any(Pageable.class))).thenReturn(List.of());
+            CursorPageDTO<BookListDTO> res = catalogService.getAllBooks(BookFilterDTO.none(), null, null);
+            assertThat(res.items()).isEmpty();
+            verify(bookRepository, never()).findAuthorRowsByBookIds(any());
+        }
 
-            List<BookListDTO> res = catalogService.getAllBooks();
-            assertThat(res).hasSize(2);
-            assertThat(res.get(0).id()).isEqualTo(1L);
+        @Test
+        void happy_moreRowsThanPage_returnsCursorOfLastItem() {
+            when(bookRepository.findListRowsAfter(isNull(), isNull(), isNull(), isNull(), isNull(), any(Pageable.class))).thenReturn(List.of(row(4L,"a"),row(9L,"b"),row(12L,"c")));
+            when(bookRepository.findAuthorRowsByBookIds(List.of(4L,9L))).thenReturn(List.of());
+            when(mapper.toBookListDTO(any(BookListRow.class), isNull())).thenAnswer(i -> new BookListDTO(((BookListRow) i.getArgument(0)).id(),null,null,null,null,null,null));
+
+            CursorPageDTO<BookListDTO> res = catalogService.getAllBooks(BookFilterDTO.none(), null, 2);
+            assertThat(res.items()).hasSize(2);
+            assertThat(res.hasNext()).isTrue();
+            assertThat(CursorCodec.decodeId(res.nextCursor())).isEqualTo(9L);
         }
 
         @Test
-        void happy_emptyList_returnsEmpty() {
-            when(bookRepository.findAll()).thenReturn(List.of());
-            List<BookListDTO> res = catalogService.getAllBooks();
-            assertThat(res).isEmpty();
+        void happy_cursorAndFilters_passedToRepository_sizeCapped() {
+            BookFilterDTO filter = new BookFilterDTO("EN", 1900, 2000, 3L);
+            when(bookRepository.findListRowsAfter(eq(9L), eq("EN"), eq(1900), eq(2000), eq(3L), any(Pageable.class))).thenReturn(List.of());
+
+            catalogService.getAllBooks(filter, CursorCodec.encodeId(9L), 10_000);
+
+            ArgumentCaptor<Pageable> captor = ArgumentCaptor.forClass(Pageable.class);
+            verify(bookRepository).findListRowsAfter(eq(9L), eq("EN"), eq(1900), eq(2000), eq(3L), captor.capture());
+            assertThat(captor.getValue().getPageSize()).isEqualTo(CatalogService.MAX_PAGE_SIZE + 1);
+        }
+
+        @Test
+        void unhappy_invalidCursor_throwsBadRequestException() {
+            assertThatThrownBy(() -> catalogService.getAllBooks(BookFilterDTO.none(), "not-a-cursor", null)).isInstanceOf(BadRequestException.class);
+        }
+
+        @Test
+        void unhappy_yearRangeInverted_throwsBadRequestException() {
+            BookFilterDTO filter = new BookFilterDTO(null, 2000, 1900, null);
+            assertThatThrownBy(() -> catalogService.getAllBooks(filter, null, null)).isInstanceOf(BadRequestException.class);
+        }
+    }
+
+    @Nested
+    class GetBooksByIds {
+        @Test
+        void happy_keepsRequestedOrder_skipsMissing() {
+            when(bookRepository.findListRowsByIds(List.of(3L,1L,2L))).thenReturn(List.of(row(1L,"A"), row(3L,"C")));
+            when(bookRepository.findAuthorRowsByBookIds(List.of(3L,1L))).thenReturn(List.of());
+            when(mapper.toBookListDTO(any(BookListRow.class), isNull())).thenAnswer(i -> new BookListDTO(((BookListRow) i.getArgument(0)).id(),null,null,null,null,null,null));
+
+            List<BookListDTO> res = catalogService.getBooksByIds(List.of(3L,1L,2L));
+            assertThat(res).extracting(BookListDTO::id).containsExactly(3L,1L);
         }
     }
 
@@ -66,18 +162,18 @@ class CatalogServiceTest {
     class GetBookById {
         @Test
         void happy_existingId_returnsBookDetailsDTO() {
-            Book book = new Book(); book.setId(5L); book.setTitle("Title");
-            when(bookRepository.findById(5L)).thenReturn(Optional.of(book));
-            when(mapper.toBookDetailsDTO(book)).thenReturn(new BookDetailsDTO(5L,"Title",null,null,null,null,null,null));
+            List<BookDetailsRow> rows = List.of(new BookDetailsRow(5L,"Title",null,null,null,null,null,null,null));
+            when(bookRepository.findDetailsRowsById(5L)).thenReturn(rows);
+            when(mapper.toBookDetailsDTO(rows)).thenReturn(new BookDetailsDTO(5L,"Title",null,null,null,null,null,null));
 
-            BookDetailsDTO dto = catalogService.getBookById(5L);
+            BookDetailsDTO dto = catalogService.getBookById(5L).body();
             assertThat(dto.id()).isEqualTo(5L);
             assertThat(dto.title()).isEqualTo("Title");
         }
 
         @Test
         void unhappy_nonExistingId_throwsNotFoundException() {
-            when(bookRepository.findById(99L)).thenReturn(Optional.empty());
+            when(bookRepository.findDetailsRowsById(99L)).thenReturn(List.of());
             assertThatThrownBy(() -> catalogService.getBookById(99L)).isInstanceOf(NotFoundException.class);
         }
     }
@@ -91,7 +187,7 @@ class CatalogServiceTest {
             when(bookItemRepository.findByBookId(7L)).thenReturn(List.of(bi));
             when(mapper.toBookItemDTO(bi)).thenReturn(new BookItemDTO(1L, "PHYSICAL", null, null, false, null, null));
 
-            var res = catalogService.getBookItems(7L);
+            var res = catalogService.getBookItems(7L).body();
             assertThat(res).hasSize(1);
         }
 
@@ -99,7 +195,7 @@ class CatalogServiceTest {
         void happy_bookExists_butNoItems_returnsEmptyList() {
             when(bookRepository.existsById(8L)).thenReturn(true);
             when(bookItemRepository.findByBookId(8L)).thenReturn(List.of());
-            var res = catalogService.getBookItems(8L);
+            var res = catalogService.getBookItems(8L).body();
             assertThat(res).isEmpty();
         }
 
@@ -109,4 +205,38 @@ class CatalogServiceTest {
             assertThatThrownBy(() -> catalogService.getBookItems(11L)).isInstanceOf(NotFoundException.class);
         }
     }
+
+    @Nested
+    class Versions {
+        @Test
+        void happy_bookETag_isDerivedFromTheLoadedBody() {
+            List<BookDetailsRow> rows = List.of(new BookDetailsRow(5L,"Title",null,null,null,null,null,null,null));
+            when(bookRepository.findDetailsRowsById(5L)).thenReturn(rows);
+            when(mapper.toBookDetailsDTO(rows)).thenReturn(
+                    new BookDetailsDTO(5L,"Title",null,null,null,null,null,null),
+                    new BookDetailsDTO(5L,"Title",null,null,null,null,null,null),
+                    new BookDetailsDTO(5L,"Renamed",null,null,null,null,null,null));
+
+            String first = catalogService.getBookById(5L).version().etag();
+
+            assertThat(first).startsWith("b5-");
+            assertThat(catalogService.getBookById(5L).version().etag()).isEqualTo(first);
+            assertThat(catalogService.getBookById(5L).version().etag()).isNotEqualTo(first);
+        }
+
+        @Test
+        void happy_listingETag_perQuery_movesWithCatalogChangesButNotStock() {
+            String page = catalogService.getCatalogVersion(BookFilterDTO.none(), null, null).etag();
+
+            assertThat(catalogService.getCatalogVersion(BookFilterDTO.none(), null, null).etag()).isEqualTo(page);
+            assertThat(catalogService.getCatalogVersion(BookFilterDTO.none(), "c", null).etag()).isNotEqualTo(page);
+
+            catalogGeneration.onBookItemChanged(BookItemChangedEvent.stock(1L, 2L));
+            assertThat(catalogService.getCatalogVersion(BookFilterDTO.none(), null, null).etag()).isEqualTo(page);
+
+            catalogGeneration.onAuthorChanged(new AuthorChangedEvent(3L));
+            assertThat(catalogService.getCatalogVersion(BookFilterDTO.none(), null, null).etag()).isNotEqualTo(page);
+            verify(bookRepository, never()).findListRowsAfter(any(), any(), any(), any(), any(), any());
+        }
+    }
 }
@@ -0,0 +1,144 @@
+package com.personal.bookstoreapi.service;
+
+import com.personal.bookstoreapi.dto.request.CreateRentalRequestDTO;
+import com.personal.bookstoreapi.exception.BadRequestException;
+import com.personal.bookstoreapi.exception.ConflictException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyServiceTest {
+
+    SimpleMeterRegistry meterRegistry;
+    IdempotencyService idempotency;
+    AtomicInteger calls;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        idempotency = new IdempotencyService(Duration.ofHours(1), 100, meterRegistry);
+        calls = new AtomicInteger();
+        TestSecurityUtil.setAuthentication(new UsernamePasswordAuthenticationToken("a@x", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestSecurityUtil.clearAuthentication();
+    }
+
+    private String create() {
+        return "order-" + calls.incrementAndGet();
+    }
+
+    @Test
+    void noKey_runsEveryTime() {
+        var req = new CreateRentalRequestDTO(1L, 2);
+
+        idempotency.execute("rentals", null, req, this::create);
+        idempotency.execute("rentals", null, req, this::create);
+
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void retry_returnsStoredResponse_withoutRunningAgain() {
+        var req = new CreateRentalRequestDTO(1L, 2);
+
+        String first = idempotency.execute("rentals", "k1", req, this::create);
+        String retry = idempotency.execute("rentals", "k1", new CreateRentalRequestDTO(1L, 2), this::create);
+
+        assertThat(retry).isEqualTo(first);
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(meterRegistry.counter("idempotency.replayed", "scope", "rentals").count()).isEqualTo(1);
+    }
+
+    @Test
+    void sameKey_differentRequest_conflicts() {
+        idempotency.execute("rentals", "k1", new CreateRentalRequestDTO(1L, 2), this::create);
+
+        assertThatThrownBy(() -> idempotency.execute("rentals", "k1", new CreateRentalRequestDTO(1L, 3), this::create))
+                .isInstanceOf(ConflictException.class);
+    }
+
+    @Test
+    void keysAreScopedPerUserAndEndpoint() {
+        var req = new CreateRentalRequestDTO(1L, 2);
+        idempotency.execute("rentals", "k1", req, this::create);
+        idempotency.execute("orders", "k1", req, this::create);
+        TestSecurityUtil.setAuthentication(new UsernamePasswordAuthenticationToken("b@x", null, List.of()));
+        idempotency.execute("rentals", "k1", req, this::create);
+
+        assertThat(calls.get()).isEqualTo(3);
+    }
+
+    @Test
+    void failure_isNotStored_retryRunsAgain() {
+        var req = new CreateRentalRequestDTO(1L, 2);
+
+        assertThatThrownBy(() -> idempotency.execute("rentals", "k1", req, () -> {
+            throw new IllegalStateException("No stock available");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(idempotency.<String>execute("rentals", "k1", req, this::create)).isEqualTo("order-1");
+    }
+
+    @Test
+    void invalidKey_isBadRequest() {
+        var req = new CreateRentalRequestDTO(1L, 2);
+
+        assertThatThrownBy(() -> idempotency.execute("rentals", " ", req, this::create)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> idempotency.execute("rentals", "x".repeat(256), req, this::create)).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void concurrentDuplicates_runOnce() throws Exception {
+        var req = new CreateRentalRequestDTO(1L, 2);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(5);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(pool.submit(() -> idempotency.execute("rentals", "k1", req, () -> {
+                started.countDown();
+                await(release);
+                return create();
+            })));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 0; i < 4; i++) {
+                results.add(pool.submit(() -> idempotency.execute("rentals", "k1", req, this::create)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("order-1");
+            }
+            assertThat(calls.get()).isEqualTo(1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
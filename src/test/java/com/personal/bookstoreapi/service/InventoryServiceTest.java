@@ -0,0 +1,216 @@
+package com.personal.bookstoreapi.service;
+
+import com.personal.bookstoreapi.domain.entity.Book;
+import com.personal.bookstoreapi.domain.entity.PhysicalBookItem;
+import com.personal.bookstoreapi.domain.entity.StockSlot;
+import com.personal.bookstoreapi.events.BookItemChangedEvent;
+import com.personal.bookstoreapi.inventory.InventoryReservationEngine;
+import com.personal.bookstoreapi.repository.BookItemRepository;
+import com.personal.bookstoreapi.repository.StockSlotRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryServiceTest {
+
+    @Mock
+    BookItemRepository bookItemRepository;
+
+    @Mock
+    StockSlotRepository stockSlotRepository;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    EntityManager entityManager;
+
+    InventoryService inventoryService;
+
+    @BeforeEach
+    void setUp() {
+        inventoryService = new InventoryService(bookItemRepository, stockSlotRepository, Optional.empty(), eventPublisher, false, 4);
+    }
+
+    private static PhysicalBookItem item() {
+        PhysicalBookItem p = PhysicalBookItem.builder().id(7L).stockQuantity(5).build();
+        Book b = new Book(); b.setId(3L); p.setBook(b); return p;
+    }
+
+    @Test
+    void tryDecrement_rowUpdated_publishesItemChange() {
+        when(bookItemRepository.decrementStock(eq(7L), eq(2), any())).thenReturn(1);
+
+        assertThat(inventoryService.tryDecrement(item(), 2)).isTrue();
+
+        ArgumentCaptor<BookItemChangedEvent> captor = ArgumentCaptor.forClass(BookItemChangedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertThat(captor.getValue().getBookId()).isEqualTo(3L);
+        assertThat(captor.getValue().getBookItemId()).isEqualTo(7L);
+        assertThat(captor.getValue().getChange()).isEqualTo(BookItemChangedEvent.Change.STOCK);
+    }
+
+    @Test
+    void tryDecrement_notEnoughStock_returnsFalse_publishesNothing() {
+        when(bookItemRepository.decrementStock(eq(7L), eq(9), any())).thenReturn(0);
+
+        assertThat(inventoryService.tryDecrement(item(), 9)).isFalse();
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void tryDecrement_reservationMode_reservesInMemory_leavesRowAndEventsToFlush() {
+        InventoryReservationEngine reservations = mock(InventoryReservationEngine.class);
+        PhysicalBookItem item = item();
+        when(reservations.tryReserve(item, 2)).thenReturn(true);
+        inventoryService = new InventoryService(bookItemRepository, stockSlotRepository, Optional.of(reservations), eventPublisher, false, 4);
+
+        assertThat(inventoryService.tryDecrement(item, 2)).isTrue();
+
+        verify(bookItemRepository, never()).decrementStock(any(), anyInt(), any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void shardingAndReservations_cannotBothBeEnabled() {
+        assertThatThrownBy(() -> new InventoryService(bookItemRepository, stockSlotRepository, Optional.of(mock(InventoryReservationEngine.class)), eventPublisher, true, 4))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Nested
+    class Sharded {
+
+        @BeforeEach
+        void shardedMode() {
+            inventoryService = new InventoryService(bookItemRepository, stockSlotRepository, Optional.empty(), eventPublisher, true, 4);
+            ReflectionTestUtils.setField(inventoryService, "entityManager", entityManager);
+        }
+
+        private StockSlot slot(PhysicalBookItem item, int index, int quantity) {
+            return StockSlot.builder().bookItem(item).slot(index).quantity(quantity).build();
+        }
+
+        @Test
+        void tryDecrement_takesFromOneSlot_itemRowUntouched() {
+            PhysicalBookItem item = item();
+            StockSlot free = slot(item, 2, 3);
+            when(stockSlotRepository.findSlotWithStockForUpdate(eq(7L), eq(1), any(Pageable.class))).thenReturn(List.of(free));
+
+            assertThat(inventoryService.tryDecrement(item, 1)).isTrue();
+
+            assertThat(free.getQuantity()).isEqualTo(2);
+            verify(bookItemRepository, never()).decrementStock(any(), anyInt(), any());
+            verify(stockSlotRepository, never()).findAllForUpdate(any());
+            verify(eventPublisher).publishEvent(any(BookItemChangedEvent.class));
+        }
+
+        @Test
+        void tryDecrement_noSlotHasEnough_fallsBackToItemRow() {
+            when(stockSlotRepository.findSlotWithStockForUpdate(eq(7L), eq(2), any(Pageable.class))).thenReturn(List.of());
+            when(bookItemRepository.decrementStock(eq(7L), eq(2), any())).thenReturn(1);
+
+            assertThat(inventoryService.tryDecrement(item(), 2)).isTrue();
+            verify(entityManager, never()).refresh(any(), any(LockModeType.class));
+            verify(stockSlotRepository, never()).findAllForUpdate(any());
+        }
+
+        // rebalance locks the item row, then the slots; the fallback must not hold a slot while it waits for the item
+        @Test
+        void tryDecrement_fallback_locksItemRowBeforeAnySlot() {
+            PhysicalBookItem item = item();
+            item.setStockQuantity(0);
+            StockSlot first = slot(item, 0, 1);
+            StockSlot second = slot(item, 1, 1);
+            when(stockSlotRepository.findSlotWithStockForUpdate(eq(7L), eq(2), any(Pageable.class))).thenReturn(List.of());
+            when(bookItemRepository.decrementStock(eq(7L), eq(2), any())).thenReturn(0);
+            when(stockSlotRepository.findAllForUpdate(7L)).thenReturn(List.of(first, second));
+
+            assertThat(inventoryService.tryDecrement(item, 2)).isTrue();
+
+            InOrder locks = inOrder(stockSlotRepository, bookItemRepository, entityManager);
+            locks.verify(stockSlotRepository).findSlotWithStockForUpdate(eq(7L), eq(2), any(Pageable.class));
+            locks.verify(bookItemRepository).decrementStock(eq(7L), eq(2), any());
+            locks.verify(entityManager).refresh(item, LockModeType.PESSIMISTIC_WRITE);
+            locks.verify(stockSlotRepository).findAllForUpdate(7L);
+            assertThat(first.getQuantity()).isZero();
+            assertThat(second.getQuantity()).isZero();
+        }
+
+        @Test
+        void tryDecrement_stockSpreadOut_takesAcrossRowAndSlots() {
+            PhysicalBookItem item = item();
+            item.setStockQuantity(1);
+            StockSlot first = slot(item, 0, 2);
+            StockSlot second = slot(item, 1, 2);
+            when(stockSlotRepository.findSlotWithStockForUpdate(eq(7L), eq(4), any(Pageable.class))).thenReturn(List.of());
+            when(bookItemRepository.decrementStock(eq(7L), eq(4), any())).thenReturn(0);
+            when(stockSlotRepository.findAllForUpdate(7L)).thenReturn(List.of(first, second));
+
+            assertThat(inventoryService.tryDecrement(item, 4)).isTrue();
+
+            verify(entityManager).refresh(item, LockModeType.PESSIMISTIC_WRITE);
+            assertThat(item.getStockQuantity()).isZero();
+            assertThat(first.getQuantity()).isZero();
+            assertThat(second.getQuantity()).isEqualTo(1);
+        }
+
+        @Test
+        void tryDecrement_notEnoughInTotal_changesNothing() {
+            PhysicalBookItem item = item();
+            item.setStockQuantity(0);
+            StockSlot only = slot(item, 0, 2);
+            when(stockSlotRepository.findSlotWithStockForUpdate(eq(7L), eq(3), any(Pageable.class))).thenReturn(List.of());
+            when(bookItemRepository.decrementStock(eq(7L), eq(3), any())).thenReturn(0);
+            when(stockSlotRepository.findAllForUpdate(7L)).thenReturn(List.of(only));
+
+            assertThat(inventoryService.tryDecrement(item, 3)).isFalse();
+
+            assertThat(only.getQuantity()).isEqualTo(2);
+            verify(eventPublisher, never()).publishEvent(any(Object.class));
+        }
+
+        @Test
+        void rebalance_spreadsItemRowAndSlotsEvenly_createsMissingSlots() {
+            PhysicalBookItem item = item();
+            item.setStockQuantity(7);
+            StockSlot existing = slot(item, 1, 3);
+            when(bookItemRepository.findPhysicalForUpdate(7L)).thenReturn(Optional.of(item));
+            when(stockSlotRepository.findAllForUpdate(7L)).thenReturn(List.of(existing));
+
+            inventoryService.rebalance(7L);
+
+            ArgumentCaptor<StockSlot> created = ArgumentCaptor.forClass(StockSlot.class);
+            verify(stockSlotRepository, times(3)).save(created.capture());
+            assertThat(created.getAllValues()).extracting(StockSlot::getSlot).containsExactly(0, 2, 3);
+            assertThat(created.getAllValues()).extracting(StockSlot::getQuantity).containsExactly(3, 2, 2);
+            assertThat(existing.getQuantity()).isEqualTo(3);
+            assertThat(item.getStockQuantity()).isZero();
+        }
+    }
+}
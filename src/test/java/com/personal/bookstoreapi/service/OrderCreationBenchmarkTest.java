@@ -0,0 +1,203 @@
+package com.personal.bookstoreapi.service;
+
+import com.personal.bookstoreapi.domain.entity.Book;
+import com.personal.bookstoreapi.domain.entity.PhysicalBookItem;
+import com.personal.bookstoreapi.domain.entity.User;
+import com.personal.bookstoreapi.dto.request.CreateOrderItemDTO;
+import com.personal.bookstoreapi.dto.request.CreateOrderRequestDTO;
+import com.personal.bookstoreapi.repository.BookItemRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Order-creation latency against line count, on H2. Not part of the default build:
+ * {@code mvn test -Pbenchmark}. The statement and round-trip counts are what carry over to
+ * MySQL, where every execute (or executeBatch) is a network round trip.
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({OrderService.class, InventoryService.class, OrderWorkflow.class, OrderCreationBenchmarkTest.RoundTrips.class})
+class OrderCreationBenchmarkTest {
+
+    private static final int[] LINE_COUNTS = {1, 5, 10, 25, 50, 100};
+    private static final int WARMUP = 20;
+    private static final int RUNS = 50;
+    private static final int IMPORT_ROWS = 1000;
+
+    @Autowired
+    TestEntityManager em;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    BookItemRepository bookItemRepository;
+
+    @MockBean
+    UserService userService;
+
+    @Test
+    void createOrder_latencyByLineCount() {
+        User user = em.persist(User.builder().email("bench@x").fullName("Bench").passwordHash("p").build());
+        when(userService.getCurrentUser()).thenReturn(user);
+        Book book = em.persist(Book.builder().title("Bench").build());
+        List<Long> itemIds = new ArrayList<>();
+        for (int i = 0; i < LINE_COUNTS[LINE_COUNTS.length - 1]; i++) {
+            itemIds.add(em.persist(PhysicalBookItem.builder()
+                                                   .book(book)
+                                                   .price(BigDecimal.ONE)
+                                                   .availableForRent(false)
+                                                   .stockQuantity(1_000_000)
+                                                   .build())
+                          .getId());
+        }
+        em.flush();
+        em.clear();
+
+        System.out.printf("%n%6s %10s %10s %8s %12s %12s%n", "lines", "p50 (ms)", "p95 (ms)", "selects", "round trips", "batched rows");
+        for (int lines : LINE_COUNTS) {
+            CreateOrderRequestDTO request = new CreateOrderRequestDTO(IntStream.range(0, lines)
+                                                                              .mapToObj(i -> new CreateOrderItemDTO(itemIds.get(i), 1))
+                                                                              .toList());
+            for (int i = 0; i < WARMUP; i++) {
+                createAndFlush(request);
+            }
+
+            long[] nanos = new long[RUNS];
+            RoundTrips.reset();
+            for (int i = 0; i < RUNS; i++) {
+                long started = System.nanoTime();
+                createAndFlush(request);
+                nanos[i] = System.nanoTime() - started;
+            }
+            long selects = RoundTrips.selects.get();
+            Arrays.sort(nanos);
+
+            System.out.printf("%6d %10.3f %10.3f %8.1f %12.1f %12.1f%n", lines, nanos[RUNS / 2] / 1e6, nanos[RUNS * 95 / 100] / 1e6,
+                              (double) selects / RUNS, (double) RoundTrips.total() / RUNS, (double) RoundTrips.batchedRows.get() / RUNS);
+            assertThat(selects / RUNS).as("selects per order with %d lines", lines).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void bulkImport_roundTrips() {
+        Book book = em.persist(Book.builder().title("Import").build());
+        em.flush();
+        em.clear();
+
+        RoundTrips.reset();
+        long started = System.nanoTime();
+        bookItemRepository.saveAll(IntStream.range(0, IMPORT_ROWS)
+                                            .mapToObj(i -> PhysicalBookItem.builder()
+                                                                           .book(book)
+                                                                           .price(BigDecimal.ONE)
+                                                                           .availableForRent(false)
+                                                                           .stockQuantity(10)
+                                                                           .build())
+                                            .toList());
+        em.flush();
+        long nanos = System.nanoTime() - started;
+
+        System.out.printf("%nimport %d book items: %.3f ms, %d round trips, %d batched rows%n",
+                          IMPORT_ROWS, nanos / 1e6, RoundTrips.total(), RoundTrips.batchedRows.get());
+    }
+
+    private void createAndFlush(CreateOrderRequestDTO request) {
+        orderService.createOrder(request);
+        em.flush();
+        em.clear();
+    }
+
+    /**
+     * Wraps the test DataSource and counts what actually goes over the wire: every execute and
+     * executeBatch is one round trip, while addBatch only buffers a row. Id-generator queries
+     * are counted as round trips but not as selects.
+     */
+    static class RoundTrips implements BeanPostProcessor {
+
+        static final AtomicLong selects = new AtomicLong();
+        static final AtomicLong others = new AtomicLong();
+        static final AtomicLong batchedRows = new AtomicLong();
+
+        static void reset() {
+            selects.set(0);
+            others.set(0);
+            batchedRows.set(0);
+        }
+
+        static long total() {
+            return selects.get() + others.get();
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource)) return bean;
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return connection(super.getConnection());
+                }
+            };
+        }
+
+        private static Connection connection(Connection target) {
+            return proxy(Connection.class, target, (method, result, args) ->
+                    method.getName().equals("prepareStatement")
+                            ? statement((PreparedStatement) result, (String) args[0])
+                            : result);
+        }
+
+        private static PreparedStatement statement(PreparedStatement target, String sql) {
+            boolean select = sql.stripLeading().regionMatches(true, 0, "select", 0, 6) && !sql.contains("next value for");
+            return proxy(PreparedStatement.class, target, (method, result, args) -> {
+                switch (method.getName()) {
+                    case "addBatch" -> batchedRows.incrementAndGet();
+                    case "executeQuery", "executeUpdate", "execute", "executeBatch", "executeLargeUpdate", "executeLargeBatch" ->
+                            (select ? selects : others).incrementAndGet();
+                    default -> {
+                    }
+                }
+                return result;
+            });
+        }
+
+        private interface AfterCall {
+            Object apply(Method method, Object result, Object[] args);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target, AfterCall after) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+                try {
+                    return after.apply(method, method.invoke(target, args), args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        }
+    }
+}
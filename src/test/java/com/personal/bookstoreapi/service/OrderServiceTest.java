@@ -4,29 +4,48 @@ import com.personal.bookstoreapi.domain.entity.Book;
 import com.personal.bookstoreapi.domain.entity.DigitalBookItem;
 import com.personal.bookstoreapi.domain.entity.Order;
 import com.personal.bookstoreapi.domain.entity.OrderItem;
+import com.personal.bookstoreapi.domain.entity.OutboxEvent;
 import com.personal.bookstoreapi.domain.entity.PhysicalBookItem;
 import com.personal.bookstoreapi.domain.entity.User;
+import com.personal.bookstoreapi.domain.enums.OrderStatus;
+import com.personal.bookstoreapi.domain.enums.OutboxEventType;
 import com.personal.bookstoreapi.dto.request.CreateOrderItemDTO;
 import com.personal.bookstoreapi.dto.request.CreateOrderRequestDTO;
 import com.personal.bookstoreapi.dto.response.OrderDetailsResponseDTO;
+import com.personal.bookstoreapi.dto.response.OrderHistoryDTO;
+import com.personal.bookstoreapi.dto.response.OrderItemResponseDTO;
 import com.personal.bookstoreapi.dto.response.OrderResponseDTO;
 import com.personal.bookstoreapi.repository.BookItemRepository;
 import com.personal.bookstoreapi.repository.OrderRepository;
+import com.personal.bookstoreapi.exception.BadRequestException;
+import com.personal.bookstoreapi.repository.OutboxEventRepository;
+import com.personal.bookstoreapi.repository.projection.OrderItemRow;
+import com.personal.bookstoreapi.repository.projection.OrderSummaryRow;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -42,6 +61,15 @@ class OrderServiceTest {
     @Mock
     UserService userService;
 
+    @Mock
+    InventoryService inventoryService;
+
+    @Mock
+    OutboxEventRepository outboxEventRepository;
+
+    @Spy
+    OrderWorkflow orderWorkflow = new OrderWorkflow(Duration.ofSeconds(30), Duration.ofSeconds(30));
+
     @InjectMocks
     OrderService orderService;
 
@@ -69,7 +97,8 @@ class OrderServiceTest {
 
             when(userService.getCurrentUser()).thenReturn(user(3L,"a@b.com"));
             PhysicalBookItem p = physical(1L,new BigDecimal("5.00"),10);
-            when(bookItemRepository.findById(1L)).thenReturn(Optional.of(p));
+            when(bookItemRepository.findAllById(Set.of(1L))).thenReturn(List.of(p));
+            when(inventoryService.tryDecrement(p,2)).thenReturn(true);
 
             Order saved = new Order(); saved.setId(9L); saved.setTotalAmount(new BigDecimal("10.00")); saved.setStatus(com.personal.bookstoreapi.domain.enums.OrderStatus.PAID);
             when(orderRepository.save(any())).thenReturn(saved);
@@ -82,6 +111,38 @@ class OrderServiceTest {
             verify(orderRepository).save(captor.capture());
             Order toSave = captor.getValue();
             assertThat(toSave.getItems()).hasSize(1);
+            assertThat(toSave.getStatusDueAt()).isEqualTo(toSave.getCreatedAt().plusSeconds(30));
+
+            ArgumentCaptor<OutboxEvent> event = ArgumentCaptor.forClass(OutboxEvent.class);
+            verify(outboxEventRepository).save(event.capture());
+            assertThat(event.getValue().getType()).isEqualTo(OutboxEventType.ORDER_PAID);
+            assertThat(event.getValue().getAggregateId()).isEqualTo(9L);
+        }
+
+        @Test
+        void happy_onBehalfOfUser_doesNotReadTheSecurityContext() {
+            var req = new CreateOrderRequestDTO(List.of(new CreateOrderItemDTO(1L,1)));
+            PhysicalBookItem p = physical(1L,new BigDecimal("5.00"),10);
+            when(bookItemRepository.findAllById(Set.of(1L))).thenReturn(List.of(p));
+            when(inventoryService.tryDecrement(p,1)).thenReturn(true);
+            when(orderRepository.save(any())).thenAnswer(i -> { Order o = i.getArgument(0); o.setId(4L); return o; });
+
+            OrderResponseDTO res = orderService.createOrder(req, user(3L,"a@b.com"));
+
+            assertThat(res.orderId()).isEqualTo(4L);
+            verify(userService, never()).getCurrentUser();
+        }
+
+        @Test
+        void validateShape_mergedQuantityOverflow_isInvalidNotArithmetic() {
+            var req = new CreateOrderRequestDTO(List.of(new CreateOrderItemDTO(1L, Integer.MAX_VALUE), new CreateOrderItemDTO(1L, 1)));
+            assertThatThrownBy(() -> orderService.validateShape(req)).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Quantity too large for book item 1");
+        }
+
+        @Test
+        void validateShape_rejectsNonPositiveQuantity() {
+            var req = new CreateOrderRequestDTO(List.of(new CreateOrderItemDTO(1L,0)));
+            assertThatThrownBy(() -> orderService.validateShape(req)).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Quantity must be greater than 0");
         }
 
         @Test
@@ -94,8 +155,7 @@ class OrderServiceTest {
         void unhappy_bookItemNotFound_throwsIllegalArgumentException() {
             var itemDto = new CreateOrderItemDTO(55L,1);
             var req = new CreateOrderRequestDTO(List.of(itemDto));
-            when(userService.getCurrentUser()).thenReturn(user(1L,"x"));
-            when(bookItemRepository.findById(55L)).thenReturn(Optional.empty());
+            when(bookItemRepository.findAllById(Set.of(55L))).thenReturn(List.of());
             assertThatThrownBy(() -> orderService.createOrder(req)).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("BookItem not found");
         }
 
@@ -103,8 +163,6 @@ class OrderServiceTest {
         void unhappy_quantityZero_throwsIllegalArgumentException() {
             var itemDto = new CreateOrderItemDTO(1L,0);
             var req = new CreateOrderRequestDTO(List.of(itemDto));
-            when(userService.getCurrentUser()).thenReturn(user(1L,"x"));
-            when(bookItemRepository.findById(1L)).thenReturn(Optional.of(digital(1L,new BigDecimal("1.00"))));
             assertThatThrownBy(() -> orderService.createOrder(req)).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Quantity must be greater than 0");
         }
 
@@ -113,7 +171,7 @@ class OrderServiceTest {
             var itemDto = new CreateOrderItemDTO(2L,5);
             var req = new CreateOrderRequestDTO(List.of(itemDto));
             when(userService.getCurrentUser()).thenReturn(user(1L,"x"));
-            when(bookItemRepository.findById(2L)).thenReturn(Optional.of(physical(2L,new BigDecimal("3.00"),2)));
+            when(bookItemRepository.findAllById(Set.of(2L))).thenReturn(List.of(physical(2L,new BigDecimal("3.00"),2)));
             assertThatThrownBy(() -> orderService.createOrder(req)).isInstanceOf(IllegalStateException.class).hasMessageContaining("Not enough stock");
         }
 
@@ -122,7 +180,7 @@ class OrderServiceTest {
             var itemDto = new CreateOrderItemDTO(3L,2);
             var req = new CreateOrderRequestDTO(List.of(itemDto));
             when(userService.getCurrentUser()).thenReturn(user(1L,"x"));
-            when(bookItemRepository.findById(3L)).thenReturn(Optional.of(digital(3L,new BigDecimal("3.00"))));
+            when(bookItemRepository.findAllById(Set.of(3L))).thenReturn(List.of(digital(3L,new BigDecimal("3.00"))));
             assertThatThrownBy(() -> orderService.createOrder(req)).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Digital book can only be purchased once");
         }
 
@@ -133,15 +191,17 @@ class OrderServiceTest {
 
             when(userService.getCurrentUser()).thenReturn(user(4L,"a@b.com"));
             PhysicalBookItem p = physical(10L,new BigDecimal("7.50"),2); // stock == quantity
-            when(bookItemRepository.findById(10L)).thenReturn(Optional.of(p));
+            when(bookItemRepository.findAllById(Set.of(10L))).thenReturn(List.of(p));
+            when(inventoryService.tryDecrement(p,2)).thenReturn(true);
 
             Order saved = new Order(); saved.setId(11L); saved.setTotalAmount(new BigDecimal("15.00")); saved.setStatus(com.personal.bookstoreapi.domain.enums.OrderStatus.PAID);
             when(orderRepository.save(any())).thenReturn(saved);
 
             OrderResponseDTO res = orderService.createOrder(req);
             assertThat(res.orderId()).isEqualTo(11L);
-            // original physical item should have been decremented to zero
-            assertThat(p.getStockQuantity()).isEqualTo(0);
+            // stock is taken through the guarded decrement, never by writing the entity
+            verify(inventoryService).tryDecrement(p,2);
+            assertThat(p.getStockQuantity()).isEqualTo(2);
         }
 
         @Test
@@ -150,7 +210,7 @@ class OrderServiceTest {
             var req = new CreateOrderRequestDTO(List.of(itemDto));
             when(userService.getCurrentUser()).thenReturn(user(5L,"d@d"));
             DigitalBookItem d = digital(20L,new BigDecimal("4.00"));
-            when(bookItemRepository.findById(20L)).thenReturn(Optional.of(d));
+            when(bookItemRepository.findAllById(Set.of(20L))).thenReturn(List.of(d));
             Order saved = new Order(); saved.setId(21L); saved.setTotalAmount(new BigDecimal("4.00")); saved.setStatus(com.personal.bookstoreapi.domain.enums.OrderStatus.PAID);
             when(orderRepository.save(any())).thenReturn(saved);
 
@@ -166,30 +226,146 @@ class OrderServiceTest {
             when(userService.getCurrentUser()).thenReturn(user(6L,"multi@x"));
             DigitalBookItem d = digital(30L,new BigDecimal("2.00"));
             PhysicalBookItem p = physical(31L,new BigDecimal("3.00"),5);
-            when(bookItemRepository.findById(30L)).thenReturn(Optional.of(d));
-            when(bookItemRepository.findById(31L)).thenReturn(Optional.of(p));
+            when(bookItemRepository.findAllById(Set.of(30L,31L))).thenReturn(List.of(d,p));
+            when(inventoryService.tryDecrement(p,3)).thenReturn(true);
             Order saved = new Order(); saved.setId(32L); saved.setTotalAmount(new BigDecimal("11.00")); saved.setStatus(com.personal.bookstoreapi.domain.enums.OrderStatus.PAID);
             when(orderRepository.save(any())).thenReturn(saved);
 
             OrderResponseDTO res = orderService.createOrder(req);
             assertThat(res.orderId()).isEqualTo(32L);
             assertThat(res.totalAmount()).isEqualByComparingTo(new BigDecimal("11.00"));
-            // physical stock decremented
-            assertThat(p.getStockQuantity()).isEqualTo(2);
+            // only the physical line takes stock
+            verify(inventoryService).tryDecrement(p,3);
+            verify(inventoryService, never()).tryDecrement(any(), eq(1));
+        }
+
+        @Test
+        void happy_duplicateLines_mergedIntoOneOrderItem_oneLookup() {
+            var items = List.of(new CreateOrderItemDTO(40L,1), new CreateOrderItemDTO(41L,1), new CreateOrderItemDTO(40L,2));
+            var req = new CreateOrderRequestDTO(items);
+            when(userService.getCurrentUser()).thenReturn(user(7L,"dup@x"));
+            PhysicalBookItem p = physical(40L,new BigDecimal("2.00"),5);
+            DigitalBookItem d = digital(41L,new BigDecimal("1.00"));
+            when(bookItemRepository.findAllById(Set.of(40L,41L))).thenReturn(List.of(p,d));
+            when(inventoryService.tryDecrement(p,3)).thenReturn(true);
+            Order saved = new Order(); saved.setId(42L); saved.setTotalAmount(new BigDecimal("7.00")); saved.setStatus(com.personal.bookstoreapi.domain.enums.OrderStatus.PAID);
+            when(orderRepository.save(any())).thenReturn(saved);
+
+            orderService.createOrder(req);
+
+            ArgumentCaptor<Order> captor = ArgumentCaptor.forClass(Order.class);
+            verify(orderRepository).save(captor.capture());
+            assertThat(captor.getValue().getItems()).extracting(OrderItem::getQuantity).containsExactly(3, 1);
+            assertThat(captor.getValue().getTotalAmount()).isEqualByComparingTo(new BigDecimal("7.00"));
+            verify(inventoryService).tryDecrement(p,3);
+            verify(bookItemRepository).findAllById(Set.of(40L,41L));
+        }
+
+        @Test
+        void unhappy_duplicateDigitalLines_throwsIllegalArgumentException() {
+            var items = List.of(new CreateOrderItemDTO(50L,1), new CreateOrderItemDTO(50L,1));
+            var req = new CreateOrderRequestDTO(items);
+            when(bookItemRepository.findAllById(Set.of(50L))).thenReturn(List.of(digital(50L,new BigDecimal("1.00"))));
+            when(userService.getCurrentUser()).thenReturn(user(1L,"x"));
+            assertThatThrownBy(() -> orderService.createOrder(req)).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Digital book can only be purchased once");
+        }
+
+        @Test
+        void unhappy_someItemsMissing_listsAllMissingIds_beforeLoadingUser() {
+            var items = List.of(new CreateOrderItemDTO(60L,1), new CreateOrderItemDTO(61L,1), new CreateOrderItemDTO(62L,1));
+            var req = new CreateOrderRequestDTO(items);
+            when(bookItemRepository.findAllById(Set.of(60L,61L,62L))).thenReturn(List.of(physical(61L,BigDecimal.ONE,1)));
+            assertThatThrownBy(() -> orderService.createOrder(req)).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("BookItem not found: [60, 62]");
+            verify(userService, never()).getCurrentUser();
+        }
+
+        @Test
+        void unhappy_lineWithoutBookItemId_throwsIllegalArgumentException() {
+            var req = new CreateOrderRequestDTO(List.of(new CreateOrderItemDTO(null,1)));
+            assertThatThrownBy(() -> orderService.createOrder(req)).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("must reference a book item");
+        }
+
+        @Test
+        void unhappy_stockTakenConcurrently_guardedDecrementFails_throwsIllegalStateException() {
+            var req = new CreateOrderRequestDTO(List.of(new CreateOrderItemDTO(70L,2)));
+            when(userService.getCurrentUser()).thenReturn(user(1L,"x"));
+            PhysicalBookItem p = physical(70L,new BigDecimal("1.00"),5); // loaded value still says 5
+            when(bookItemRepository.findAllById(Set.of(70L))).thenReturn(List.of(p));
+            when(orderRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+            when(inventoryService.tryDecrement(p,2)).thenReturn(false);
+
+            assertThatThrownBy(() -> orderService.createOrder(req)).isInstanceOf(IllegalStateException.class).hasMessageContaining("Not enough stock for book item 70");
+        }
+
+        @Test
+        void happy_decrementsInIdOrder() {
+            var req = new CreateOrderRequestDTO(List.of(new CreateOrderItemDTO(82L,1), new CreateOrderItemDTO(81L,1)));
+            when(userService.getCurrentUser()).thenReturn(user(1L,"x"));
+            PhysicalBookItem a = physical(81L,BigDecimal.ONE,5);
+            PhysicalBookItem b = physical(82L,BigDecimal.ONE,5);
+            when(bookItemRepository.findAllById(Set.of(81L,82L))).thenReturn(List.of(b,a));
+            when(orderRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+            when(inventoryService.tryDecrement(any(),eq(1))).thenReturn(true);
+
+            orderService.createOrder(req);
+
+            InOrder inOrder = inOrder(inventoryService);
+            inOrder.verify(inventoryService).tryDecrement(a,1);
+            inOrder.verify(inventoryService).tryDecrement(b,1);
         }
     }
 
     @Nested
     class GetMyOrders {
+        private final Instant t0 = Instant.parse("2024-05-01T10:00:00.123456Z");
+
+        @Test
+        void happy_returnsFirstPageWithCursor_withoutLoadingItems() {
+            when(userService.getCurrentUser()).thenReturn(user(2L,"x@x"));
+            when(orderRepository.findPageByUserId(eq(2L), isNull(), isNull(), isNull(), any(Pageable.class))).thenReturn(List.of(
+                    new OrderSummaryRow(21L, OrderStatus.PAID, new BigDecimal("2.00"), t0),
+                    new OrderSummaryRow(20L, OrderStatus.PAID, new BigDecimal("3.00"), t0.minusSeconds(5))));
+
+            var res = orderService.getMyOrders(null, null, 1, false);
+
+            assertThat(res.items()).extracting(OrderHistoryDTO::orderId).containsExactly(21L);
+            assertThat(res.items().get(0).items()).isNull();
+            assertThat(res.hasNext()).isTrue();
+            verify(orderRepository, never()).findItemRowsByOrderIds(any());
+
+            // the cursor resumes strictly after the last row of this page
+            orderService.getMyOrders(null, res.nextCursor(), 1, false);
+            verify(orderRepository).findPageByUserId(eq(2L), isNull(), eq(t0), eq(21L), any(Pageable.class));
+        }
+
+        @Test
+        void happy_includeItems_loadsItemsForWholePageInOneQuery() {
+            when(userService.getCurrentUser()).thenReturn(user(2L,"x@x"));
+            when(orderRepository.findPageByUserId(eq(2L), eq(OrderStatus.SHIPPING), isNull(), isNull(), any(Pageable.class))).thenReturn(List.of(
+                    new OrderSummaryRow(21L, OrderStatus.SHIPPING, new BigDecimal("2.00"), t0),
+                    new OrderSummaryRow(20L, OrderStatus.SHIPPING, new BigDecimal("3.00"), t0)));
+            when(orderRepository.findItemRowsByOrderIds(List.of(21L, 20L))).thenReturn(List.of(
+                    new OrderItemRow(20L, 1L, "T", 1, new BigDecimal("3.00")),
+                    new OrderItemRow(21L, 2L, "U", 2, new BigDecimal("1.00"))));
+
+            var res = orderService.getMyOrders("shipping", null, null, true);
+
+            assertThat(res.hasNext()).isFalse();
+            assertThat(res.nextCursor()).isNull();
+            assertThat(res.items().get(0).items()).extracting(OrderItemResponseDTO::bookTitle).containsExactly("U");
+            assertThat(res.items().get(1).items()).extracting(OrderItemResponseDTO::bookTitle).containsExactly("T");
+        }
+
         @Test
-        void happy_returnsOrderResponseList() {
+        void unhappy_unknownStatus_throwsBadRequest() {
             when(userService.getCurrentUser()).thenReturn(user(2L,"x@x"));
-            Order o = new Order(); o.setId(20L); o.setTotalAmount(new BigDecimal("2.00")); o.setStatus(com.personal.bookstoreapi.domain.enums.OrderStatus.PAID);
-            when(orderRepository.findAllByUserId(2L)).thenReturn(List.of(o));
+            assertThatThrownBy(() -> orderService.getMyOrders("lost", null, null, false)).isInstanceOf(BadRequestException.class);
+        }
 
-            var res = orderService.getMyOrders();
-            assertThat(res).hasSize(1);
-            assertThat(res.get(0).orderId()).isEqualTo(20L);
+        @Test
+        void unhappy_malformedCursor_throwsBadRequest() {
+            when(userService.getCurrentUser()).thenReturn(user(2L,"x@x"));
+            assertThatThrownBy(() -> orderService.getMyOrders(null, "nope", null, false)).isInstanceOf(BadRequestException.class);
         }
     }
 
@@ -201,7 +377,7 @@ class OrderServiceTest {
             when(userService.getCurrentUser()).thenReturn(u);
             Order o = new Order(); o.setId(50L); o.setUser(u); o.setTotalAmount(new BigDecimal("5.00")); o.setStatus(com.personal.bookstoreapi.domain.enums.OrderStatus.PAID);
             OrderItem it = new OrderItem(); it.setBookItem(digital(9L,new BigDecimal("5.00"))); it.setQuantity(1); o.setItems(List.of(it));
-            when(orderRepository.findById(50L)).thenReturn(Optional.of(o));
+            when(orderRepository.findDetailsByIdAndUserId(50L, 7L)).thenReturn(Optional.of(o));
 
             OrderDetailsResponseDTO dto = orderService.getOrderDetails(50L);
             assertThat(dto.orderId()).isEqualTo(50L);
@@ -211,19 +387,50 @@ class OrderServiceTest {
         @Test
         void unhappy_orderNotFound_throwsIllegalArgumentException() {
             when(userService.getCurrentUser()).thenReturn(user(1L,"x"));
-            when(orderRepository.findById(99L)).thenReturn(Optional.empty());
+            when(orderRepository.findDetailsByIdAndUserId(99L, 1L)).thenReturn(Optional.empty());
             assertThatThrownBy(() -> orderService.getOrderDetails(99L)).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Order not found");
         }
 
         @Test
-        void unhappy_notOwner_throwsSecurityException() {
-            User owner = user(10L,"o");
-            User other = user(11L,"other");
-            when(userService.getCurrentUser()).thenReturn(other);
-            Order o = new Order(); o.setId(88L); o.setUser(owner);
-            when(orderRepository.findById(88L)).thenReturn(Optional.of(o));
+        void unhappy_notOwner_looksLikeNotFound() {
+            when(userService.getCurrentUser()).thenReturn(user(11L,"other"));
+            when(orderRepository.findDetailsByIdAndUserId(88L, 11L)).thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> orderService.getOrderDetails(88L)).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Order not found");
+        }
+    }
+
+    @Nested
+    class CheckGroup {
+
+        @Test
+        void laterOrdersSeeStockTakenByEarlierOnes() {
+            when(bookItemRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(
+                    physical(1L, new BigDecimal("5.00"), 3), digital(2L, new BigDecimal("3.00"))));
+
+            List<RuntimeException> failures = orderService.checkGroup(List.of(
+                    new CreateOrderRequestDTO(List.of(new CreateOrderItemDTO(1L, 2))),
+                    new CreateOrderRequestDTO(List.of(new CreateOrderItemDTO(1L, 2))),
+                    new CreateOrderRequestDTO(List.of(new CreateOrderItemDTO(1L, 1), new CreateOrderItemDTO(2L, 1))),
+                    new CreateOrderRequestDTO(List.of(new CreateOrderItemDTO(2L, 2)))
+            ));
+
+            assertThat(failures.get(0)).isNull();
+            assertThat(failures.get(1)).isInstanceOf(IllegalStateException.class);
+            assertThat(failures.get(2)).isNull();
+            assertThat(failures.get(3)).isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        void unknownItemOrMalformedOrder_isInvalid() {
+            when(bookItemRepository.findAllById(Set.of(9L))).thenReturn(List.of());
+
+            List<RuntimeException> failures = orderService.checkGroup(List.of(
+                    new CreateOrderRequestDTO(List.of(new CreateOrderItemDTO(9L, 1))),
+                    new CreateOrderRequestDTO(List.of())
+            ));
 
-            assertThatThrownBy(() -> orderService.getOrderDetails(88L)).isInstanceOf(SecurityException.class).hasMessageContaining("not allowed");
+            assertThat(failures).allSatisfy(failure -> assertThat(failure).isInstanceOf(IllegalArgumentException.class));
         }
     }
 }
@@ -0,0 +1,175 @@
+package com.personal.bookstoreapi.service;
+
+import com.personal.bookstoreapi.domain.entity.User;
+import com.personal.bookstoreapi.dto.request.CreateOrderItemDTO;
+import com.personal.bookstoreapi.dto.request.CreateOrderRequestDTO;
+import com.personal.bookstoreapi.dto.response.OrderResponseDTO;
+import com.personal.bookstoreapi.dto.response.OrderSubmissionDTO;
+import com.personal.bookstoreapi.exception.BadRequestException;
+import com.personal.bookstoreapi.exception.NotFoundException;
+import com.personal.bookstoreapi.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderSubmissionPipelineTest {
+
+    @Mock
+    OrderService orderService;
+
+    @Mock
+    UserService userService;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    private static final User USER = User.builder().id(1L).email("a@x").fullName("A").passwordHash("p").build();
+
+    private OrderSubmissionPipeline pipeline(int capacity) {
+        return new OrderSubmissionPipeline(orderService, userService, transactionManager, new SimpleMeterRegistry(), capacity, 10, Duration.ofMinutes(5));
+    }
+
+    private static CreateOrderRequestDTO request(long bookItemId) {
+        return new CreateOrderRequestDTO(List.of(new CreateOrderItemDTO(bookItemId, 1)));
+    }
+
+    private static OrderResponseDTO placed(long orderId) {
+        return new OrderResponseDTO(orderId, "PAID", BigDecimal.ONE, null);
+    }
+
+    private void everyOrderFits() {
+        when(orderService.checkGroup(anyList())).thenAnswer(invocation -> Collections.nCopies(invocation.<List<?>>getArgument(0).size(), null));
+    }
+
+    @Test
+    void submit_queuesWithoutPlacing_andDrainCommitsTheGroupInOneTransaction() {
+        OrderSubmissionPipeline pipeline = pipeline(10);
+        when(userService.getCurrentUser()).thenReturn(USER);
+        var first = request(1L);
+        var second = request(2L);
+        everyOrderFits();
+        when(orderService.createOrder(first, USER)).thenReturn(placed(11L));
+        when(orderService.createOrder(second, USER)).thenReturn(placed(12L));
+
+        OrderSubmissionDTO a = pipeline.submit(first);
+        OrderSubmissionDTO b = pipeline.submit(second);
+        assertThat(a.status()).isEqualTo("QUEUED");
+        assertThat(pipeline.pendingCount()).isEqualTo(2);
+
+        pipeline.drain();
+
+        verify(transactionManager, times(1)).getTransaction(any());
+        assertThat(pipeline.status(a.trackingId())).isEqualTo(new OrderSubmissionDTO(a.trackingId(), "COMPLETED", 11L, null));
+        assertThat(pipeline.status(b.trackingId()).orderId()).isEqualTo(12L);
+        assertThat(pipeline.pendingCount()).isZero();
+    }
+
+    @Test
+    void drain_orderThatFailsTheCheck_isRejectedAndTheRestCommitTogether() {
+        OrderSubmissionPipeline pipeline = pipeline(10);
+        when(userService.getCurrentUser()).thenReturn(USER);
+        var first = request(1L);
+        var soldOut = request(2L);
+        var third = request(3L);
+        when(orderService.checkGroup(List.of(first, soldOut, third)))
+                .thenReturn(Arrays.asList(null, new IllegalStateException("Not enough stock for book item 2"), null));
+        when(orderService.createOrder(first, USER)).thenReturn(placed(11L));
+        when(orderService.createOrder(third, USER)).thenReturn(placed(13L));
+
+        OrderSubmissionDTO a = pipeline.submit(first);
+        OrderSubmissionDTO b = pipeline.submit(soldOut);
+        OrderSubmissionDTO c = pipeline.submit(third);
+        pipeline.drain();
+
+        verify(transactionManager, times(1)).getTransaction(any());
+        verify(orderService, never()).createOrder(soldOut, USER);
+        assertThat(pipeline.status(a.trackingId()).orderId()).isEqualTo(11L);
+        assertThat(pipeline.status(b.trackingId())).isEqualTo(new OrderSubmissionDTO(b.trackingId(), "REJECTED", null, OrderSubmissionPipeline.OUT_OF_STOCK));
+        assertThat(pipeline.status(c.trackingId()).orderId()).isEqualTo(13L);
+    }
+
+    @Test
+    void drain_orderFailingInTheGroup_isReplayedAloneAndOnlyItIsRejected() {
+        OrderSubmissionPipeline pipeline = pipeline(10);
+        when(userService.getCurrentUser()).thenReturn(USER);
+        everyOrderFits();
+        var good = request(1L);
+        var bad = request(2L);
+        when(orderService.createOrder(good, USER)).thenReturn(placed(11L));
+        when(orderService.createOrder(bad, USER)).thenThrow(new IllegalStateException("Not enough stock for book item 2"));
+
+        OrderSubmissionDTO a = pipeline.submit(good);
+        OrderSubmissionDTO b = pipeline.submit(bad);
+        pipeline.drain();
+
+        // stock taken after the check: the group transaction plus one per order on replay
+        verify(transactionManager, times(3)).getTransaction(any());
+        assertThat(pipeline.status(a.trackingId()).status()).isEqualTo("COMPLETED");
+        assertThat(pipeline.status(b.trackingId())).isEqualTo(new OrderSubmissionDTO(b.trackingId(), "REJECTED", null, OrderSubmissionPipeline.OUT_OF_STOCK));
+    }
+
+    @Test
+    void drain_internalFailure_isReportedWithoutItsMessage() {
+        OrderSubmissionPipeline pipeline = pipeline(10);
+        when(userService.getCurrentUser()).thenReturn(USER);
+        everyOrderFits();
+        var order = request(1L);
+        when(orderService.createOrder(order, USER)).thenThrow(new QueryTimeoutException("Lock wait timeout exceeded; SQL [update book_items ...]"));
+
+        OrderSubmissionDTO submitted = pipeline.submit(order);
+        pipeline.drain();
+
+        assertThat(pipeline.status(submitted.trackingId()).error()).isEqualTo(OrderSubmissionPipeline.NOT_PLACED);
+    }
+
+    @Test
+    void submit_fullQueue_appliesBackpressure() {
+        OrderSubmissionPipeline pipeline = pipeline(1);
+        when(userService.getCurrentUser()).thenReturn(USER);
+        pipeline.submit(request(1L));
+
+        assertThatThrownBy(() -> pipeline.submit(request(2L))).isInstanceOf(ServiceUnavailableException.class);
+        assertThat(pipeline.pendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    void submit_malformedRequest_isRejectedUpFront() {
+        OrderSubmissionPipeline pipeline = pipeline(10);
+        var empty = new CreateOrderRequestDTO(List.of());
+        doThrow(new IllegalArgumentException("Order must contain at least one item")).when(orderService).validateShape(empty);
+
+        assertThatThrownBy(() -> pipeline.submit(empty)).isInstanceOf(BadRequestException.class);
+        assertThat(pipeline.pendingCount()).isZero();
+    }
+
+    @Test
+    void status_ofAnotherUsersSubmission_isNotFound() {
+        OrderSubmissionPipeline pipeline = pipeline(10);
+        when(userService.getCurrentUser()).thenReturn(USER);
+        OrderSubmissionDTO queued = pipeline.submit(request(1L));
+
+        when(userService.getCurrentUser()).thenReturn(User.builder().id(2L).email("b@x").build());
+        assertThatThrownBy(() -> pipeline.status(queued.trackingId())).isInstanceOf(NotFoundException.class);
+    }
+}
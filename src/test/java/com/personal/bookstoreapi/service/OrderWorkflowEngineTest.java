@@ -0,0 +1,78 @@
+package com.personal.bookstoreapi.service;
+
+import com.personal.bookstoreapi.domain.enums.OrderStatus;
+import com.personal.bookstoreapi.events.OrdersPaidEvent;
+import com.personal.bookstoreapi.repository.OrderRepository;
+import com.personal.bookstoreapi.repository.projection.OrderDueRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderWorkflowEngineTest {
+
+    @Mock
+    OrderRepository orderRepository;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    OrderWorkflowEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new OrderWorkflowEngine(orderRepository, new OrderWorkflow(Duration.ZERO, Duration.ofSeconds(30)), transactionManager, Duration.ofMillis(10));
+    }
+
+    @Test
+    void load_schedulesStoredDueTimes_missingDueTimeMeansNow() throws InterruptedException {
+        Instant past = Instant.now().minusSeconds(5);
+        when(orderRepository.findDueRowsAfter(eq(0L), anyCollection(), any(Pageable.class)))
+                .thenReturn(List.of(new OrderDueRow(1L, past), new OrderDueRow(2L, null), new OrderDueRow(3L, Instant.now().plusSeconds(3600))));
+
+        engine.load();
+        assertThat(engine.pendingCount()).isEqualTo(3);
+
+        Thread.sleep(20);
+        engine.tick();
+        verify(orderRepository).advanceStatus(eq(List.of(1L, 2L)), eq(OrderStatus.PAID), eq(OrderStatus.SHIPPING), any(Instant.class), any(Instant.class));
+        verify(orderRepository).advanceStatus(eq(List.of(1L, 2L)), eq(OrderStatus.SHIPPING), eq(OrderStatus.DELIVERED), isNull(), any(Instant.class));
+        assertThat(engine.pendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    void tick_reschedulesOrdersWithAnotherTimedTransition() throws InterruptedException {
+        engine.onOrdersPaid(new OrdersPaidEvent(List.of(5L)));
+        Instant deliverAt = Instant.now().plusSeconds(30);
+        when(orderRepository.findDueRowsByIds(List.of(5L), OrderWorkflow.TIMED_STATUSES)).thenReturn(List.of(new OrderDueRow(5L, deliverAt)));
+
+        Thread.sleep(20);
+        engine.tick();
+
+        assertThat(engine.pendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    void tick_nothingDue_touchesNoRows() {
+        engine.tick();
+
+        verify(orderRepository, never()).advanceStatus(anyCollection(), any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,92 @@
+package com.personal.bookstoreapi.service;
+
+import com.personal.bookstoreapi.domain.entity.OutboxEvent;
+import com.personal.bookstoreapi.domain.enums.OutboxEventType;
+import com.personal.bookstoreapi.events.OrdersPaidEvent;
+import com.personal.bookstoreapi.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OutboxRelay(outboxEventRepository, eventPublisher, transactionManager, 2);
+    }
+
+    private static OutboxEvent paid(long id, long orderId) {
+        return OutboxEvent.builder().id(id).type(OutboxEventType.ORDER_PAID).aggregateId(orderId).build();
+    }
+
+    @Test
+    void relay_publishesOneEventPerBatch_andDeletesDispatchedRows() {
+        List<OutboxEvent> full = List.of(paid(1L, 10L), paid(2L, 11L));
+        List<OutboxEvent> rest = List.of(paid(3L, 12L));
+        when(outboxEventRepository.findBatchForDispatch(any(Pageable.class))).thenReturn(full, rest);
+
+        relay.relay();
+
+        ArgumentCaptor<OrdersPaidEvent> events = ArgumentCaptor.forClass(OrdersPaidEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertThat(events.getAllValues()).extracting(OrdersPaidEvent::getOrderIds)
+                                         .containsExactly(List.of(10L, 11L), List.of(12L));
+        verify(outboxEventRepository).deleteAllInBatch(full);
+        verify(outboxEventRepository).deleteAllInBatch(rest);
+    }
+
+    @Test
+    void relay_emptyOutbox_publishesNothing() {
+        when(outboxEventRepository.findBatchForDispatch(any(Pageable.class))).thenReturn(List.of());
+
+        relay.relay();
+
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+        verify(outboxEventRepository, never()).deleteAllInBatch(any());
+    }
+
+    @Test
+    void relay_listenerFailure_keepsRowsForRedelivery() {
+        List<OutboxEvent> batch = List.of(paid(1L, 10L));
+        when(outboxEventRepository.findBatchForDispatch(any(Pageable.class))).thenReturn(batch);
+        doThrow(new IllegalStateException("boom")).when(eventPublisher).publishEvent(any(Object.class));
+
+        relay.relay();
+        verify(outboxEventRepository, never()).deleteAllInBatch(any());
+
+        // the next poll sees the same rows and deletes them once the listener succeeds
+        doNothing().when(eventPublisher).publishEvent(any(Object.class));
+        relay.relay();
+        verify(eventPublisher, times(2)).publishEvent(any(Object.class));
+        verify(outboxEventRepository).deleteAllInBatch(batch);
+    }
+}
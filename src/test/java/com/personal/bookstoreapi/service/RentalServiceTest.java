@@ -40,6 +40,9 @@ class RentalServiceTest {
     @Mock
     UserService userService;
 
+    @Mock
+    InventoryService inventoryService;
+
     @InjectMocks
     RentalService rentalService;
 
@@ -58,6 +61,7 @@ class RentalServiceTest {
             var req = new CreateRentalRequestDTO(2L,3);
             PhysicalBookItem p = physical(2L,5,new BigDecimal("2.50"));
             when(bookItemRepository.findById(2L)).thenReturn(Optional.of((BookItem)p));
+            when(inventoryService.tryDecrement(p,1)).thenReturn(true);
 
             Rental saved = Rental.builder().id(7L).bookItem(p).user(user(3L)).startAt(Instant.now()).endAt(Instant.now().plusSeconds(3600)).totalAmount(new BigDecimal("7.50")).build();
             when(rentalRepository.save(any())).thenReturn(saved);
@@ -93,11 +97,12 @@ class RentalServiceTest {
             PhysicalBookItem p = physical(4L,2,new BigDecimal("2.00"));
             when(bookItemRepository.findById(4L)).thenReturn(Optional.of((BookItem)p));
             when(rentalRepository.save(any())).thenAnswer(i -> { Rental r = i.getArgument(0); r.setId(99L); return r; });
+            when(inventoryService.tryDecrement(p,1)).thenReturn(true);
 
             var req = new CreateRentalRequestDTO(4L,1);
             RentalResponseDTO res = rentalService.createRental(req);
             assertThat(res.rentalId()).isEqualTo(99L);
-            assertThat(p.getStockQuantity()).isEqualTo(1);
+            verify(inventoryService).tryDecrement(p,1);
         }
 
         @Test
@@ -125,6 +130,17 @@ class RentalServiceTest {
             var req = new CreateRentalRequestDTO(2L,1);
             assertThatThrownBy(() -> rentalService.createRental(req)).isInstanceOf(IllegalStateException.class).hasMessageContaining("No stock available");
         }
+
+        @Test
+        void unhappy_lastCopyRentedConcurrently_throwsIllegalStateException() {
+            when(userService.getCurrentUser()).thenReturn(user(1L));
+            PhysicalBookItem p = physical(5L,1,new BigDecimal("1.00"));
+            when(bookItemRepository.findById(5L)).thenReturn(Optional.of((BookItem)p));
+            when(rentalRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+            when(inventoryService.tryDecrement(p,1)).thenReturn(false);
+            var req = new CreateRentalRequestDTO(5L,1);
+            assertThatThrownBy(() -> rentalService.createRental(req)).isInstanceOf(IllegalStateException.class).hasMessageContaining("No stock available");
+        }
     }
 
     @Nested
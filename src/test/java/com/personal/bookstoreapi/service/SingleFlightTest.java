@@ -0,0 +1,126 @@
+package com.personal.bookstoreapi.service;
+
+import com.personal.bookstoreapi.exception.NotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    static final int WAITERS = 8;
+
+    Counter coalesced;
+    SingleFlight<Long, String> flight;
+    ExecutorService pool;
+
+    @BeforeEach
+    void setup() {
+        coalesced = Counter.builder("test.coalesced").register(new SimpleMeterRegistry());
+        flight = new SingleFlight<>(coalesced);
+        pool = Executors.newFixedThreadPool(WAITERS + 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    // starts a leader that blocks inside the loader, then WAITERS callers for the same key
+    private List<Future<String>> stampede(AtomicInteger loads, CountDownLatch release, RuntimeException failure)
+            throws InterruptedException {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+
+        results.add(pool.submit(() -> flight.load(1L, () -> {
+            loads.incrementAndGet();
+            leaderStarted.countDown();
+            await(release);
+            if (failure != null) throw failure;
+            return "value";
+        })));
+        assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        for (int i = 0; i < WAITERS; i++) {
+            results.add(pool.submit(() -> flight.load(1L, () -> {
+                loads.incrementAndGet();
+                return "other";
+            })));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalesced.count() < WAITERS && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        return results;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void concurrentCallers_shareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+
+        for (Future<String> result : stampede(loads, new CountDownLatch(1), null)) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+        }
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(coalesced.count()).isEqualTo(WAITERS);
+        assertThat(flight.inFlightCount()).isZero();
+    }
+
+    @Test
+    void concurrentCallers_shareTheLeadersException() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        NotFoundException failure = new NotFoundException("Book not found");
+
+        for (Future<String> result : stampede(loads, new CountDownLatch(1), failure)) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCause(failure);
+        }
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void sequentialCalls_loadEachTime() {
+        AtomicInteger loads = new AtomicInteger();
+
+        flight.load(1L, () -> "a" + loads.incrementAndGet());
+        String second = flight.load(1L, () -> "a" + loads.incrementAndGet());
+
+        assertThat(second).isEqualTo("a2");
+        assertThat(coalesced.count()).isZero();
+    }
+
+    @Test
+    void failedLoad_isNotRemembered() {
+        assertThatThrownBy(() -> flight.load(1L, () -> { throw new IllegalStateException("boom"); }))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(flight.load(1L, () -> "ok")).isEqualTo("ok");
+    }
+}
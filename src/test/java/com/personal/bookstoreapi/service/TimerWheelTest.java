@@ -0,0 +1,60 @@
+package com.personal.bookstoreapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimerWheelTest {
+
+    // 1 s ticks, 8 buckets, starting at t = 0
+    private final TimerWheel wheel = new TimerWheel(1_000, 8, 0);
+
+    private List<Long> advance(long nowMillis) {
+        List<Long> fired = new ArrayList<>();
+        wheel.advance(nowMillis, fired::add);
+        return fired;
+    }
+
+    @Test
+    void firesOnlyOnceDeadlinePassed() {
+        wheel.schedule(1, 2_500);
+        wheel.schedule(2, 3_000);
+
+        assertThat(advance(2_999)).isEmpty();
+        assertThat(advance(3_000)).containsExactly(1L, 2L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void deadlinesBeyondOneRotation_waitForTheirRound() {
+        wheel.schedule(1, 2_000);
+        wheel.schedule(2, 10_000); // same bucket, one rotation later
+
+        assertThat(advance(2_000)).containsExactly(1L);
+        assertThat(advance(9_000)).isEmpty();
+        assertThat(advance(10_000)).containsExactly(2L);
+    }
+
+    @Test
+    void longPause_firesEverythingDueInOnePass() {
+        for (long id = 1; id <= 100; id++) {
+            wheel.schedule(id, id * 700);
+        }
+
+        assertThat(advance(35_000)).hasSize(50);
+        assertThat(wheel.size()).isEqualTo(50);
+        assertThat(advance(70_000)).hasSize(50);
+    }
+
+    @Test
+    void pastDeadline_firesOnNextAdvance() {
+        advance(5_000);
+        wheel.schedule(7, 1_000);
+
+        assertThat(advance(5_000)).isEmpty();
+        assertThat(advance(6_000)).containsExactly(7L);
+    }
+}
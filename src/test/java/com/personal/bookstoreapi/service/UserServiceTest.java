@@ -1,7 +1,10 @@
 package com.personal.bookstoreapi.service;
 
 import com.personal.bookstoreapi.domain.entity.User;
+import com.personal.bookstoreapi.domain.enums.UserRole;
 import com.personal.bookstoreapi.repository.UserRepository;
+import com.personal.bookstoreapi.security.AuthenticatedUser;
+import com.personal.bookstoreapi.security.TokenVersionCache;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -9,13 +12,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,6 +31,9 @@ class UserServiceTest {
     @Mock
     UserRepository userRepository;
 
+    @Mock
+    TokenVersionCache tokenVersions;
+
     @InjectMocks
     UserService userService;
 
@@ -34,6 +44,26 @@ class UserServiceTest {
 
     @Nested
     class GetCurrentUser {
+        @Test
+        void happy_tokenPrincipal_isResolvedWithoutQuery() {
+            var principal = new AuthenticatedUser(4L, "a@b.com", "A", 2, UserRole.CUSTOMER);
+            TestSecurityUtil.setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+
+            User res = userService.getCurrentUser();
+
+            assertThat(res.getId()).isEqualTo(4L);
+            assertThat(res.getEmail()).isEqualTo("a@b.com");
+            verifyNoInteractions(userRepository);
+        }
+
+        @Test
+        void happy_tokenPrincipal_keepsItsRole() {
+            var principal = new AuthenticatedUser(5L, "p@b.com", "P", 0, UserRole.PARTNER);
+            TestSecurityUtil.setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, principal.authorities()));
+
+            assertThat(userService.getCurrentUser().getRole()).isEqualTo(UserRole.PARTNER);
+        }
+
         @Test
         void happy_returnsUserWhenAuthenticated() {
             Authentication auth = mock(Authentication.class);
@@ -74,4 +104,13 @@ class UserServiceTest {
             assertThatThrownBy(() -> userService.getCurrentUser()).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("User not found");
         }
     }
+
+    @Test
+    void revokeTokens_bumpsTheCallersVersion() {
+        TestSecurityUtil.setAuthentication(new UsernamePasswordAuthenticationToken(new AuthenticatedUser(4L, "a@b.com", "A", 0, UserRole.CUSTOMER), null, List.of()));
+
+        userService.revokeTokens();
+
+        verify(tokenVersions).revoke(4L);
+    }
 }